@@ -19,6 +19,7 @@ NC='\033[0m' # No Color
 build_service() {
     local service_name=$1
     local service_path=$2
+    local goal=${3:-package}
     
     echo ""
     echo -e "${YELLOW}Building ${service_name}...${NC}"
@@ -28,7 +29,7 @@ build_service() {
         
         if [ -f "pom.xml" ]; then
             echo "Using Maven..."
-            ./mvnw clean package -DskipTests
+            ./mvnw clean $goal -DskipTests
         elif [ -f "build.gradle" ]; then
             echo "Using Gradle..."
             ./gradlew clean build -x test
@@ -58,9 +59,10 @@ echo "========================================"
 echo "Building Shared Modules"
 echo "========================================"
 
-build_service "Common Models" "shared/common-models"
-build_service "Common Utils" "shared/common-utils"
-build_service "Security Config" "shared/security-config"
+# Installed so the services can resolve them from the local repository
+build_service "Common Models" "shared/common-models" install
+build_service "Common Utils" "shared/common-utils" install
+build_service "Security Config" "shared/security-config" install
 
 # Build infrastructure services
 echo ""
@@ -0,0 +1,47 @@
+package com.ecommerce.payment.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived Redis leases that let one instance at a time load a missing cache entry
+ * ({@code SET NX PX}). A lease expires on its own, so a crashed holder only delays the
+ * others by its TTL; release is compare-and-delete so an expired holder cannot free a
+ * lease someone else took over.
+ */
+public class CacheLoadLocks {
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+
+    public CacheLoadLocks(StringRedisTemplate redisTemplate, Duration leaseTtl) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+    }
+
+    /**
+     * @return a token to release the lease with, or {@code null} if another instance holds it
+     */
+    public String tryAcquire(String cacheName, Object key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, leaseTtl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    public void release(String cacheName, Object key, String token) {
+        redisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    private static String lockKey(String cacheName, Object key) {
+        return "cache-load-lock:" + cacheName + "::" + key;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.payment.cache;
+
+import com.ecommerce.payment.model.Payment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Knows every {@code payments} cache key derived from a payment and evicts exactly those:
+ * {@code <id>}, {@code order-<orderId>} and {@code user-<userId>}.
+ * Inside a transaction the eviction runs after commit so that a concurrent reader
+ * cannot repopulate the cache with the pre-commit row.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentCacheInvalidator {
+
+    public static final String PAYMENTS_CACHE = "payments";
+
+    private final CacheManager cacheManager;
+
+    public void evict(Payment payment) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long id = payment.getId();
+            String orderId = payment.getOrderId();
+            String userId = payment.getUserId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictKeys(id, orderId, userId);
+                }
+            });
+        } else {
+            evictKeys(payment.getId(), payment.getOrderId(), payment.getUserId());
+        }
+    }
+
+    private void evictKeys(Long id, String orderId, String userId) {
+        Cache cache = cacheManager.getCache(PAYMENTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (id != null) {
+            cache.evict(id);
+        }
+        if (orderId != null) {
+            cache.evict("order-" + orderId);
+        }
+        if (userId != null) {
+            cache.evict("user-" + userId);
+        }
+    }
+}
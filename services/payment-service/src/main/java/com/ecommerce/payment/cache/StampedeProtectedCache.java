@@ -0,0 +1,284 @@
+package com.ecommerce.payment.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Guards a shared cache against stampedes when a popular entry expires or is evicted.
+ * Used through {@link #get(Object, Callable)}, i.e. {@code @Cacheable(sync = true)}:
+ * <ul>
+ *   <li>Concurrent misses for one key within this JVM share a single load.</li>
+ *   <li>Across instances, the loader takes a short {@link CacheLoadLocks} lease; the others
+ *       poll the cache for its result for up to {@code lockWait}, then load themselves.</li>
+ *   <li>Entries this instance loaded are reloaded in the background shortly before they
+ *       expire, with a probability that rises towards expiry (XFetch: refresh when
+ *       {@code -delta * beta * ln(random)} reaches the remaining lifetime, where
+ *       {@code delta} is the load time, at least {@code minDelta}).</li>
+ * </ul>
+ * Unlike the cache's own synchronized loading, loads of different keys never wait on
+ * each other. A cache without a time-to-live ({@link Duration#ZERO}) gets no refresh-ahead.
+ */
+@Slf4j
+public class StampedeProtectedCache implements Cache {
+
+    private static final long POLL_INTERVAL_MS = 20;
+
+    private final Cache delegate;
+    private final CacheLoadLocks locks;
+    private final Executor refreshExecutor;
+    private final long timeToLiveNanos;
+    private final Duration lockWait;
+    private final double beta;
+    private final long minDeltaNanos;
+
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, LoadStamp> loadStamps;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> evictedAt;
+
+    public StampedeProtectedCache(Cache delegate, CacheLoadLocks locks, Executor refreshExecutor,
+                                  Duration timeToLive, Duration lockWait, double beta, Duration minDelta,
+                                  long maxTrackedKeys) {
+        this.delegate = delegate;
+        this.locks = locks;
+        this.refreshExecutor = refreshExecutor;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.lockWait = lockWait;
+        this.beta = beta;
+        this.minDeltaNanos = minDelta.toNanos();
+        this.loadStamps = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.evictedAt = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the guarded cache if {@code cache} is a {@link StampedeProtectedCache}, else {@code cache}
+     */
+    public static Cache unwrap(Cache cache) {
+        return cache instanceof StampedeProtectedCache protectedCache ? protectedCache.getDelegate() : cache;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            maybeRefreshAhead(key, valueLoader);
+            return (T) cached.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            return (T) join(key, existing, valueLoader);
+        }
+        try {
+            Object value = loadShared(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        loadStamps.invalidate(key);
+        evictedAt.put(key, System.nanoTime());
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        loadStamps.invalidate(key);
+        evictedAt.put(key, System.nanoTime());
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        loadStamps.invalidateAll();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        loadStamps.invalidateAll();
+        return delegate.invalidate();
+    }
+
+    /**
+     * Load under the cross-instance lease, or wait for the instance that holds it.
+     */
+    private Object loadShared(Object key, Callable<?> valueLoader) {
+        String token = locks.tryAcquire(getName(), key);
+        if (token == null) {
+            ValueWrapper loadedElsewhere = awaitPeer(key);
+            if (loadedElsewhere != null) {
+                return loadedElsewhere.get();
+            }
+            return load(key, valueLoader);
+        }
+        try {
+            ValueWrapper cached = delegate.get(key);
+            return cached != null ? cached.get() : load(key, valueLoader);
+        } finally {
+            locks.release(getName(), key, token);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loaded = System.nanoTime();
+        Long evicted = evictedAt.getIfPresent(key);
+        if (evicted != null && evicted - started >= 0) {
+            // Evicted by a write while loading; the value may predate it, so do not cache it
+            return value;
+        }
+        if (value != null) {
+            delegate.put(key, value);
+            if (timeToLiveNanos > 0) {
+                loadStamps.put(key, new LoadStamp(loaded + timeToLiveNanos, loaded - started));
+            }
+        }
+        return value;
+    }
+
+    private ValueWrapper awaitPeer(Object key) {
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper cached = delegate.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private Object join(Object key, CompletableFuture<Object> load, Callable<?> valueLoader) {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            // Rethrow the leader's failure as is, so the caller sees the same exception
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private void maybeRefreshAhead(Object key, Callable<?> valueLoader) {
+        LoadStamp stamp = loadStamps.getIfPresent(key);
+        if (stamp == null) {
+            return;
+        }
+        long remaining = stamp.expiresAtNanos - System.nanoTime();
+        double delta = Math.max(stamp.loadNanos, minDeltaNanos);
+        double gap = -delta * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        if (gap < remaining || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    String token = locks.tryAcquire(getName(), key);
+                    if (token != null) {
+                        try {
+                            load(key, valueLoader);
+                        } finally {
+                            locks.release(getName(), key, token);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Refresh-ahead of {}::{} failed", getName(), key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private static final class LoadStamp {
+
+        private final long expiresAtNanos;
+        private final long loadNanos;
+
+        LoadStamp(long expiresAtNanos, long loadNanos) {
+            this.expiresAtNanos = expiresAtNanos;
+            this.loadNanos = loadNanos;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.payment.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Cache manager that wraps every cache of another manager in a
+ * {@link StampedeProtectedCache}. Background refreshes run on a small bounded pool of
+ * daemon threads; when it is saturated, refresh-ahead is skipped and entries simply
+ * expire.
+ */
+public class StampedeProtectedCacheManager implements CacheManager {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private final CacheManager delegate;
+    private final CacheLoadLocks locks;
+    private final Function<String, Duration> timeToLive;
+    private final Duration lockWait;
+    private final double beta;
+    private final Duration minDelta;
+    private final long maxTrackedKeys;
+    private final ExecutorService refreshExecutor;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public StampedeProtectedCacheManager(CacheManager delegate, CacheLoadLocks locks,
+                                         Function<String, Duration> timeToLive, Duration lockWait,
+                                         double beta, Duration minDelta, long maxTrackedKeys,
+                                         int refreshThreads) {
+        this.delegate = delegate;
+        this.locks = locks;
+        this.timeToLive = timeToLive;
+        this.lockWait = lockWait;
+        this.beta = beta;
+        this.minDelta = minDelta;
+        this.maxTrackedKeys = maxTrackedKeys;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private Cache createCache(String name) {
+        Cache cache = delegate.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        return new StampedeProtectedCache(cache, locks, refreshExecutor, timeToLive.apply(name),
+                lockWait, beta, minDelta, maxTrackedKeys);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.payment.config;
+
+import com.ecommerce.common.cache.codec.SmileCacheValueCodec;
+import com.ecommerce.common.cache.codec.VersionedCacheSerializer;
+import com.ecommerce.payment.cache.CacheLoadLocks;
+import com.ecommerce.payment.cache.StampedeProtectedCache;
+import com.ecommerce.payment.cache.StampedeProtectedCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Redis cache configuration. Values are stored in the compact versioned format of
+ * {@link VersionedCacheSerializer}; TTL and null handling still come from
+ * {@code spring.cache.redis.*}. Every cache is guarded against load stampedes by
+ * {@link StampedeProtectedCache}. Only active when {@code spring.cache.type=redis}.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+public class CacheConfig {
+
+    @Value("${payment.cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${payment.cache.stampede.lock-ttl:5s}")
+    private Duration loadLockTtl;
+
+    @Value("${payment.cache.stampede.lock-wait:500ms}")
+    private Duration loadLockWait;
+
+    @Value("${payment.cache.stampede.refresh-ahead.beta:1.0}")
+    private double refreshAheadBeta;
+
+    @Value("${payment.cache.stampede.refresh-ahead.min-delta:1s}")
+    private Duration refreshAheadMinDelta;
+
+    @Value("${payment.cache.stampede.refresh-ahead.tracked-keys:100000}")
+    private long refreshAheadTrackedKeys;
+
+    @Value("${payment.cache.stampede.refresh-ahead.threads:2}")
+    private int refreshAheadThreads;
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                     RedisCacheConfiguration redisCacheConfiguration,
+                                     StringRedisTemplate redisTemplate) {
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisCacheConfiguration);
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            builder.initialCacheNames(new LinkedHashSet<>(cacheProperties.getCacheNames()));
+        }
+        if (cacheProperties.getRedis().isEnableStatistics()) {
+            builder.enableStatistics();
+        }
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+
+        Duration timeToLive = cacheProperties.getRedis().getTimeToLive() != null
+                ? cacheProperties.getRedis().getTimeToLive() : Duration.ZERO;
+        return new StampedeProtectedCacheManager(redisCacheManager,
+                new CacheLoadLocks(redisTemplate, loadLockTtl), name -> timeToLive,
+                loadLockWait, refreshAheadBeta, refreshAheadMinDelta, refreshAheadTrackedKeys, refreshAheadThreads);
+    }
+
+    /**
+     * Binds the Redis cache metrics of the guarded caches.
+     */
+    @Bean
+    public CacheMeterBinderProvider<StampedeProtectedCache> stampedeProtectedCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getDelegate() instanceof RedisCache redisCache
+                ? new RedisCacheMetrics(redisCache, tags)
+                : null;
+    }
+
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), compressionThreshold)));
+        if (redis.getTimeToLive() != null) {
+            config = config.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+}
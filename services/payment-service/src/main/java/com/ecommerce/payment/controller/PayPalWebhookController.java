@@ -1,5 +1,7 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.payment.cache.PaymentCacheInvalidator;
+import com.ecommerce.payment.event.PaymentEventPublisher;
 import com.ecommerce.payment.model.Payment;
 import com.ecommerce.payment.repository.PaymentRepository;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -7,7 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -22,11 +24,11 @@ import java.time.LocalDateTime;
 public class PayPalWebhookController {
 
     private final PaymentRepository paymentRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PaymentCacheInvalidator cacheInvalidator;
+    private final PaymentEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     private final ObjectMapper objectMapper;
 
-    private static final String PAYMENT_EVENTS_TOPIC = "payment-events";
-
     @PostMapping
     public ResponseEntity<String> handlePayPalWebhook(@RequestBody String payload) {
         log.info("Received PayPal webhook");
@@ -71,15 +73,16 @@ public class PayPalWebhookController {
             if (orderId != null) {
                 log.info("Payment capture completed for order: {}", orderId);
                 
-                paymentRepository.findByTransactionId(orderId)
+                transactionTemplate.executeWithoutResult(status -> paymentRepository.findByTransactionId(orderId)
                         .ifPresent(payment -> {
                             payment.setStatus(Payment.PaymentStatus.COMPLETED);
                             payment.setCompletedAt(LocalDateTime.now());
                             paymentRepository.save(payment);
+                            cacheInvalidator.evict(payment);
                             
-                            kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.completed", payment);
+                            eventPublisher.publish("payment.completed", payment);
                             log.info("Payment completed: {}", payment.getId());
-                        });
+                        }));
             }
         } catch (Exception e) {
             log.error("Error handling PayPal payment capture completed", e);
@@ -96,15 +99,16 @@ public class PayPalWebhookController {
             if (orderId != null) {
                 log.info("Payment capture denied for order: {}", orderId);
                 
-                paymentRepository.findByTransactionId(orderId)
+                transactionTemplate.executeWithoutResult(status -> paymentRepository.findByTransactionId(orderId)
                         .ifPresent(payment -> {
                             payment.setStatus(Payment.PaymentStatus.FAILED);
                             payment.setFailureReason("Payment capture denied by PayPal");
                             paymentRepository.save(payment);
+                            cacheInvalidator.evict(payment);
                             
-                            kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.failed", payment);
+                            eventPublisher.publish("payment.failed", payment);
                             log.info("Payment failed: {}", payment.getId());
-                        });
+                        }));
             }
         } catch (Exception e) {
             log.error("Error handling PayPal payment capture denied", e);
@@ -130,14 +134,15 @@ public class PayPalWebhookController {
             
             log.info("Checkout order approved: {}", orderId);
             
-            paymentRepository.findByTransactionId(orderId)
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.findByTransactionId(orderId)
                     .ifPresent(payment -> {
                         payment.setStatus(Payment.PaymentStatus.PROCESSING);
                         paymentRepository.save(payment);
+                        cacheInvalidator.evict(payment);
                         
-                        kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.approved", payment);
+                        eventPublisher.publish("payment.approved", payment);
                         log.info("Payment approved: {}", payment.getId());
-                    });
+                    }));
         } catch (Exception e) {
             log.error("Error handling PayPal checkout order approved", e);
         }
@@ -1,9 +1,11 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.common.dto.FieldSelection;
 import com.ecommerce.payment.dto.PaymentRequest;
 import com.ecommerce.payment.dto.PaymentResponse;
 import com.ecommerce.payment.model.Payment;
 import com.ecommerce.payment.service.PaymentService;
+import com.ecommerce.payment.warmup.AccessHistory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -28,6 +31,7 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final AccessHistory accessHistory;
 
     @PostMapping
     @Operation(summary = "Create a new payment", description = "Initiates a payment transaction with Stripe or PayPal")
@@ -69,38 +73,57 @@ public class PaymentController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get payment by ID", description = "Retrieves payment details by payment ID")
-    public ResponseEntity<PaymentResponse> getPayment(
-            @Parameter(description = "Payment ID") @PathVariable Long id) {
+    public ResponseEntity<MappingJacksonValue> getPayment(
+            @Parameter(description = "Payment ID") @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields to return") @RequestParam(required = false) String fields) {
         log.info("Received request to get payment: {}", id);
-        PaymentResponse response = paymentService.getPayment(id);
-        return ResponseEntity.ok(response);
+        FieldSelection selection = FieldSelection.parse(fields, PaymentResponse.class);
+        PaymentResponse response = selection.isAll()
+                ? paymentService.getPayment(id)
+                : paymentService.getPayment(id, selection);
+        accessHistory.record(String.valueOf(id));
+        return ResponseEntity.ok(selection.apply(response));
     }
 
     @GetMapping("/order/{orderId}")
     @Operation(summary = "Get payment by order ID", description = "Retrieves payment details by order ID")
-    public ResponseEntity<PaymentResponse> getPaymentByOrderId(
-            @Parameter(description = "Order ID") @PathVariable String orderId) {
+    public ResponseEntity<MappingJacksonValue> getPaymentByOrderId(
+            @Parameter(description = "Order ID") @PathVariable String orderId,
+            @Parameter(description = "Comma-separated fields to return") @RequestParam(required = false) String fields) {
         log.info("Received request to get payment for order: {}", orderId);
-        PaymentResponse response = paymentService.getPaymentByOrderId(orderId);
-        return ResponseEntity.ok(response);
+        FieldSelection selection = FieldSelection.parse(fields, PaymentResponse.class);
+        PaymentResponse response = selection.isAll()
+                ? paymentService.getPaymentByOrderId(orderId)
+                : paymentService.getPaymentByOrderId(orderId, selection);
+        accessHistory.record("order-" + orderId);
+        return ResponseEntity.ok(selection.apply(response));
     }
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get payments by user", description = "Retrieves all payments for a specific user")
-    public ResponseEntity<List<PaymentResponse>> getUserPayments(
-            @Parameter(description = "User ID") @PathVariable String userId) {
+    public ResponseEntity<MappingJacksonValue> getUserPayments(
+            @Parameter(description = "User ID") @PathVariable String userId,
+            @Parameter(description = "Comma-separated fields to return") @RequestParam(required = false) String fields) {
         log.info("Received request to get payments for user: {}", userId);
-        List<PaymentResponse> response = paymentService.getUserPayments(userId);
-        return ResponseEntity.ok(response);
+        FieldSelection selection = FieldSelection.parse(fields, PaymentResponse.class);
+        List<PaymentResponse> response = selection.isAll()
+                ? paymentService.getUserPayments(userId)
+                : paymentService.getUserPayments(userId, selection);
+        accessHistory.record("user-" + userId);
+        return ResponseEntity.ok(selection.apply(response));
     }
 
     @GetMapping("/status/{status}")
     @Operation(summary = "Get payments by status", description = "Retrieves all payments with a specific status")
-    public ResponseEntity<List<PaymentResponse>> getPaymentsByStatus(
-            @Parameter(description = "Payment status") @PathVariable Payment.PaymentStatus status) {
+    public ResponseEntity<MappingJacksonValue> getPaymentsByStatus(
+            @Parameter(description = "Payment status") @PathVariable Payment.PaymentStatus status,
+            @Parameter(description = "Comma-separated fields to return") @RequestParam(required = false) String fields) {
         log.info("Received request to get payments with status: {}", status);
-        List<PaymentResponse> response = paymentService.getPaymentsByStatus(status);
-        return ResponseEntity.ok(response);
+        FieldSelection selection = FieldSelection.parse(fields, PaymentResponse.class);
+        List<PaymentResponse> response = selection.isAll()
+                ? paymentService.getPaymentsByStatus(status)
+                : paymentService.getPaymentsByStatus(status, selection);
+        return ResponseEntity.ok(selection.apply(response));
     }
 
     @GetMapping("/health")
@@ -1,5 +1,7 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.payment.cache.PaymentCacheInvalidator;
+import com.ecommerce.payment.event.PaymentEventPublisher;
 import com.ecommerce.payment.model.Payment;
 import com.ecommerce.payment.repository.PaymentRepository;
 import com.stripe.exception.SignatureVerificationException;
@@ -10,7 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -25,13 +27,13 @@ import java.time.LocalDateTime;
 public class StripeWebhookController {
 
     private final PaymentRepository paymentRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PaymentCacheInvalidator cacheInvalidator;
+    private final PaymentEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    private static final String PAYMENT_EVENTS_TOPIC = "payment-events";
-
     @PostMapping
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
@@ -80,15 +82,16 @@ public class StripeWebhookController {
 
         log.info("Payment intent succeeded: {}", paymentIntent.getId());
 
-        paymentRepository.findByPaymentIntentId(paymentIntent.getId())
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findByPaymentIntentId(paymentIntent.getId())
                 .ifPresent(payment -> {
                     payment.setStatus(Payment.PaymentStatus.COMPLETED);
                     payment.setCompletedAt(LocalDateTime.now());
                     paymentRepository.save(payment);
+                    cacheInvalidator.evict(payment);
                     
-                    kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.completed", payment);
+                    eventPublisher.publish("payment.completed", payment);
                     log.info("Payment completed: {}", payment.getId());
-                });
+                }));
     }
 
     private void handlePaymentIntentFailed(Event event) {
@@ -98,17 +101,18 @@ public class StripeWebhookController {
 
         log.info("Payment intent failed: {}", paymentIntent.getId());
 
-        paymentRepository.findByPaymentIntentId(paymentIntent.getId())
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findByPaymentIntentId(paymentIntent.getId())
                 .ifPresent(payment -> {
                     payment.setStatus(Payment.PaymentStatus.FAILED);
                     payment.setFailureReason(paymentIntent.getLastPaymentError() != null 
                             ? paymentIntent.getLastPaymentError().getMessage() 
                             : "Payment failed");
                     paymentRepository.save(payment);
+                    cacheInvalidator.evict(payment);
                     
-                    kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.failed", payment);
+                    eventPublisher.publish("payment.failed", payment);
                     log.info("Payment failed: {}", payment.getId());
-                });
+                }));
     }
 
     private void handlePaymentIntentCanceled(Event event) {
@@ -118,14 +122,15 @@ public class StripeWebhookController {
 
         log.info("Payment intent canceled: {}", paymentIntent.getId());
 
-        paymentRepository.findByPaymentIntentId(paymentIntent.getId())
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findByPaymentIntentId(paymentIntent.getId())
                 .ifPresent(payment -> {
                     payment.setStatus(Payment.PaymentStatus.CANCELLED);
                     paymentRepository.save(payment);
+                    cacheInvalidator.evict(payment);
                     
-                    kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, "payment.cancelled", payment);
+                    eventPublisher.publish("payment.cancelled", payment);
                     log.info("Payment cancelled: {}", payment.getId());
-                });
+                }));
     }
 
     private void handleChargeRefunded(Event event) {
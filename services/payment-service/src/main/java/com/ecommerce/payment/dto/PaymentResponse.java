@@ -1,6 +1,8 @@
 package com.ecommerce.payment.dto;
 
+import com.ecommerce.common.dto.FieldSelection;
 import com.ecommerce.payment.model.Payment;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,6 +18,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class PaymentResponse {
 
     private Long id;
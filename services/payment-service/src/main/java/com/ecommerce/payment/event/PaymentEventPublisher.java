@@ -0,0 +1,28 @@
+package com.ecommerce.payment.event;
+
+import com.ecommerce.payment.model.Payment;
+import com.ecommerce.payment.outbox.OutboxRelay;
+import com.ecommerce.payment.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes payment events to the {@code payment-events} topic through the outbox.
+ * Records are keyed by payment id, so all events of a payment stay in order on one
+ * partition; the event type travels in the {@value OutboxRelay#EVENT_TYPE_HEADER} header.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentEventPublisher {
+
+    public static final String PAYMENT_EVENTS_TOPIC = "payment-events";
+
+    private final OutboxWriter outboxWriter;
+
+    public void publish(String eventType, Payment payment) {
+        outboxWriter.append(PAYMENT_EVENTS_TOPIC, String.valueOf(payment.getId()), eventType, payment);
+        log.info("Queued event: {} for payment: {}", eventType, payment.getId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.payment.outbox;
+
+import com.ecommerce.payment.model.OutboxEvent;
+import com.ecommerce.payment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka in id order, one batch per transaction. The transaction
+ * takes a PostgreSQL advisory lock first, so only one instance relays at a time. The
+ * whole batch is handed to the producer and flushed, and the acknowledged prefix is
+ * deleted; a failed send ends the run so that later records are retried in order.
+ * Delivery is at least once: a crash before commit re-sends the batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    private static final long RELAY_LOCK_KEY = 0x7061796d656e74L; // "payment"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${payment.outbox.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay-interval-ms:100}")
+    public void relay() {
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            Boolean more = transactionTemplate.execute(status -> relayBatch());
+            if (!Boolean.TRUE.equals(more)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return whether another full batch may be waiting
+     */
+    private boolean relayBatch() {
+        if (!outboxEventRepository.tryTransactionLock(RELAY_LOCK_KEY)) {
+            return false;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return false;
+        }
+        int sent = send(batch);
+        if (sent > 0) {
+            outboxEventRepository.deleteAllInBatch(batch.subList(0, sent));
+            log.debug("Relayed {} outbox events", sent);
+        }
+        return sent == batch.size() && batch.size() == batchSize;
+    }
+
+    /**
+     * @return length of the prefix of {@code batch} the broker acknowledged
+     */
+    private int send(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        try {
+            for (OutboxEvent event : batch) {
+                futures.add(kafkaTemplate.send(toRecord(event)));
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay could not hand event {} to the producer", batch.get(futures.size()).getId(), e);
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Outbox relay failed to send event {}, retrying from it on the next run",
+                        batch.get(i).getId(), e);
+                return i;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            }
+        }
+        return futures.size();
+    }
+
+    private ProducerRecord<String, Object> toRecord(OutboxEvent event) throws Exception {
+        Object payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(), payload);
+        if (event.getEventType() != null) {
+            record.headers().add(EVENT_TYPE_HEADER, event.getEventType().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
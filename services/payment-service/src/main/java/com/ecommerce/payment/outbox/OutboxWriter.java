@@ -0,0 +1,44 @@
+package com.ecommerce.payment.outbox;
+
+import com.ecommerce.payment.model.OutboxEvent;
+import com.ecommerce.payment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appends records to the outbox within the caller's transaction (or a new one). The
+ * payload is serialized immediately, so the record reflects the entity as of the write.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void append(String topic, String key, String eventType, Object payload) {
+        // Write pending entity changes first: the row locks they take order concurrent
+        // writers of the same key, and the outbox id must follow that order.
+        entityManager.flush();
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .topic(topic)
+                    .messageKey(key)
+                    .eventType(eventType)
+                    .payloadType(payload.getClass().getName())
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " event", e);
+        }
+    }
+}
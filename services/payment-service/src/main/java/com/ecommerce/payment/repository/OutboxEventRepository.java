@@ -0,0 +1,27 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for {@link OutboxEvent}.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Take a PostgreSQL advisory lock held until the current transaction ends.
+     *
+     * @return whether the lock was free
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryTransactionLock(@Param("key") long key);
+}
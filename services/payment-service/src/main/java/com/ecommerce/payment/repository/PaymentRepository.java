@@ -17,7 +17,7 @@ import java.util.Optional;
  * Repository for Payment entity.
  */
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentRepositoryCustom {
 
     Optional<Payment> findByOrderId(String orderId);
 
@@ -0,0 +1,18 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.dto.PaymentResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Payment queries that need the JPA Criteria API.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Find payments whose {@code attribute} equals {@code value}, selecting only the
+     * given {@link PaymentResponse} properties from the database.
+     */
+    List<PaymentResponse> findSelected(String attribute, Object value, Collection<String> fields);
+}
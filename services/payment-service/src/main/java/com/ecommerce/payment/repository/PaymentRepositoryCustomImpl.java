@@ -0,0 +1,51 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.dto.PaymentResponse;
+import com.ecommerce.payment.model.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link PaymentRepositoryCustom}. Properties of
+ * {@link PaymentResponse} map one-to-one onto {@link Payment} attributes.
+ */
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PaymentResponse> findSelected(String attribute, Object value, Collection<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Payment> payment = query.from(Payment.class);
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> payment.get(field).alias(field))
+                .toList();
+        query.multiselect(selections).where(builder.equal(payment.get(attribute), value));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(PaymentRepositoryCustomImpl::toResponse)
+                .toList();
+    }
+
+    private static PaymentResponse toResponse(Tuple tuple) {
+        PaymentResponse response = new PaymentResponse();
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(response);
+        for (TupleElement<?> element : tuple.getElements()) {
+            wrapper.setPropertyValue(element.getAlias(), tuple.get(element));
+        }
+        return response;
+    }
+}
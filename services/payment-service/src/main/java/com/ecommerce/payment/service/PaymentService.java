@@ -1,7 +1,10 @@
 package com.ecommerce.payment.service;
 
+import com.ecommerce.common.dto.FieldSelection;
+import com.ecommerce.payment.cache.PaymentCacheInvalidator;
 import com.ecommerce.payment.dto.PaymentRequest;
 import com.ecommerce.payment.dto.PaymentResponse;
+import com.ecommerce.payment.event.PaymentEventPublisher;
 import com.ecommerce.payment.exception.PaymentFailedException;
 import com.ecommerce.payment.exception.PaymentNotFoundException;
 import com.ecommerce.payment.model.Payment;
@@ -11,9 +14,9 @@ import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,15 +36,16 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final StripePaymentService stripePaymentService;
     private final PayPalPaymentService payPalPaymentService;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-
-    private static final String PAYMENT_EVENTS_TOPIC = "payment-events";
+    private final PaymentCacheInvalidator cacheInvalidator;
+    private final CacheManager cacheManager;
+    private final PaymentEventPublisher eventPublisher;
 
     /**
-     * Create a payment based on the payment method.
+     * Create a payment based on the payment method. A failed payment is still committed,
+     * with its {@code FAILED} status and {@code payment.failed} event, before the
+     * {@link PaymentFailedException} reaches the caller.
      */
-    @Transactional
-    @CacheEvict(value = "payments", allEntries = true)
+    @Transactional(noRollbackFor = PaymentFailedException.class)
     public PaymentResponse createPayment(PaymentRequest request) {
         log.info("Creating payment for order: {} with method: {}", 
                 request.getOrderId(), request.getPaymentMethod());
@@ -65,9 +69,9 @@ public class PaymentService {
 
         try {
             // Route to appropriate payment gateway
-            if ("STRIPE".equals(request.getPaymentMethod())) {
+            if (request.getPaymentMethod() == Payment.PaymentMethod.STRIPE) {
                 return processStripePayment(payment, request);
-            } else if ("PAYPAL".equals(request.getPaymentMethod())) {
+            } else if (request.getPaymentMethod() == Payment.PaymentMethod.PAYPAL) {
                 return processPayPalPayment(payment, request);
             } else {
                 throw new PaymentFailedException("Unsupported payment method: " + request.getPaymentMethod());
@@ -77,6 +81,7 @@ public class PaymentService {
             payment.setStatus(Payment.PaymentStatus.FAILED);
             payment.setFailureReason(e.getMessage());
             paymentRepository.save(payment);
+            cacheInvalidator.evict(payment);
             
             publishPaymentEvent("payment.failed", payment);
             throw new PaymentFailedException("Payment creation failed: " + e.getMessage());
@@ -95,6 +100,8 @@ public class PaymentService {
         payment.setPaymentUrl(paymentIntent.getClientSecret()); // Client secret for frontend
         
         Payment savedPayment = paymentRepository.save(payment);
+        
+        cacheInvalidator.evict(savedPayment);
         log.info("Stripe payment created: {} for order: {}", savedPayment.getId(), payment.getOrderId());
         
         publishPaymentEvent("payment.created", savedPayment);
@@ -112,6 +119,8 @@ public class PaymentService {
         payment.setPaymentUrl(payPalPaymentService.getApprovalUrl(order));
         
         Payment savedPayment = paymentRepository.save(payment);
+        
+        cacheInvalidator.evict(savedPayment);
         log.info("PayPal payment created: {} for order: {}", savedPayment.getId(), payment.getOrderId());
         
         publishPaymentEvent("payment.created", savedPayment);
@@ -119,10 +128,11 @@ public class PaymentService {
     }
 
     /**
-     * Confirm a payment (called after customer completes payment).
+     * Confirm a payment (called after customer completes payment). Like
+     * {@link #createPayment}, a failed confirmation commits the {@code FAILED} status and
+     * its event; the completion event is queued last, so it is never committed alongside.
      */
-    @Transactional
-    @CacheEvict(value = "payments", allEntries = true)
+    @Transactional(noRollbackFor = PaymentFailedException.class)
     public PaymentResponse confirmPayment(Long paymentId) {
         log.info("Confirming payment: {}", paymentId);
         
@@ -130,25 +140,26 @@ public class PaymentService {
                 .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
 
         try {
+            boolean completed = false;
             if (payment.getPaymentMethod() == Payment.PaymentMethod.STRIPE) {
                 PaymentIntent paymentIntent = stripePaymentService.retrievePaymentIntent(payment.getPaymentIntentId());
                 payment.setStatus(stripePaymentService.mapStripeStatus(paymentIntent.getStatus()));
-                
-                if ("succeeded".equals(paymentIntent.getStatus())) {
-                    payment.setCompletedAt(LocalDateTime.now());
-                    publishPaymentEvent("payment.completed", payment);
-                }
+                completed = "succeeded".equals(paymentIntent.getStatus());
             } else if (payment.getPaymentMethod() == Payment.PaymentMethod.PAYPAL) {
                 Order order = payPalPaymentService.captureOrder(payment.getTransactionId());
                 payment.setStatus(payPalPaymentService.mapPayPalStatus(order.status()));
-                
-                if ("COMPLETED".equals(order.status())) {
-                    payment.setCompletedAt(LocalDateTime.now());
-                    publishPaymentEvent("payment.completed", payment);
-                }
+                completed = "COMPLETED".equals(order.status());
+            }
+            if (completed) {
+                payment.setCompletedAt(LocalDateTime.now());
             }
             
             Payment updatedPayment = paymentRepository.save(payment);
+            
+            cacheInvalidator.evict(updatedPayment);
+            if (completed) {
+                publishPaymentEvent("payment.completed", updatedPayment);
+            }
             log.info("Payment confirmed: {}", paymentId);
             return mapToResponse(updatedPayment);
             
@@ -157,6 +168,7 @@ public class PaymentService {
             payment.setStatus(Payment.PaymentStatus.FAILED);
             payment.setFailureReason(e.getMessage());
             paymentRepository.save(payment);
+            cacheInvalidator.evict(payment);
             
             publishPaymentEvent("payment.failed", payment);
             throw new PaymentFailedException("Payment confirmation failed: " + e.getMessage());
@@ -167,7 +179,6 @@ public class PaymentService {
      * Cancel a payment.
      */
     @Transactional
-    @CacheEvict(value = "payments", allEntries = true)
     public PaymentResponse cancelPayment(Long paymentId) {
         log.info("Cancelling payment: {}", paymentId);
         
@@ -185,6 +196,7 @@ public class PaymentService {
             
             payment.setStatus(Payment.PaymentStatus.CANCELLED);
             Payment cancelledPayment = paymentRepository.save(payment);
+            cacheInvalidator.evict(cancelledPayment);
             
             publishPaymentEvent("payment.cancelled", cancelledPayment);
             log.info("Payment cancelled: {}", paymentId);
@@ -200,7 +212,6 @@ public class PaymentService {
      * Process a refund.
      */
     @Transactional
-    @CacheEvict(value = "payments", allEntries = true)
     public PaymentResponse refundPayment(Long paymentId, BigDecimal amount, String reason) {
         log.info("Processing refund for payment: {} with amount: {}", paymentId, amount);
         
@@ -232,6 +243,8 @@ public class PaymentService {
             }
             
             Payment refundedPayment = paymentRepository.save(payment);
+            
+            cacheInvalidator.evict(refundedPayment);
             publishPaymentEvent("payment.refunded", refundedPayment);
             
             log.info("Payment refunded: {}", paymentId);
@@ -246,7 +259,7 @@ public class PaymentService {
     /**
      * Get payment by ID.
      */
-    @Cacheable(value = "payments", key = "#paymentId")
+    @Cacheable(value = "payments", key = "#paymentId", sync = true)
     public PaymentResponse getPayment(Long paymentId) {
         log.info("Retrieving payment: {}", paymentId);
         Payment payment = paymentRepository.findById(paymentId)
@@ -257,7 +270,7 @@ public class PaymentService {
     /**
      * Get payment by order ID.
      */
-    @Cacheable(value = "payments", key = "'order-' + #orderId")
+    @Cacheable(value = "payments", key = "'order-' + #orderId", sync = true)
     public PaymentResponse getPaymentByOrderId(String orderId) {
         log.info("Retrieving payment for order: {}", orderId);
         Payment payment = paymentRepository.findByOrderId(orderId)
@@ -268,6 +281,7 @@ public class PaymentService {
     /**
      * Get all payments for a user.
      */
+    @Cacheable(value = "payments", key = "'user-' + #userId", sync = true)
     public List<PaymentResponse> getUserPayments(String userId) {
         log.info("Retrieving payments for user: {}", userId);
         List<Payment> payments = paymentRepository.findByUserId(userId);
@@ -288,15 +302,65 @@ public class PaymentService {
     }
 
     /**
-     * Publish payment event to Kafka.
+     * Get payment by ID, restricted to a sparse fieldset. A cached full entry is used when
+     * present; otherwise only the selected columns are read and the result is not cached.
      */
-    private void publishPaymentEvent(String eventType, Payment payment) {
-        try {
-            kafkaTemplate.send(PAYMENT_EVENTS_TOPIC, eventType, payment);
-            log.info("Published event: {} for payment: {}", eventType, payment.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish payment event: {}", eventType, e);
+    public PaymentResponse getPayment(Long paymentId, FieldSelection selection) {
+        log.info("Retrieving fields {} of payment: {}", selection.getFields(), paymentId);
+        PaymentResponse cached = getCached(paymentId, PaymentResponse.class);
+        if (cached != null) {
+            return cached;
+        }
+        return paymentRepository.findSelected("id", paymentId, selection.getFields()).stream()
+                .findFirst()
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
+    }
+
+    /**
+     * Get payment by order ID, restricted to a sparse fieldset.
+     */
+    public PaymentResponse getPaymentByOrderId(String orderId, FieldSelection selection) {
+        log.info("Retrieving fields {} of payment for order: {}", selection.getFields(), orderId);
+        PaymentResponse cached = getCached("order-" + orderId, PaymentResponse.class);
+        if (cached != null) {
+            return cached;
         }
+        return paymentRepository.findSelected("orderId", orderId, selection.getFields()).stream()
+                .findFirst()
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found for order: " + orderId));
+    }
+
+    /**
+     * Get all payments for a user, restricted to a sparse fieldset.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PaymentResponse> getUserPayments(String userId, FieldSelection selection) {
+        log.info("Retrieving fields {} of payments for user: {}", selection.getFields(), userId);
+        List<PaymentResponse> cached = getCached("user-" + userId, List.class);
+        if (cached != null) {
+            return cached;
+        }
+        return paymentRepository.findSelected("userId", userId, selection.getFields());
+    }
+
+    /**
+     * Get payments by status, restricted to a sparse fieldset.
+     */
+    public List<PaymentResponse> getPaymentsByStatus(Payment.PaymentStatus status, FieldSelection selection) {
+        log.info("Retrieving fields {} of payments with status: {}", selection.getFields(), status);
+        return paymentRepository.findSelected("status", status, selection.getFields());
+    }
+
+    private <T> T getCached(Object key, Class<T> type) {
+        Cache cache = cacheManager.getCache(PaymentCacheInvalidator.PAYMENTS_CACHE);
+        return cache != null ? cache.get(key, type) : null;
+    }
+
+    /**
+     * Queue a payment event in the outbox, within the current transaction.
+     */
+    private void publishPaymentEvent(String eventType, Payment payment) {
+        eventPublisher.publish(eventType, payment);
     }
 
     /**
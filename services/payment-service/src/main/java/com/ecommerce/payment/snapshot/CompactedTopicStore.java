@@ -0,0 +1,171 @@
+package com.ecommerce.payment.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes a log-compacted topic into an in-memory map: the latest value per key,
+ * with tombstones removing the key. The store assigns itself every partition (no
+ * consumer group, no committed offsets) and replays the topic from the beginning on each
+ * start; compaction keeps that replay proportional to the number of live keys. Once the
+ * end offsets observed at start have been reached the store is {@linkplain #isReady()
+ * ready}, and it keeps following the topic for as long as it runs.
+ * <p>
+ * Values are decoded with the given {@link ObjectMapper} into {@code type}, ignoring any
+ * type headers of the producer, so consumers need not share its classes.
+ *
+ * @param <V> value type
+ */
+@Slf4j
+public class CompactedTopicStore<V> {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final String topic;
+    private final Class<V> type;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Object> consumerProperties;
+    private final Map<String, V> values = new ConcurrentHashMap<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private volatile KafkaConsumer<String, byte[]> consumer;
+    private volatile boolean running;
+    private Thread thread;
+
+    public CompactedTopicStore(String topic, Class<V> type, ObjectMapper objectMapper,
+                               Map<String, Object> consumerProperties) {
+        this.topic = topic;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.consumerProperties = new HashMap<>(consumerProperties);
+        this.consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        this.consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        this.consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumerProperties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, topic + "-store");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        KafkaConsumer<String, byte[]> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join(POLL_TIMEOUT.multipliedBy(4).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public V get(String key) {
+        return values.get(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    /**
+     * Wait until the initial replay has completed.
+     *
+     * @return whether the store became ready within the timeout
+     */
+    public boolean awaitReady(Duration timeout) throws InterruptedException {
+        return ready.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        long started = System.nanoTime();
+        try (KafkaConsumer<String, byte[]> kafkaConsumer = new KafkaConsumer<>(consumerProperties)) {
+            consumer = kafkaConsumer;
+            List<TopicPartition> partitions = kafkaConsumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                log.error("Topic {} does not exist, not materializing it", topic);
+                return;
+            }
+            kafkaConsumer.assign(partitions);
+            kafkaConsumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = new HashMap<>(kafkaConsumer.endOffsets(partitions));
+
+            while (running) {
+                ConsumerRecords<String, byte[]> records = kafkaConsumer.poll(POLL_TIMEOUT);
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    apply(record);
+                }
+                if (!isReady() && caughtUp(kafkaConsumer, endOffsets.entrySet())) {
+                    ready.countDown();
+                    log.info("Loaded {} entries from {} in {} ms", values.size(), topic,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                }
+            }
+        } catch (WakeupException e) {
+            // stop() was called
+        } catch (RuntimeException e) {
+            log.error("Stopped following {}", topic, e);
+        } finally {
+            consumer = null;
+            running = false;
+        }
+    }
+
+    private void apply(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        if (record.value() == null) {
+            values.remove(record.key());
+            return;
+        }
+        try {
+            values.put(record.key(), objectMapper.readValue(record.value(), type));
+        } catch (IOException e) {
+            log.warn("Skipping undecodable record {} of {} at offset {}", record.key(), topic, record.offset(), e);
+        }
+    }
+
+    private static boolean caughtUp(KafkaConsumer<String, byte[]> consumer,
+                                    Collection<Map.Entry<TopicPartition, Long>> endOffsets) {
+        return endOffsets.stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.payment.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Local read model of the product catalog, materialized from product-service's compacted
+ * {@code product-snapshots} topic. Lookups are in-process map reads; until the initial
+ * replay has finished ({@link #isReady()}) they may miss products that exist.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.product-snapshots.enabled", havingValue = "true")
+public class ProductCatalog implements SmartLifecycle {
+
+    public static final String SNAPSHOT_TOPIC = "product-snapshots";
+
+    private final CompactedTopicStore<ProductSnapshot> store;
+
+    public ProductCatalog(KafkaProperties kafkaProperties, ObjectMapper objectMapper) {
+        this.store = new CompactedTopicStore<>(SNAPSHOT_TOPIC, ProductSnapshot.class, objectMapper,
+                kafkaProperties.buildConsumerProperties(null));
+    }
+
+    public Optional<ProductSnapshot> find(String productId) {
+        return Optional.ofNullable(store.get(productId));
+    }
+
+    public boolean isReady() {
+        return store.isReady();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void start() {
+        store.start();
+    }
+
+    @Override
+    public void stop() {
+        store.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return store.isRunning();
+    }
+}
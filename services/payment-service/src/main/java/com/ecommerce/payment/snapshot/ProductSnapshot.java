@@ -0,0 +1,30 @@
+package com.ecommerce.payment.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a product-service snapshot this service reads.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductSnapshot {
+
+    private String id;
+    private String sku;
+    private String name;
+    private String categoryId;
+    private BigDecimal price;
+    private String currency;
+    private Integer stockQuantity;
+    private Integer reservedQuantity;
+    private Boolean active;
+    private Boolean flashSale;
+    private Long version;
+    private LocalDateTime updatedAt;
+}
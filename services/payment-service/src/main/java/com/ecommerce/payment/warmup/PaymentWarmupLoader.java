@@ -0,0 +1,43 @@
+package com.ecommerce.payment.warmup;
+
+import com.ecommerce.payment.exception.PaymentNotFoundException;
+import com.ecommerce.payment.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Warms the {@code payments} cache through the cached lookups of {@link PaymentService},
+ * so entries still in Redis are only read and expired ones are reloaded from the
+ * database. Keys follow the cache's key scheme: {@code <paymentId>},
+ * {@code order-<orderId>} and {@code user-<userId>}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWarmupLoader implements WarmupLoader {
+
+    private static final String ORDER_PREFIX = "order-";
+    private static final String USER_PREFIX = "user-";
+
+    private final PaymentService paymentService;
+
+    @Override
+    public void load(List<String> keys) {
+        for (String key : keys) {
+            try {
+                if (key.startsWith(ORDER_PREFIX)) {
+                    paymentService.getPaymentByOrderId(key.substring(ORDER_PREFIX.length()));
+                } else if (key.startsWith(USER_PREFIX)) {
+                    paymentService.getUserPayments(key.substring(USER_PREFIX.length()));
+                } else {
+                    paymentService.getPayment(Long.valueOf(key));
+                }
+            } catch (PaymentNotFoundException | NumberFormatException e) {
+                log.debug("Skipping cache warm-up of key {}: {}", key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.payment.warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Approximate top-K of a key stream in bounded memory: a count-min sketch (conservative
+ * update) estimates every key's count, and a min-heap keeps the K keys with the highest
+ * estimates. Heap entries are refreshed lazily: a counted key only updates the candidate
+ * map, and stale heap entries are re-queued with their current count when they reach the
+ * top of the heap.
+ */
+class TopKSketch {
+
+    private final int k;
+    private final int depth;
+    private final int widthMask;
+    private final long[][] counters;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::count));
+
+    /**
+     * @param k     number of keys to track
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows (hash functions)
+     */
+    TopKSketch(int k, int width, int depth) {
+        this.k = k;
+        this.depth = depth;
+        int roundedWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.widthMask = roundedWidth - 1;
+        this.counters = new long[depth][roundedWidth];
+    }
+
+    synchronized void add(String key) {
+        long hash = hash(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row][index(hash, row)]);
+        }
+        long estimate = min + 1;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            if (counters[row][index] < estimate) {
+                counters[row][index] = estimate;
+            }
+        }
+        offer(key, estimate);
+    }
+
+    /**
+     * The tracked keys with their estimated counts, highest first.
+     */
+    synchronized List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> top.add(Map.entry(key, count)));
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return top;
+    }
+
+    /**
+     * Return the current top keys and start counting from zero.
+     */
+    synchronized List<Map.Entry<String, Long>> drain() {
+        List<Map.Entry<String, Long>> top = top();
+        for (long[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+        candidates.clear();
+        heap.clear();
+        return top;
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.containsKey(key)) {
+            candidates.put(key, estimate);
+            return;
+        }
+        if (candidates.size() < k) {
+            candidates.put(key, estimate);
+            heap.add(new Candidate(key, estimate));
+            return;
+        }
+        while (!heap.isEmpty()) {
+            Candidate lowest = heap.peek();
+            long current = candidates.get(lowest.key);
+            if (current != lowest.count) {
+                heap.poll();
+                heap.add(new Candidate(lowest.key, current));
+                continue;
+            }
+            if (estimate <= current) {
+                return;
+            }
+            heap.poll();
+            candidates.remove(lowest.key);
+            break;
+        }
+        candidates.put(key, estimate);
+        heap.add(new Candidate(key, estimate));
+    }
+
+    private int index(long hash, int row) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        return (int) ((h1 + row * h2) & widthMask);
+    }
+
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93E7FE1A877L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Candidate {
+
+        private final String key;
+        private final long count;
+
+        Candidate(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.payment.warmup;
+
+import java.util.List;
+
+/**
+ * Loads a batch of cache keys into the caches, as {@link CacheWarmup} found them in the
+ * {@link AccessHistory}. Keys that no longer resolve are skipped.
+ */
+public interface WarmupLoader {
+
+    void load(List<String> keys);
+}
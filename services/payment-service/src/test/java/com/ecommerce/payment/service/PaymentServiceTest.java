@@ -0,0 +1,153 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.cache.PaymentCacheInvalidator;
+import com.ecommerce.payment.dto.PaymentRequest;
+import com.ecommerce.payment.event.PaymentEventPublisher;
+import com.ecommerce.payment.exception.PaymentFailedException;
+import com.ecommerce.payment.model.OutboxEvent;
+import com.ecommerce.payment.model.Payment;
+import com.ecommerce.payment.outbox.OutboxWriter;
+import com.ecommerce.payment.repository.OutboxEventRepository;
+import com.ecommerce.payment.repository.PaymentRepository;
+import com.stripe.model.PaymentIntent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the service against an in-memory database without a test-managed transaction, so
+ * that each call commits or rolls back on its own as it does in production.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PaymentService.class, PaymentEventPublisher.class, OutboxWriter.class, PaymentCacheInvalidator.class,
+        PaymentServiceTest.CacheTestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Payment Service Tests")
+class PaymentServiceTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private StripePaymentService stripePaymentService;
+
+    @MockBean
+    private PayPalPaymentService payPalPaymentService;
+
+    private PaymentRequest testRequest;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        paymentRepository.deleteAll();
+
+        testRequest = new PaymentRequest();
+        testRequest.setOrderId("order-001");
+        testRequest.setUserId("user-001");
+        testRequest.setAmount(new BigDecimal("49.99"));
+        testRequest.setCurrency("USD");
+        testRequest.setPaymentMethod(Payment.PaymentMethod.STRIPE);
+    }
+
+    @Test
+    @DisplayName("Should commit the failed payment and its event when the gateway fails")
+    void testCreatePaymentFailureLeavesOutboxRow() throws Exception {
+        // Given
+        when(stripePaymentService.createPaymentIntent(any())).thenThrow(new IllegalStateException("gateway down"));
+
+        // When/Then
+        assertThatThrownBy(() -> paymentService.createPayment(testRequest))
+            .isInstanceOf(PaymentFailedException.class)
+            .hasMessageContaining("gateway down");
+
+        List<Payment> payments = paymentRepository.findAll();
+        assertThat(payments).hasSize(1);
+        assertThat(payments.get(0).getStatus()).isEqualTo(Payment.PaymentStatus.FAILED);
+        assertThat(payments.get(0).getFailureReason()).isEqualTo("gateway down");
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).extracting(OutboxEvent::getEventType).containsExactly("payment.failed");
+        assertThat(events.get(0).getMessageKey()).isEqualTo(String.valueOf(payments.get(0).getId()));
+    }
+
+    @Test
+    @DisplayName("Should commit the failed confirmation and its event when the gateway fails")
+    void testConfirmPaymentFailureLeavesOutboxRow() throws Exception {
+        // Given
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId("pi_001");
+        intent.setStatus("requires_confirmation");
+        when(stripePaymentService.createPaymentIntent(any())).thenReturn(intent);
+        when(stripePaymentService.mapStripeStatus(any())).thenReturn(Payment.PaymentStatus.PENDING);
+        Long paymentId = paymentService.createPayment(testRequest).getId();
+        when(stripePaymentService.retrievePaymentIntent("pi_001")).thenThrow(new IllegalStateException("gateway down"));
+
+        // When/Then
+        assertThatThrownBy(() -> paymentService.confirmPayment(paymentId))
+            .isInstanceOf(PaymentFailedException.class);
+
+        assertThat(paymentRepository.findById(paymentId)).get()
+            .extracting(Payment::getStatus).isEqualTo(Payment.PaymentStatus.FAILED);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+            .containsExactly("payment.created", "payment.failed");
+    }
+
+    @Test
+    @DisplayName("Should queue the completion event once a confirmation succeeds")
+    void testConfirmPaymentCompleted() throws Exception {
+        // Given
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId("pi_002");
+        intent.setStatus("succeeded");
+        when(stripePaymentService.createPaymentIntent(any())).thenReturn(intent);
+        when(stripePaymentService.retrievePaymentIntent("pi_002")).thenReturn(intent);
+        when(stripePaymentService.mapStripeStatus("succeeded")).thenReturn(Payment.PaymentStatus.COMPLETED);
+        Long paymentId = paymentService.createPayment(testRequest).getId();
+
+        // When
+        paymentService.confirmPayment(paymentId);
+
+        // Then
+        assertThat(paymentRepository.findById(paymentId)).get()
+            .extracting(Payment::getCompletedAt).isNotNull();
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+            .containsExactly("payment.created", "payment.completed");
+    }
+
+    @TestConfiguration
+    static class CacheTestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(PaymentCacheInvalidator.PAYMENTS_CACHE);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.product.cache.codec;
+
+import com.ecommerce.common.cache.codec.SmileCacheValueCodec;
+import com.ecommerce.common.cache.codec.VersionedCacheSerializer;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.model.ProductVariant;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Redis value serializers on the two kinds of values the product caches hold:
+ * a full product and a page of product summaries. The baseline is Spring's JSON
+ * serializer over the same value model; the JDK serializer Spring uses by default cannot
+ * be measured because the cached DTOs are not {@code Serializable}. Encoded sizes are
+ * covered by {@code VersionedCacheSerializerTest}.
+ * <p>
+ * Run with {@code mvn -Pbenchmarks compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"json", "smile", "smile-lz4"})
+    private String serializer;
+
+    @Param({"product", "page"})
+    private String value;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Object cacheValue;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redisSerializer = switch (serializer) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(SmileCacheValueCodec.configure(JsonMapper.builder()));
+            case "smile" -> new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), 0);
+            case "smile-lz4" -> new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), 256);
+            default -> throw new IllegalArgumentException(serializer);
+        };
+        cacheValue = "page".equals(value) ? summaryPage() : product(1);
+        encoded = redisSerializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return redisSerializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return redisSerializer.deserialize(encoded);
+    }
+
+    private static ProductResponse product(int n) {
+        List<ProductVariant> variants = new ArrayList<>();
+        for (String size : List.of("S", "M", "L", "XL")) {
+            for (String color : List.of("Black", "Navy", "Heather Grey")) {
+                variants.add(ProductVariant.builder()
+                        .variantId("v-" + n + "-" + size + "-" + color.replace(' ', '-'))
+                        .sku("TS-" + n + "-" + size + "-" + color.substring(0, 3).toUpperCase())
+                        .name("Organic Cotton Tee " + size + " / " + color)
+                        .attributes(Map.of("size", size, "color", color))
+                        .price(new BigDecimal("24.99"))
+                        .compareAtPrice(new BigDecimal("29.99"))
+                        .stockQuantity(40 + n)
+                        .reservedQuantity(2)
+                        .imageUrl("https://cdn.example.com/products/ts-" + n + "/" + color.toLowerCase() + ".jpg")
+                        .available(true)
+                        .build());
+            }
+        }
+        Map<String, String> specifications = new LinkedHashMap<>();
+        specifications.put("material", "100% organic cotton");
+        specifications.put("weight", "180 gsm");
+        specifications.put("fit", "Regular");
+        specifications.put("care", "Machine wash cold, tumble dry low");
+        specifications.put("origin", "Portugal");
+
+        return ProductResponse.builder()
+                .id(String.format("65a1f0c2e4b0a1b2c3d4%04x", n))
+                .sku("TS-" + n)
+                .name("Organic Cotton Tee")
+                .description("A midweight crew-neck tee in certified organic cotton with a soft enzyme wash, "
+                        + "reinforced shoulder seams and a tag-free neck label.")
+                .categoryId("65a1f0c2e4b0a1b2c3d40001")
+                .categoryName("T-Shirts")
+                .price(new BigDecimal("24.99"))
+                .compareAtPrice(new BigDecimal("29.99"))
+                .currency("USD")
+                .stockQuantity(480)
+                .reservedQuantity(24)
+                .lowStockThreshold(10)
+                .brand("Northfield")
+                .tags(List.of("organic", "cotton", "basics", "summer"))
+                .imageUrls(List.of(
+                        "https://cdn.example.com/products/ts-" + n + "/front.jpg",
+                        "https://cdn.example.com/products/ts-" + n + "/back.jpg",
+                        "https://cdn.example.com/products/ts-" + n + "/detail.jpg"))
+                .primaryImageUrl("https://cdn.example.com/products/ts-" + n + "/front.jpg")
+                .variants(variants)
+                .specifications(specifications)
+                .averageRating(4.6)
+                .reviewCount(312)
+                .active(true)
+                .featured(false)
+                .flashSale(false)
+                .createdAt(LocalDateTime.of(2024, 1, 12, 9, 30))
+                .updatedAt(LocalDateTime.of(2024, 3, 2, 17, 5, 42))
+                .build();
+    }
+
+    private static PageImpl<ProductSummary> summaryPage() {
+        List<ProductSummary> content = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ProductResponse product = product(i);
+            content.add(ProductSummary.builder()
+                    .id(product.getId())
+                    .sku(product.getSku())
+                    .name(product.getName())
+                    .price(product.getPrice())
+                    .compareAtPrice(product.getCompareAtPrice())
+                    .currency(product.getCurrency())
+                    .primaryImageUrl(product.getPrimaryImageUrl())
+                    .averageRating(product.getAverageRating())
+                    .reviewCount(product.getReviewCount())
+                    .stockQuantity(product.getStockQuantity())
+                    .build());
+        }
+        return new PageImpl<>(content, PageRequest.of(0, 20, Sort.by("createdAt").descending()), 1000);
+    }
+}
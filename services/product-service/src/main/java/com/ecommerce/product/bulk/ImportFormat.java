@@ -0,0 +1,16 @@
+package com.ecommerce.product.bulk;
+
+/**
+ * Supported bulk import body formats.
+ */
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    public static ImportFormat fromContentType(String contentType) {
+        return contentType != null && contentType.toLowerCase().startsWith(CSV_MEDIA_TYPE) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.product.bulk;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the active catalog as NDJSON straight from a MongoDB cursor. Memory use is
+ * bounded by the cursor batch size regardless of catalog size. Products are written in
+ * id order, so a consumer can resume an interrupted export from the last id it received.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+
+    private static final String FIELD_FILTER = "productExportFields";
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper exportMapper;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.exportMapper = objectMapper.copy().addMixIn(Product.class, FieldFilterMixIn.class);
+    }
+
+    /**
+     * Build the response body for an export.
+     *
+     * @param afterId resume checkpoint: only products with a greater id are exported
+     * @param fields  product properties to include; all when empty ({@code id} is always included)
+     * @param gzip    whether to gzip-compress the stream
+     */
+    public StreamingResponseBody export(String afterId, List<String> fields, boolean gzip) {
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            throw new IllegalArgumentException("Invalid checkpoint id: " + afterId);
+        }
+        Set<String> selected = fields == null || fields.isEmpty() ? Set.of() : withId(fields);
+        ObjectWriter writer = exportMapper
+                .writer(new SimpleFilterProvider().addFilter(FIELD_FILTER, selected.isEmpty()
+                        ? SimpleBeanPropertyFilter.serializeAll()
+                        : SimpleBeanPropertyFilter.filterOutAllExcept(selected)))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return outputStream -> {
+            long started = System.currentTimeMillis();
+            long count = 0;
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            try (Stream<Product> products = productRepository.streamActive(afterId, selected);
+                 JsonGenerator generator = exportMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    writer.writeValue(generator, product);
+                    if (++count % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeRaw('\n');
+            }
+            log.info("Exported {} products in {} ms", count, System.currentTimeMillis() - started);
+        };
+    }
+
+    private static Set<String> withId(List<String> fields) {
+        Set<String> selected = new HashSet<>(fields);
+        selected.add("id");
+        return selected;
+    }
+
+    @JsonFilter(FIELD_FILTER)
+    private abstract static class FieldFilterMixIn {
+    }
+}
@@ -0,0 +1,263 @@
+package com.ecommerce.product.bulk;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.dto.BulkImportResult;
+import com.ecommerce.product.dto.ProductRequest;
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a bulk product import (NDJSON or CSV) into MongoDB in fixed-size batches.
+ * Only one batch is held in memory at a time: rows of a batch are parsed and validated
+ * in parallel, upserted by SKU with one unordered bulk write, then announced on
+ * {@code product-events}. Rejected rows are reported individually and do not stop the import.
+ * <p>
+ * CSV bodies need a header row with {@link ProductRequest} property names; {@code tags}
+ * and {@code imageUrls} are {@code |}-separated. Variants and specifications are NDJSON-only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final String IMPORT_USER = "bulk-import";
+    private static final Set<String> CSV_LIST_COLUMNS = Set.of("tags", "imageUrls");
+
+    private final ProductRepository productRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ProductExistenceFilter existenceFilter;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Value("${product.import.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BulkImportResult importProducts(InputStream body, ImportFormat format, Integer batchSize) throws IOException {
+        int size = batchSize != null ? Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE)) : defaultBatchSize;
+        log.info("Starting {} product import with batch size {}", format, size);
+        long started = System.currentTimeMillis();
+
+        BulkImportResult result = new BulkImportResult();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Iterator<?> rows = format == ImportFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+            List<RawRow> batch = new ArrayList<>(size);
+            long rowNumber = 0;
+            while (rows.hasNext()) {
+                batch.add(new RawRow(++rowNumber, rows.next()));
+                if (batch.size() == size) {
+                    processBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                processBatch(batch, result);
+            }
+        }
+
+        log.info("Product import finished in {} ms: {} received, {} inserted, {} updated, {} failed",
+                System.currentTimeMillis() - started, result.getReceived(), result.getInserted(),
+                result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    private void processBatch(List<RawRow> batch, BulkImportResult result) {
+        result.setReceived(result.getReceived() + batch.size());
+
+        List<ParsedRow> parsed = batch.parallelStream().map(this::parse).toList();
+
+        // Last occurrence of a SKU within a batch wins, as it would with sequential upserts
+        Map<String, ParsedRow> bySku = new LinkedHashMap<>();
+        for (ParsedRow row : parsed) {
+            if (row.error != null) {
+                reject(result, row.row, row.error);
+            } else {
+                bySku.remove(row.product.getSku());
+                bySku.put(row.product.getSku(), row);
+            }
+        }
+        if (bySku.isEmpty()) {
+            return;
+        }
+
+        List<ParsedRow> rows = new ArrayList<>(bySku.values());
+        List<Product> products = rows.stream().map(row -> row.product).toList();
+        BulkWriteResult writeResult;
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            writeResult = productRepository.upsertBySku(products);
+        } catch (BulkOperationException e) {
+            writeResult = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                reject(result, rows.get(error.getIndex()).row, error.getMessage());
+            }
+        }
+
+        Map<Integer, String> insertedIds = new HashMap<>();
+        for (BulkWriteUpsert upsert : writeResult.getUpserts()) {
+            insertedIds.put(upsert.getIndex(), upsert.getId().asObjectId().getValue().toHexString());
+        }
+        Set<String> updatedSkus = new HashSet<>();
+        for (int i = 0; i < products.size(); i++) {
+            if (!insertedIds.containsKey(i) && !failedIndexes.contains(i)) {
+                updatedSkus.add(products.get(i).getSku());
+            }
+        }
+        Map<String, String> updatedIds = updatedSkus.isEmpty() ? Map.of()
+                : productRepository.findIdAndSkuBySkuIn(updatedSkus).stream()
+                        .collect(Collectors.toMap(Product::getSku, Product::getId, (first, second) -> first));
+
+        List<Product> written = new ArrayList<>(products.size());
+        List<ProductEvent> events = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            if (failedIndexes.contains(i)) {
+                continue;
+            }
+            Product product = products.get(i);
+            boolean inserted = insertedIds.containsKey(i);
+            product.setId(inserted ? insertedIds.get(i) : updatedIds.get(product.getSku()));
+            if (product.getId() != null) {
+                written.add(product);
+                events.add(eventPublisher.event(product, inserted ? "PRODUCT_CREATED" : "PRODUCT_UPDATED"));
+            }
+        }
+        existenceFilter.registerAll(written);
+        eventPublisher.publishAll(events);
+        cacheInvalidator.evictProducts(written);
+
+        result.setInserted(result.getInserted() + insertedIds.size());
+        result.setUpdated(result.getUpdated() + written.size() - insertedIds.size());
+    }
+
+    private ParsedRow parse(RawRow raw) {
+        try {
+            ProductRequest request = raw.value instanceof String line
+                    ? objectMapper.readValue(line, ProductRequest.class)
+                    : objectMapper.convertValue(normalizeCsv(raw.value), ProductRequest.class);
+
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                return new ParsedRow(raw.row, null, message);
+            }
+            return new ParsedRow(raw.row, toProduct(request), null);
+        } catch (Exception e) {
+            return new ParsedRow(raw.row, null, "Unreadable row: " + e.getMessage());
+        }
+    }
+
+    private void reject(BulkImportResult result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(row, message));
+        }
+    }
+
+    private Product toProduct(ProductRequest request) {
+        return Product.builder()
+                .sku(request.getSku())
+                .name(request.getName())
+                .description(request.getDescription())
+                .categoryId(request.getCategoryId())
+                .categoryName(request.getCategoryName())
+                .price(request.getPrice())
+                .compareAtPrice(request.getCompareAtPrice())
+                .currency(request.getCurrency())
+                .stockQuantity(request.getStockQuantity())
+                .lowStockThreshold(request.getLowStockThreshold())
+                .brand(request.getBrand())
+                .tags(request.getTags())
+                .imageUrls(request.getImageUrls())
+                .primaryImageUrl(request.getPrimaryImageUrl())
+                .variants(request.getVariants())
+                .specifications(request.getSpecifications())
+                .active(true)
+                .featured(request.getFeatured() != null && request.getFeatured())
+                .createdBy(IMPORT_USER)
+                .updatedBy(IMPORT_USER)
+                .build();
+    }
+
+    private Iterator<String> ndjsonRows(BufferedReader reader) {
+        return reader.lines().filter(line -> !line.isBlank()).iterator();
+    }
+
+    private Iterator<Map<String, String>> csvRows(Reader reader) throws IOException {
+        MappingIterator<Map<String, String>> iterator = csvMapper
+                .readerFor(Map.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(reader);
+        return iterator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> normalizeCsv(Object row) {
+        Map<String, Object> normalized = new HashMap<>();
+        ((Map<String, String>) row).forEach((column, value) -> {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            normalized.put(column, CSV_LIST_COLUMNS.contains(column)
+                    ? Arrays.stream(value.split("\\|")).map(String::trim).filter(v -> !v.isEmpty()).toList()
+                    : value);
+        });
+        return normalized;
+    }
+
+    @AllArgsConstructor
+    private static class RawRow {
+        private final long row;
+        private final Object value;
+    }
+
+    @AllArgsConstructor
+    private static class ParsedRow {
+        private final long row;
+        private final Product product;
+        private final String error;
+    }
+}
@@ -0,0 +1,192 @@
+package com.ecommerce.product.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-key reads and writes against a named cache. The Spring {@link Cache} abstraction
+ * only offers single-key calls, which cost one Redis round-trip each; for Redis-backed
+ * caches this goes to the connection directly and uses one {@code MGET} for reads and one
+ * pipeline of {@code SET ... PX NX} for writes, with the cache's own key prefix, serializer
+ * and TTL. L1 tiers of a {@link TwoLevelCache} are consulted and backfilled as usual.
+ * Other caches fall back to per-key calls.
+ * <p>
+ * Batch writes are backfills of values loaded after a miss, so they follow the same rule
+ * as {@link StampedeProtectedCache} loads: a value whose key was evicted since the load
+ * started is not cached, and an entry written meanwhile is not overwritten.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchCacheOperations {
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactory;
+
+    /**
+     * Look up several keys at once. Keys without an entry are absent from the result.
+     */
+    public <T> Map<String, T> getAll(String cacheName, Collection<String> keys, Class<T> type) {
+        Map<String, T> found = new HashMap<>();
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || keys.isEmpty()) {
+            return found;
+        }
+
+        Cache remote = StampedeProtectedCache.unwrap(cache);
+        List<String> misses = new ArrayList<>(keys);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            remote = StampedeProtectedCache.unwrap(twoLevelCache.getRemote());
+            misses.clear();
+            for (String key : keys) {
+                T value = twoLevelCache.getLocal().get(key, type);
+                if (value != null) {
+                    found.put(key, value);
+                } else {
+                    misses.add(key);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        Map<String, T> remoteHits = remote instanceof RedisCache redisCache
+                ? multiGet(redisCache, misses, type)
+                : singleGets(remote, misses, type);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            remoteHits.forEach(twoLevelCache.getLocal()::put);
+        }
+        found.putAll(remoteHits);
+        return found;
+    }
+
+    /**
+     * Stamp to take before loading the values passed to {@link #putAll}.
+     */
+    public long loadStamp() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Backfill several entries loaded after a miss, in every tier of the cache. Entries
+     * whose key was evicted since {@code loadStamp} are skipped, and entries present in
+     * the shared tier are kept.
+     */
+    public void putAll(String cacheName, Map<String, ?> entries, long loadStamp) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || entries.isEmpty()) {
+            return;
+        }
+        Cache guarded = cache instanceof TwoLevelCache twoLevelCache ? twoLevelCache.getRemote() : cache;
+        Map<String, ?> fresh = entries;
+        if (guarded instanceof StampedeProtectedCache protectedCache) {
+            fresh = entries.entrySet().stream()
+                    .filter(entry -> !protectedCache.evictedSince(entry.getKey(), loadStamp))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            if (fresh.isEmpty()) {
+                return;
+            }
+        }
+        Cache remote = StampedeProtectedCache.unwrap(guarded);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            fresh.forEach(twoLevelCache.getLocal()::put);
+        }
+        if (remote instanceof RedisCache redisCache) {
+            pipelinedSet(redisCache, fresh);
+        } else {
+            fresh.forEach(remote::putIfAbsent);
+        }
+    }
+
+    private <T> Map<String, T> multiGet(RedisCache cache, List<String> keys, Class<T> type) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = keys.stream()
+                .map(key -> serializeKey(cache, key))
+                .toArray(byte[][]::new);
+
+        Map<String, T> found = new HashMap<>();
+        try (RedisConnection connection = connectionFactory.getObject().getConnection()) {
+            List<byte[]> values = connection.stringCommands().mGet(rawKeys);
+            for (int i = 0; values != null && i < values.size(); i++) {
+                byte[] raw = values.get(i);
+                if (raw == null) {
+                    continue;
+                }
+                Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+                if (type.isInstance(value)) {
+                    found.put(keys.get(i), type.cast(value));
+                } else if (!(value instanceof NullValue)) {
+                    log.warn("Ignoring cached value of unexpected type {} in cache {}",
+                            value == null ? null : value.getClass().getName(), cache.getName());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Multi-get from cache {} failed, treating {} keys as misses", cache.getName(), keys.size(), e);
+        }
+        return found;
+    }
+
+    private void pipelinedSet(RedisCache cache, Map<String, ?> entries) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = connectionFactory.getObject().getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                    Expiration expiration = ttl != null && !ttl.isZero() && !ttl.isNegative()
+                            ? Expiration.from(ttl)
+                            : Expiration.persistent();
+                    connection.stringCommands().set(
+                            serializeKey(cache, key),
+                            ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                            expiration,
+                            RedisStringCommands.SetOption.ifAbsent());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Multi-put to cache {} failed for {} keys", cache.getName(), entries.size(), e);
+        }
+    }
+
+    private <T> Map<String, T> singleGets(Cache cache, List<String> keys, Class<T> type) {
+        Map<String, T> found = new HashMap<>();
+        for (String key : keys) {
+            T value = cache.get(key, type);
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        return found;
+    }
+
+    private byte[] serializeKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.product.cache;
+
+/**
+ * Monotonic generation counters used to tag cache keys of derived results (lists,
+ * search pages). Advancing a namespace orphans every key built with the previous
+ * generation; orphaned entries simply age out through their TTL.
+ */
+public interface CacheGenerations {
+
+    String PRODUCT_LISTS = "product-lists";
+
+    long current(String namespace);
+
+    long advance(String namespace);
+}
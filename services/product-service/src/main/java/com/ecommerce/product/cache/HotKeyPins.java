@@ -0,0 +1,114 @@
+package com.ecommerce.product.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process pins for the hottest keys of the {@code products} cache. A {@link TwoLevelCache}
+ * serves pinned entries ahead of its size- and TTL-bounded L1, so a hot product is not
+ * re-read from its Redis shard by every instance each time the L1 copy expires.
+ * <p>
+ * Which keys are hot is decided elsewhere ({@link #updateHotKeys(Set)}); a hot key is
+ * pinned the next time it is read. Pins are dropped by the same evictions that clear L1,
+ * local writes and product events from other instances, when the key cools down, and
+ * after a maximum age as a backstop for a missed event. A read that overlaps an eviction
+ * of its key does not pin: each key stripe carries an eviction stamp that the reader
+ * checks after pinning.
+ */
+@Component
+public class HotKeyPins {
+
+    private static final int STRIPES = 1024;
+
+    private final ConcurrentMap<Object, Pin> pins = new ConcurrentHashMap<>();
+    private final AtomicLongArray stripeStamps = new AtomicLongArray(STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+    private final long maxAgeNanos;
+    private volatile Set<String> hotKeys = Set.of();
+
+    public HotKeyPins(@Value("${product.cache.hot-keys.max-pin-age:5m}") Duration maxPinAge) {
+        this.maxAgeNanos = maxPinAge.toNanos();
+    }
+
+    /**
+     * Replace the set of hot keys and unpin keys that are no longer in it.
+     */
+    public void updateHotKeys(Set<String> keys) {
+        hotKeys = Set.copyOf(keys);
+        pins.keySet().removeIf(key -> !hotKeys.contains(key));
+    }
+
+    public boolean isPinned(Object key) {
+        return pins.containsKey(key);
+    }
+
+    public int size() {
+        return pins.size();
+    }
+
+    Cache.ValueWrapper get(Object key) {
+        Pin pin = pins.get(key);
+        if (pin == null) {
+            return null;
+        }
+        if (System.nanoTime() - pin.pinnedAt > maxAgeNanos) {
+            pins.remove(key, pin);
+            return null;
+        }
+        return pin.value;
+    }
+
+    /**
+     * Eviction stamp of a key, to be taken before reading the value that may get pinned.
+     */
+    long stamp(Object key) {
+        return epoch.get() + stripeStamps.get(stripe(key));
+    }
+
+    /**
+     * Pin a value read under the given stamp if its key is hot and was not evicted since.
+     */
+    void offer(Object key, Object value, long stamp) {
+        if (value == null || !hotKeys.contains(key) || pins.containsKey(key)) {
+            return;
+        }
+        Pin pin = new Pin(new SimpleValueWrapper(value), System.nanoTime());
+        if (pins.putIfAbsent(key, pin) == null && stamp(key) != stamp) {
+            pins.remove(key, pin);
+        }
+    }
+
+    void evict(Object key) {
+        stripeStamps.incrementAndGet(stripe(key));
+        pins.remove(key);
+    }
+
+    void clear() {
+        epoch.incrementAndGet();
+        pins.clear();
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private static final class Pin {
+
+        private final Cache.ValueWrapper value;
+        private final long pinnedAt;
+
+        Pin(Cache.ValueWrapper value, long pinnedAt) {
+            this.value = value;
+            this.pinnedAt = pinnedAt;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.product.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process generation counters for non-Redis cache setups (tests, local runs).
+ */
+@Component("cacheGenerations")
+@ConditionalOnExpression("'${spring.cache.type:}' != 'redis'")
+public class LocalCacheGenerations implements CacheGenerations {
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Override
+    public long current(String namespace) {
+        return generations.computeIfAbsent(namespace, ns -> new AtomicLong()).get();
+    }
+
+    @Override
+    public long advance(String namespace) {
+        return generations.computeIfAbsent(namespace, ns -> new AtomicLong()).incrementAndGet();
+    }
+}
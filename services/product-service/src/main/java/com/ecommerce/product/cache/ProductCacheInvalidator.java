@@ -0,0 +1,112 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Knows every cache key derived from a product and evicts exactly those on a write.
+ * <ul>
+ *   <li>{@code products::<id>} and {@code products::sku-<sku>} for single-product reads</li>
+ *   <li>{@code product-lists::<generation>:...} for list and search pages, invalidated by
+ *       advancing the {@link CacheGenerations#PRODUCT_LISTS} generation</li>
+ *   <li>the rendered response body in the {@link ProductJsonCache} of each instance</li>
+ * </ul>
+ * Inside a transaction the evictions run after commit so that a concurrent reader cannot
+ * repopulate the cache with the pre-commit document, and a rollback retires nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_LISTS_CACHE = "product-lists";
+
+    private final CacheManager cacheManager;
+    private final CacheGenerations cacheGenerations;
+    private final ProductJsonCache productJsonCache;
+
+    public static String skuKey(String sku) {
+        return "sku-" + sku;
+    }
+
+    /**
+     * Evict the single-product entries of a changed product and retire all list pages.
+     */
+    public void evictProduct(String id, String sku) {
+        afterCommit(() -> {
+            evictKeys(id, sku);
+            advanceListings();
+        });
+    }
+
+    /**
+     * Evict the single-product entries of several changed products and retire all list
+     * pages once.
+     */
+    public void evictProducts(Collection<Product> products) {
+        List<Product> changed = List.copyOf(products);
+        afterCommit(() -> {
+            changed.forEach(product -> evictKeys(product.getId(), product.getSku()));
+            advanceListings();
+        });
+    }
+
+    /**
+     * Retire all list and search pages without touching single-product entries,
+     * e.g. when a product is created.
+     */
+    public void evictListings() {
+        afterCommit(this::advanceListings);
+    }
+
+    /**
+     * Drop the in-process copies (L1 entries and rendered body) of a product changed on
+     * another instance.
+     */
+    public void evictLocal(String id, String sku) {
+        productJsonCache.evict(id);
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.evictLocal(id);
+            if (sku != null) {
+                twoLevelCache.evictLocal(skuKey(sku));
+            }
+        }
+    }
+
+    private void evictKeys(String id, String sku) {
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+            if (sku != null) {
+                cache.evict(skuKey(sku));
+            }
+        }
+        productJsonCache.evict(id);
+    }
+
+    private void advanceListings() {
+        cacheGenerations.advance(CacheGenerations.PRODUCT_LISTS);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.dto.ProductResponse;
+
+/**
+ * Strong entity tags for product reads. A single product is tagged with its id and
+ * document version; list pages with the {@link CacheGenerations#PRODUCT_LISTS}
+ * generation, which every product write advances. Both are known from caches, so a
+ * matching {@code If-None-Match} can be answered without reading MongoDB. Pages served
+ * from the in-memory listing index carry that index's own instance-local version.
+ */
+public final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    /**
+     * @return the tag of a product, or {@code null} for a response without a version
+     */
+    public static String forProduct(ProductResponse product) {
+        return product.getVersion() != null ? "\"" + product.getId() + "-" + product.getVersion() + "\"" : null;
+    }
+
+    public static String forListings(long generation) {
+        return "\"lists-" + generation + "\"";
+    }
+
+    public static String forListingIndex(String instanceId, long version) {
+        return "\"listings-" + instanceId + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * In-process cache of fully rendered {@code GET /api/products/{id}} bodies: the UTF-8 JSON
+ * bytes of the {@link ProductResponse} and its {@link ProductETags version ETag}. Hot products
+ * are served without mapping or serializing anything. Entries are dropped by
+ * {@link ProductCacheInvalidator} on the same writes and product events that evict the
+ * {@code products} cache; an eviction that races with a render waits for the render and
+ * then removes its result.
+ */
+@Component
+public class ProductJsonCache {
+
+    private final ObjectWriter writer;
+    private final Cache<String, RenderedProduct> cache;
+
+    public ProductJsonCache(ObjectMapper objectMapper,
+                            @Value("${product.cache.json.spec:maximumSize=5000,expireAfterWrite=10m}") String spec) {
+        this.writer = objectMapper.writerFor(ProductResponse.class);
+        this.cache = Caffeine.from(spec).build();
+    }
+
+    /**
+     * Return the rendered body of a product, rendering and caching it on a miss.
+     *
+     * @param loader resolves the product response; its exceptions propagate unchanged
+     */
+    public RenderedProduct get(String id, Function<String, ProductResponse> loader) {
+        return cache.get(id, key -> render(loader.apply(key)));
+    }
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    private RenderedProduct render(ProductResponse product) {
+        try {
+            return new RenderedProduct(writer.writeValueAsBytes(product), ProductETags.forProduct(product));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot render product " + product.getId(), e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RenderedProduct {
+        private final byte[] body;
+        private final String etag;
+    }
+}
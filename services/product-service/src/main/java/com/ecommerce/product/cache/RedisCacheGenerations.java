@@ -0,0 +1,31 @@
+package com.ecommerce.product.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generation counters shared by all instances through Redis {@code INCR}.
+ */
+@Component("cacheGenerations")
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisCacheGenerations implements CacheGenerations {
+
+    private static final String KEY_PREFIX = "cache-generation::";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public long current(String namespace) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + namespace);
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    @Override
+    public long advance(String namespace) {
+        Long value = redisTemplate.opsForValue().increment(KEY_PREFIX + namespace);
+        return value != null ? value : 0L;
+    }
+}
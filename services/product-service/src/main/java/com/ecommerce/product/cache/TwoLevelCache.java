@@ -0,0 +1,184 @@
+package com.ecommerce.product.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that keeps a bounded in-process L1 (Caffeine) in front of a shared L2 (Redis).
+ * Reads are served from L1 when possible and backfilled from L2 on a miss; writes and
+ * evictions go to both tiers. Peer instances drop their L1 copy through
+ * {@link #evictLocal(Object)} when they see the corresponding product event.
+ * <p>
+ * Optionally, hot keys are pinned in front of L1 by {@link HotKeyPins}; every eviction
+ * and write drops the pin together with the L1 entry.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final CaffeineCache local;
+    private final Cache remote;
+    private final HotKeyPins pins;
+
+    public TwoLevelCache(CaffeineCache local, Cache remote) {
+        this(local, remote, null);
+    }
+
+    public TwoLevelCache(CaffeineCache local, Cache remote, HotKeyPins pins) {
+        this.local = local;
+        this.remote = remote;
+        this.pins = pins;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public CaffeineCache getLocal() {
+        return local;
+    }
+
+    public Cache getRemote() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper pinned = pins != null ? pins.get(key) : null;
+        if (pinned != null) {
+            return pinned;
+        }
+        long stamp = pins != null ? pins.stamp(key) : 0;
+        ValueWrapper value = local.get(key);
+        if (value == null) {
+            value = remote.get(key);
+            if (value != null) {
+                local.put(key, value.get());
+            }
+        }
+        if (value != null && pins != null) {
+            pins.offer(key, value.get(), stamp);
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return type != null ? type.cast(stored) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper pinned = pins != null ? pins.get(key) : null;
+        if (pinned != null) {
+            return (T) pinned.get();
+        }
+        long stamp = pins != null ? pins.stamp(key) : 0;
+        try {
+            T value = local.get(key, () -> remote.get(key, valueLoader));
+            if (pins != null) {
+                pins.offer(key, value, stamp);
+            }
+            return value;
+        } catch (ValueRetrievalException e) {
+            // Caffeine wraps what the remote tier threw; pass on the remote's own exception
+            if (e.getCause() instanceof RuntimeException remoteFailure) {
+                throw remoteFailure;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, value);
+        unpin(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.put(key, existing != null ? existing.get() : value);
+        unpin(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.evict(key);
+        unpin(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        evicted = local.evictIfPresent(key) || evicted;
+        unpin(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        unpinAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        invalidated = local.invalidate() || invalidated;
+        unpinAll();
+        return invalidated;
+    }
+
+    /**
+     * Drop the L1 entry only, leaving the shared L2 untouched. Loads of the key in flight
+     * on this instance are not cached.
+     */
+    public void evictLocal(Object key) {
+        if (remote instanceof StampedeProtectedCache protectedCache) {
+            protectedCache.markEvicted(key);
+        }
+        local.evict(key);
+        unpin(key);
+    }
+
+    /**
+     * Drop every L1 entry, leaving the shared L2 untouched.
+     */
+    public void clearLocal() {
+        local.invalidate();
+        unpinAll();
+    }
+
+    private void unpin(Object key) {
+        if (pins != null) {
+            pins.evict(key);
+        }
+    }
+
+    private void unpinAll() {
+        if (pins != null) {
+            pins.clear();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager that layers an in-process Caffeine near-cache over the caches of a
+ * remote (Redis) cache manager. Only the cache names listed in {@code nearCacheNames}
+ * get an L1 tier; every other cache is returned from the remote manager unchanged.
+ * Caches listed in {@code pinnedCaches} also pin their hot keys in front of L1.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final Set<String> nearCacheNames;
+    private final String nearCacheSpec;
+    private final Map<String, HotKeyPins> pinnedCaches;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, Set<String> nearCacheNames, String nearCacheSpec) {
+        this(remoteCacheManager, nearCacheNames, nearCacheSpec, Map.of());
+    }
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, Set<String> nearCacheNames, String nearCacheSpec,
+                                Map<String, HotKeyPins> pinnedCaches) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.nearCacheNames = Set.copyOf(nearCacheNames);
+        this.nearCacheSpec = nearCacheSpec;
+        this.pinnedCaches = Map.copyOf(pinnedCaches);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private Cache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null || !nearCacheNames.contains(name)) {
+            return remote;
+        }
+        CaffeineCache local = new CaffeineCache(name,
+                Caffeine.from(nearCacheSpec).recordStats().build(), true);
+        return new TwoLevelCache(local, remote, pinnedCaches.get(name));
+    }
+}
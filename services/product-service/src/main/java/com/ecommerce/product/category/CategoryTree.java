@@ -0,0 +1,116 @@
+package com.ecommerce.product.category;
+
+import com.ecommerce.product.dto.CategoryCrumb;
+import com.ecommerce.product.dto.CategoryNode;
+import com.ecommerce.product.model.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the active category hierarchy with everything a read needs
+ * precomputed: the nested tree, each category's breadcrumb from its root, and each
+ * category's id together with the ids of all its descendants.
+ * <p>
+ * A category is part of the tree only if every ancestor is active; the subtree under an
+ * inactive or missing parent is hidden, as is any category on a parent cycle.
+ */
+public final class CategoryTree {
+
+    static final CategoryTree EMPTY = new CategoryTree(List.of(), Map.of(), Map.of());
+
+    private static final Comparator<Category> DISPLAY_ORDER = Comparator
+            .comparing(Category::getDisplayOrder, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Category::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Category::getId);
+
+    private final List<CategoryNode> roots;
+    private final Map<String, List<CategoryCrumb>> breadcrumbs;
+    private final Map<String, Set<String>> subtreeIds;
+
+    private CategoryTree(List<CategoryNode> roots, Map<String, List<CategoryCrumb>> breadcrumbs,
+                         Map<String, Set<String>> subtreeIds) {
+        this.roots = roots;
+        this.breadcrumbs = breadcrumbs;
+        this.subtreeIds = subtreeIds;
+    }
+
+    static CategoryTree of(List<Category> activeCategories) {
+        Map<String, List<Category>> children = new HashMap<>();
+        List<Category> rootCategories = new ArrayList<>();
+        for (Category category : activeCategories) {
+            if (category.getParentId() == null) {
+                rootCategories.add(category);
+            } else {
+                children.computeIfAbsent(category.getParentId(), id -> new ArrayList<>()).add(category);
+            }
+        }
+        children.values().forEach(siblings -> siblings.sort(DISPLAY_ORDER));
+        rootCategories.sort(DISPLAY_ORDER);
+
+        Map<String, List<CategoryCrumb>> breadcrumbs = new HashMap<>();
+        Map<String, Set<String>> subtreeIds = new HashMap<>();
+        List<CategoryNode> roots = new ArrayList<>(rootCategories.size());
+        for (Category root : rootCategories) {
+            roots.add(build(root, List.of(), children, breadcrumbs, subtreeIds));
+        }
+        return new CategoryTree(Collections.unmodifiableList(roots),
+                Collections.unmodifiableMap(breadcrumbs), Collections.unmodifiableMap(subtreeIds));
+    }
+
+    private static CategoryNode build(Category category, List<CategoryCrumb> parentPath,
+                                      Map<String, List<Category>> children,
+                                      Map<String, List<CategoryCrumb>> breadcrumbs,
+                                      Map<String, Set<String>> subtreeIds) {
+        List<CategoryCrumb> path = new ArrayList<>(parentPath.size() + 1);
+        path.addAll(parentPath);
+        path.add(new CategoryCrumb(category.getId(), category.getName(), category.getSlug()));
+        breadcrumbs.put(category.getId(), Collections.unmodifiableList(path));
+
+        Set<String> ids = new LinkedHashSet<>();
+        ids.add(category.getId());
+        List<CategoryNode> childNodes = new ArrayList<>();
+        for (Category child : children.getOrDefault(category.getId(), List.of())) {
+            if (breadcrumbs.containsKey(child.getId())) {
+                continue;
+            }
+            childNodes.add(build(child, path, children, breadcrumbs, subtreeIds));
+            ids.addAll(subtreeIds.get(child.getId()));
+        }
+        subtreeIds.put(category.getId(), Collections.unmodifiableSet(ids));
+        return new CategoryNode(category.getId(), category.getName(), category.getSlug(), category.getImageUrl(),
+                category.getDisplayOrder(), Collections.unmodifiableList(childNodes));
+    }
+
+    public List<CategoryNode> getRoots() {
+        return roots;
+    }
+
+    public boolean contains(String categoryId) {
+        return subtreeIds.containsKey(categoryId);
+    }
+
+    /**
+     * @return the path from the root down to the category, or {@code null} if it is not in the tree
+     */
+    public List<CategoryCrumb> getBreadcrumbs(String categoryId) {
+        return breadcrumbs.get(categoryId);
+    }
+
+    /**
+     * @return the category's id and those of all its descendants, or {@code null} if it is not in the tree
+     */
+    public Set<String> getSubtreeIds(String categoryId) {
+        return subtreeIds.get(categoryId);
+    }
+
+    int size() {
+        return subtreeIds.size();
+    }
+}
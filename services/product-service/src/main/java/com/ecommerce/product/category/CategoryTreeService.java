@@ -0,0 +1,58 @@
+package com.ecommerce.product.category;
+
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link CategoryTree}. The tree is built from all active categories
+ * with one query and replaced as a whole, so readers always see a consistent snapshot
+ * without locking. Categories are not written by this service; the tree is reloaded
+ * periodically and on category changes seen by the change stream, and only swapped
+ * when the categories differ.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile List<Category> source = List.of();
+    private volatile CategoryTree tree = CategoryTree.EMPTY;
+
+    public CategoryTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Incremented whenever the tree is replaced, e.g. for cache keys derived from it.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${product.categories.refresh-interval-ms:30000}",
+            initialDelayString = "${product.categories.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        List<Category> categories = categoryRepository.findByActiveTrueOrderByDisplayOrder();
+        if (categories.equals(source)) {
+            return;
+        }
+        CategoryTree next = CategoryTree.of(categories);
+        source = categories;
+        tree = next;
+        version.incrementAndGet();
+        log.info("Category tree refreshed with {} of {} active categories", next.size(), categories.size());
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.product.changestream;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Persists the resume token of each change stream in {@code change_stream_checkpoints},
+ * so that a restarted tailer continues after the last change it handled instead of
+ * rescanning the collection.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeStreamCheckpoints {
+
+    private static final String COLLECTION = "change_stream_checkpoints";
+
+    private final MongoTemplate mongoTemplate;
+
+    public BsonDocument load(String streamId) {
+        Document checkpoint = mongoTemplate.findById(streamId, Document.class, COLLECTION);
+        return checkpoint != null ? BsonDocument.parse(checkpoint.getString("token")) : null;
+    }
+
+    public void save(String streamId, BsonDocument token) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(streamId)),
+                new Update().set("token", token.toJson()).set("updatedAt", Instant.now()),
+                COLLECTION);
+    }
+
+    public void clear(String streamId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(streamId)), COLLECTION);
+    }
+}
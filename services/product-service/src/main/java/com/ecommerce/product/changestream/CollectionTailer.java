@@ -0,0 +1,138 @@
+package com.ecommerce.product.changestream;
+
+import com.ecommerce.product.coordination.MongoLeases;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tails the change stream of one collection on a dedicated thread. Only the instance
+ * holding the collection's lease tails it. Changes are handed to the handler a batch at
+ * a time and the resume token is checkpointed after each batch the handler completed,
+ * so delivery to the handler is at least once: a crash or a handler failure replays
+ * the changes since the last checkpoint.
+ */
+@Slf4j
+class CollectionTailer implements Runnable {
+
+    private static final String LEASE_COLLECTION = "change_stream_leases";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoLeases leases;
+    private final ChangeStreamCheckpoints checkpoints;
+    private final String collection;
+    private final Consumer<List<ChangeStreamDocument<Document>>> handler;
+    private final Runnable onHistoryLost;
+    private final int batchSize;
+    private final Duration maxAwait;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile boolean running = true;
+
+    CollectionTailer(MongoTemplate mongoTemplate, MongoLeases leases, ChangeStreamCheckpoints checkpoints,
+                     String collection, Consumer<List<ChangeStreamDocument<Document>>> handler,
+                     Runnable onHistoryLost, int batchSize, Duration maxAwait, Duration leaseTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.leases = leases;
+        this.checkpoints = checkpoints;
+        this.collection = collection;
+        this.handler = handler;
+        this.onHistoryLost = onHistoryLost;
+        this.batchSize = batchSize;
+        this.maxAwait = maxAwait;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                if (!acquireLease()) {
+                    pause(leaseTtl.dividedBy(3));
+                    continue;
+                }
+                try {
+                    tail();
+                } catch (MongoCommandException e) {
+                    if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                        log.error("Checkpoint of {} change stream fell off the oplog, restarting from now", collection, e);
+                        onHistoryLost.run();
+                        checkpoints.clear(collection);
+                    } else {
+                        log.warn("{} change stream failed, resuming from the last checkpoint", collection, e);
+                        pause(maxAwait);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("{} change stream failed, resuming from the last checkpoint", collection, e);
+                    pause(maxAwait);
+                }
+            }
+        } finally {
+            leases.release(LEASE_COLLECTION, collection, owner);
+        }
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    private void tail() {
+        BsonDocument token = checkpoints.load(collection);
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection).watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .batchSize(batchSize)
+                .maxAwaitTime(maxAwait.toMillis(), TimeUnit.MILLISECONDS);
+        if (token != null) {
+            stream = stream.startAfter(token);
+        } else {
+            log.info("No checkpoint for {} change stream, starting from the current position", collection);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running && acquireLease()) {
+                List<ChangeStreamDocument<Document>> batch = new ArrayList<>();
+                ChangeStreamDocument<Document> change;
+                while (batch.size() < batchSize && (change = cursor.tryNext()) != null) {
+                    batch.add(change);
+                }
+                if (!batch.isEmpty()) {
+                    handler.accept(batch);
+                }
+                // Also advances over idle periods, so the checkpoint stays within the oplog window
+                BsonDocument position = cursor.getResumeToken();
+                if (position != null && !position.equals(token)) {
+                    checkpoints.save(collection, position);
+                    token = position;
+                }
+            }
+        }
+    }
+
+    private boolean acquireLease() {
+        return leases.tryAcquire(LEASE_COLLECTION, collection, owner, leaseTtl);
+    }
+
+    private void pause(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.ecommerce.product.changestream;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.category.CategoryTreeService;
+import com.ecommerce.product.coordination.MongoLeases;
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.model.Product;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the MongoDB change streams of {@code products} and {@code categories} the single
+ * source of cache invalidation and {@link ProductEvent}s, so that writes bypassing
+ * {@code ProductService} (scripts, migrations, manual fixes) are seen too. While enabled,
+ * {@link ProductEventPublisher} stops publishing on its own.
+ * <p>
+ * Each batch of product changes evicts the affected Redis entries and retires list pages
+ * once, then sends its events straight to Kafka; the resume token is checkpointed only
+ * after the broker acknowledged them, so the change stream itself acts as the outbox.
+ * Stock-only updates of a product within one batch collapse to the newest. Change
+ * streams need a replica set or sharded cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "product.change-stream.enabled", havingValue = "true")
+@Slf4j
+public class ProductChangeStreamService implements SmartLifecycle {
+
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORIES = "categories";
+    private static final Set<String> STOCK_FIELDS = Set.of("stockQuantity", "reservedQuantity", "stockHolds", "version", "updatedAt");
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final CacheManager cacheManager;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductEventPublisher eventPublisher;
+    private final CategoryTreeService categoryTreeService;
+    private final List<CollectionTailer> tailers;
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Value("${product.change-stream.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    public ProductChangeStreamService(MongoTemplate mongoTemplate,
+                                      KafkaTemplate<String, Object> kafkaTemplate,
+                                      CacheManager cacheManager,
+                                      ProductCacheInvalidator cacheInvalidator,
+                                      ProductEventPublisher eventPublisher,
+                                      CategoryTreeService categoryTreeService,
+                                      MongoLeases leases,
+                                      ChangeStreamCheckpoints checkpoints,
+                                      @Value("${product.change-stream.batch-size:1000}") int batchSize,
+                                      @Value("${product.change-stream.max-await:1s}") Duration maxAwait,
+                                      @Value("${product.change-stream.lease-ttl:10s}") Duration leaseTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.cacheManager = cacheManager;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.categoryTreeService = categoryTreeService;
+        this.tailers = List.of(
+                new CollectionTailer(mongoTemplate, leases, checkpoints, PRODUCTS, this::onProductChanges,
+                        this::evictAll, batchSize, maxAwait, leaseTtl),
+                new CollectionTailer(mongoTemplate, leases, checkpoints, CATEGORIES, this::onCategoryChanges,
+                        cacheInvalidator::evictListings, batchSize, maxAwait, leaseTtl));
+    }
+
+    @Override
+    public void start() {
+        List<String> names = List.of(PRODUCTS, CATEGORIES);
+        for (int i = 0; i < tailers.size(); i++) {
+            Thread thread = new Thread(tailers.get(i), names.get(i) + "-change-stream");
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public void stop() {
+        tailers.forEach(CollectionTailer::stop);
+        for (Thread thread : threads) {
+            try {
+                thread.join(sendTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !threads.isEmpty();
+    }
+
+    void onProductChanges(List<ChangeStreamDocument<Document>> changes) {
+        List<Product> changed = new ArrayList<>(changes.size());
+        List<ProductEvent> events = new ArrayList<>(changes.size());
+        Map<String, Integer> pendingStockEvents = new HashMap<>();
+
+        for (ChangeStreamDocument<Document> change : changes) {
+            String id = change.getDocumentKey() != null ? idOf(change.getDocumentKey().get("_id")) : null;
+            if (id == null) {
+                log.warn("Products change stream reported {}, evicting all product caches", change.getOperationType());
+                evictAll();
+                continue;
+            }
+            Product product = change.getFullDocument() != null
+                    ? mongoTemplate.getConverter().read(Product.class, change.getFullDocument())
+                    : Product.builder().id(id).build();
+            changed.add(product);
+
+            String eventType = eventType(change, product);
+            if (eventType == null) {
+                continue;
+            }
+            Integer previous = ProductEventPublisher.STOCK_UPDATED.equals(eventType)
+                    ? pendingStockEvents.put(id, events.size())
+                    : pendingStockEvents.remove(id);
+            if (previous != null && ProductEventPublisher.STOCK_UPDATED.equals(eventType)) {
+                events.set(previous, null);
+            }
+            events.add(change.getFullDocument() != null
+                    ? eventPublisher.event(product, eventType)
+                    : ProductEvent.builder().eventType(eventType).productId(id).timestamp(LocalDateTime.now()).build());
+        }
+
+        if (!changed.isEmpty()) {
+            cacheInvalidator.evictProducts(changed);
+        }
+        send(events.stream().filter(Objects::nonNull).toList());
+        log.debug("Applied {} product changes from the change stream", changes.size());
+    }
+
+    void onCategoryChanges(List<ChangeStreamDocument<Document>> changes) {
+        cacheInvalidator.evictListings();
+        categoryTreeService.refresh();
+        log.debug("Retired product list pages after {} category changes", changes.size());
+    }
+
+    /**
+     * @return the event type of a change, or {@code null} if it has no product to report
+     */
+    private static String eventType(ChangeStreamDocument<Document> change, Product product) {
+        switch (change.getOperationType()) {
+            case INSERT:
+                return "PRODUCT_CREATED";
+            case DELETE:
+                return "PRODUCT_DELETED";
+            case UPDATE:
+            case REPLACE:
+                if (change.getFullDocument() == null) {
+                    // Deleted since; its delete change follows
+                    return null;
+                }
+                if (Boolean.FALSE.equals(product.getActive())) {
+                    return "PRODUCT_DELETED";
+                }
+                return isStockOnly(change.getUpdateDescription())
+                        ? ProductEventPublisher.STOCK_UPDATED
+                        : "PRODUCT_UPDATED";
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isStockOnly(UpdateDescription update) {
+        if (update == null || update.getUpdatedFields() == null
+                || (update.getRemovedFields() != null && !update.getRemovedFields().isEmpty())) {
+            return false;
+        }
+        // Variant counters arrive as e.g. "variants.2.stockQuantity", appended holds as "stockHolds.3"
+        return update.getUpdatedFields().keySet().stream()
+                .map(field -> field.replaceAll("(\\.\\d+)+$", ""))
+                .map(field -> field.substring(field.lastIndexOf('.') + 1))
+                .allMatch(STOCK_FIELDS::contains);
+    }
+
+    private void send(List<ProductEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(events.size());
+        for (ProductEvent event : events) {
+            futures.add(kafkaTemplate.send(ProductEventPublisher.PRODUCT_TOPIC, event.getProductId(), event));
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        try {
+            for (CompletableFuture<SendResult<String, Object>> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to send product events from the change stream", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending product events", e);
+        }
+    }
+
+    private void evictAll() {
+        Cache cache = cacheManager.getCache(ProductCacheInvalidator.PRODUCTS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        cacheInvalidator.evictListings();
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.common.cache.codec.SmileCacheValueCodec;
+import com.ecommerce.common.cache.codec.VersionedCacheSerializer;
+import com.ecommerce.product.cache.CacheLoadLocks;
+import com.ecommerce.product.cache.HotKeyPins;
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.cache.StampedeProtectedCache;
+import com.ecommerce.product.cache.StampedeProtectedCacheManager;
+import com.ecommerce.product.cache.TwoLevelCache;
+import com.ecommerce.product.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis cache configuration with an in-process L1 near-cache for hot caches.
+ * Values are stored in the compact versioned format of {@link VersionedCacheSerializer}.
+ * Every Redis cache is guarded against load stampedes by {@link StampedeProtectedCache}.
+ * Only active when {@code spring.cache.type=redis}; tests fall back to the simple cache.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+public class CacheConfig {
+
+    @Value("${product.cache.l1.cache-names:products}")
+    private Set<String> nearCacheNames;
+
+    @Value("${product.cache.l1.spec:maximumSize=10000,expireAfterWrite=30s}")
+    private String nearCacheSpec;
+
+    @Value("${product.cache.lists.time-to-live:2m}")
+    private Duration listTimeToLive;
+
+    @Value("${product.cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${product.cache.stampede.lock-ttl:5s}")
+    private Duration loadLockTtl;
+
+    @Value("${product.cache.stampede.lock-wait:500ms}")
+    private Duration loadLockWait;
+
+    @Value("${product.cache.stampede.refresh-ahead.beta:1.0}")
+    private double refreshAheadBeta;
+
+    @Value("${product.cache.stampede.refresh-ahead.min-delta:1s}")
+    private Duration refreshAheadMinDelta;
+
+    @Value("${product.cache.stampede.refresh-ahead.tracked-keys:100000}")
+    private long refreshAheadTrackedKeys;
+
+    @Value("${product.cache.stampede.refresh-ahead.threads:4}")
+    private int refreshAheadThreads;
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                     StringRedisTemplate redisTemplate, HotKeyPins hotKeyPins) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), compressionThreshold)));
+        if (cacheProperties.getRedis().getTimeToLive() != null) {
+            defaults = defaults.entryTtl(cacheProperties.getRedis().getTimeToLive());
+        }
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .withCacheConfiguration(ProductCacheInvalidator.PRODUCT_LISTS_CACHE, defaults.entryTtl(listTimeToLive))
+                .enableStatistics()
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        Duration defaultTimeToLive = cacheProperties.getRedis().getTimeToLive() != null
+                ? cacheProperties.getRedis().getTimeToLive() : Duration.ZERO;
+        CacheManager protectedCacheManager = new StampedeProtectedCacheManager(redisCacheManager,
+                new CacheLoadLocks(redisTemplate, loadLockTtl),
+                name -> ProductCacheInvalidator.PRODUCT_LISTS_CACHE.equals(name) ? listTimeToLive : defaultTimeToLive,
+                loadLockWait, refreshAheadBeta, refreshAheadMinDelta, refreshAheadTrackedKeys, refreshAheadThreads);
+
+        return new TwoLevelCacheManager(protectedCacheManager, nearCacheNames, nearCacheSpec,
+                Map.of(ProductCacheInvalidator.PRODUCTS_CACHE, hotKeyPins));
+    }
+
+    /**
+     * Binds per-tier metrics for two-level caches: the L1 tier is reported as
+     * {@code <name>.l1} and the Redis tier under the plain cache name.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getLocal().getNativeCache(), cache.getName() + ".l1", tags)
+                    .bindTo(registry);
+            if (StampedeProtectedCache.unwrap(cache.getRemote()) instanceof RedisCache redisCache) {
+                new RedisCacheMetrics(redisCache, tags).bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * Binds Redis metrics for caches without an L1 tier, reported under the cache name.
+     */
+    @Bean
+    public CacheMeterBinderProvider<StampedeProtectedCache> stampedeProtectedCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getDelegate() instanceof RedisCache redisCache
+                ? new RedisCacheMetrics(redisCache, tags)
+                : null;
+    }
+}
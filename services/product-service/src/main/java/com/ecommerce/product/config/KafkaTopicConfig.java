@@ -0,0 +1,28 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.snapshot.ProductSnapshotPublisher;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Topics owned by this service, created on start-up when missing.
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    public NewTopic productSnapshotsTopic(@Value("${product.snapshots.partitions:6}") int partitions,
+                                          @Value("${product.snapshots.replicas:1}") int replicas) {
+        return TopicBuilder.name(ProductSnapshotPublisher.SNAPSHOT_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .config(TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "0")
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, "86400000")
+                .build();
+    }
+}
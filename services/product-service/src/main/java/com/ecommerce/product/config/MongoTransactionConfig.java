@@ -0,0 +1,23 @@
+package com.ecommerce.product.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Makes {@code @Transactional} service methods run in MongoDB multi-document
+ * transactions, so that outbox records commit atomically with the product writes they
+ * describe. Transactions need a replica set (a single-node one is enough). The outbox
+ * refuses to start without them unless events come from the change stream instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.mongodb.transactions.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.product.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+/**
+ * Thread pools for work the service runs off the calling thread. They are managed by the
+ * context, so they drain on shutdown, and Spring Boot reports them under
+ * {@code executor.*} tagged with the bean name.
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    public static final String STOCK_RESERVATION_EXECUTOR = "stockReservationExecutor";
+
+    /**
+     * Applies the items of a multi-item stock reservation concurrently.
+     */
+    @Bean(STOCK_RESERVATION_EXECUTOR)
+    public ThreadPoolTaskExecutor stockReservationExecutor(ThreadPoolTaskExecutorBuilder builder,
+                                                           @Value("${product.stock.reservation.parallelism:16}") int parallelism) {
+        return builder
+                .corePoolSize(parallelism)
+                .maxPoolSize(parallelism)
+                .threadNamePrefix("stock-reservation-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * The executor Spring Boot would otherwise auto-configure for MVC async requests such
+     * as the catalog export; declaring any other executor bean switches that default off.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.dto.FieldSelection;
+import com.ecommerce.product.category.CategoryTreeService;
+import com.ecommerce.product.dto.CategoryCrumb;
+import com.ecommerce.product.dto.CategoryNode;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.exception.CategoryNotFoundException;
+import com.ecommerce.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for category navigation, served from the in-memory category tree.
+ */
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+@Tag(name = "Category", description = "Category navigation APIs")
+public class CategoryController {
+
+    private final CategoryTreeService categoryTreeService;
+    private final ProductService productService;
+
+    @GetMapping("/tree")
+    @Operation(summary = "Get the full category tree")
+    public ResponseEntity<List<CategoryNode>> getTree() {
+        return ResponseEntity.ok(categoryTreeService.getTree().getRoots());
+    }
+
+    @GetMapping("/{categoryId}/breadcrumbs")
+    @Operation(summary = "Get the path from the root category to a category")
+    public ResponseEntity<List<CategoryCrumb>> getBreadcrumbs(@PathVariable String categoryId) {
+        List<CategoryCrumb> breadcrumbs = categoryTreeService.getTree().getBreadcrumbs(categoryId);
+        if (breadcrumbs == null) {
+            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+        }
+        return ResponseEntity.ok(breadcrumbs);
+    }
+
+    @GetMapping("/{categoryId}/products")
+    @Operation(summary = "Get products of a category including all its subcategories")
+    public ResponseEntity<MappingJacksonValue> getProductsInTree(
+            @PathVariable String categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductSummary.class);
+        return ResponseEntity.ok(selection.apply(
+                productService.getProductsInCategoryTree(categoryId, PageRequest.of(page, size))));
+    }
+}
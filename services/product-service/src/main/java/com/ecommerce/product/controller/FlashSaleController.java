@@ -0,0 +1,39 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.FlashSaleStockResponse;
+import com.ecommerce.product.inventory.FlashSaleStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin REST controller for switching products in and out of flash-sale stock mode.
+ */
+@RestController
+@RequestMapping("/api/products/{id}/flash-sale")
+@RequiredArgsConstructor
+@Tag(name = "Stock", description = "Stock reservation APIs")
+public class FlashSaleController {
+
+    private final FlashSaleStockService flashSaleStockService;
+
+    @GetMapping
+    @Operation(summary = "Get the flash-sale stock counters of a product")
+    public ResponseEntity<FlashSaleStockResponse> getStock(@PathVariable String id) {
+        return ResponseEntity.ok(flashSaleStockService.getStock(id));
+    }
+
+    @PutMapping
+    @Operation(summary = "Move a product's stock counters into Redis for a flash sale")
+    public ResponseEntity<FlashSaleStockResponse> enable(@PathVariable String id) {
+        return ResponseEntity.ok(flashSaleStockService.enable(id));
+    }
+
+    @DeleteMapping
+    @Operation(summary = "Write flash-sale stock back to MongoDB and leave flash-sale mode")
+    public ResponseEntity<FlashSaleStockResponse> disable(@PathVariable String id) {
+        return ResponseEntity.ok(flashSaleStockService.disable(id));
+    }
+}
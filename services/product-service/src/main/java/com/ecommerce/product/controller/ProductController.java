@@ -1,21 +1,48 @@
 package com.ecommerce.product.controller;
 
+import com.ecommerce.common.dto.FieldSelection;
+import com.ecommerce.product.bulk.ImportFormat;
+import com.ecommerce.product.bulk.ProductExportService;
+import com.ecommerce.product.bulk.ProductImportService;
+import com.ecommerce.product.cache.CacheGenerations;
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.cache.ProductETags;
+import com.ecommerce.product.cache.ProductJsonCache;
+import com.ecommerce.product.cache.ProductJsonCache.RenderedProduct;
+import com.ecommerce.product.dto.BulkImportResult;
+import com.ecommerce.product.dto.CursorPage;
+import com.ecommerce.product.dto.ProductBatchRequest;
+import com.ecommerce.product.dto.ProductFacetResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.facet.FacetQuery;
+import com.ecommerce.product.hotkey.HotKeyDetector;
+import com.ecommerce.product.listing.ProductListingIndex;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.warmup.AccessHistory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * REST controller for Product operations.
@@ -27,61 +54,166 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final ProductJsonCache productJsonCache;
+    private final CacheGenerations cacheGenerations;
+    private final ProductListingIndex listingIndex;
+    private final ProductExistenceFilter existenceFilter;
+    private final AccessHistory accessHistory;
+    private final HotKeyDetector hotKeyDetector;
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable String id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<?> getProductById(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponse.class);
+        if (!selection.isAll()) {
+            ProductResponse product = existenceFilter.lookupById(id,
+                    () -> productService.getProductById(id, selection));
+            accessHistory.record(id);
+            hotKeyDetector.record(id);
+            return product(product, selection);
+        }
+        RenderedProduct rendered = existenceFilter.lookupById(id,
+                () -> productJsonCache.get(id, productService::getProductById));
+        accessHistory.record(id);
+        hotKeyDetector.record(id);
+        return ResponseEntity.ok()
+                .eTag(rendered.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(rendered.getBody());
     }
 
     @GetMapping("/sku/{sku}")
     @Operation(summary = "Get product by SKU")
-    public ResponseEntity<ProductResponse> getProductBySku(@PathVariable String sku) {
-        return ResponseEntity.ok(productService.getProductBySku(sku));
+    public ResponseEntity<MappingJacksonValue> getProductBySku(
+            @PathVariable String sku,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponse.class);
+        ProductResponse product = existenceFilter.lookupBySku(sku, () -> selection.isAll()
+                ? productService.getProductBySku(sku)
+                : productService.getProductBySku(sku, selection));
+        accessHistory.record(ProductCacheInvalidator.skuKey(sku));
+        return product(product, selection);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get several products by ID in one call, in request order")
+    public ResponseEntity<MappingJacksonValue> getProductsByIds(
+            @Valid @RequestBody ProductBatchRequest request,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductResponse.class);
+        return ResponseEntity.ok(selection.apply(productService.getProductsByIds(request.getIds())));
     }
 
     @GetMapping
     @Operation(summary = "Get all products with pagination")
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
+    public ResponseEntity<MappingJacksonValue> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductSummary.class);
         
         Sort sort = sortDir.equalsIgnoreCase("ASC") 
                 ? Sort.by(sortBy).ascending() 
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return ResponseEntity.ok(productService.getAllProducts(pageable));
+        return listing(webRequest, () -> selection.apply(productService.getAllProducts(pageable)));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all products with cursor pagination")
+    public ResponseEntity<CursorPage<ProductSummary>> getAllProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            WebRequest webRequest) {
+        return listing(webRequest, () -> productService.getProductsAfter(null, cursor, size, sortBy, sortDir));
     }
 
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "Get products by category")
-    public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
+    public ResponseEntity<MappingJacksonValue> getProductsByCategory(
             @PathVariable String categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductSummary.class);
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId, pageable));
+        return indexedListing(webRequest, () -> selection.apply(productService.getProductsByCategory(categoryId, pageable)));
+    }
+
+    @GetMapping("/category/{categoryId}/cursor")
+    @Operation(summary = "Get products by category with cursor pagination")
+    public ResponseEntity<CursorPage<ProductSummary>> getProductsByCategoryByCursor(
+            @PathVariable String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            WebRequest webRequest) {
+        return listing(webRequest, () -> productService.getProductsAfter(categoryId, cursor, size, sortBy, sortDir));
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search products by name")
-    public ResponseEntity<Page<ProductResponse>> searchProducts(
+    public ResponseEntity<MappingJacksonValue> searchProducts(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductSummary.class);
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productService.searchProducts(query, pageable));
+        return ResponseEntity.ok(selection.apply(productService.searchProducts(query, pageable)));
+    }
+
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Search products with cursor pagination")
+    public ResponseEntity<CursorPage<ProductResponse>> searchProductsByCursor(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.searchProductsAfter(query, cursor, size));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Filter products by facets with per-facet counts")
+    public ResponseEntity<ProductFacetResponse> getFacets(
+            @RequestParam(required = false) List<String> categoryId,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> stock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        FacetQuery query = FacetQuery.builder()
+                .categoryIds(categoryId)
+                .brands(brand)
+                .tags(tag)
+                .stock(stock)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .build();
+        return ResponseEntity.ok(productService.getFacets(query, PageRequest.of(page, size)));
     }
 
     @GetMapping("/featured")
     @Operation(summary = "Get featured products")
-    public ResponseEntity<List<ProductResponse>> getFeaturedProducts() {
-        return ResponseEntity.ok(productService.getFeaturedProducts());
+    public ResponseEntity<MappingJacksonValue> getFeaturedProducts(
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        FieldSelection selection = FieldSelection.parse(fields, ProductSummary.class);
+        return indexedListing(webRequest, () -> selection.apply(productService.getFeaturedProducts()));
     }
 
     @PostMapping
@@ -91,6 +223,30 @@ public class ProductController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_MEDIA_TYPE, ImportFormat.CSV_MEDIA_TYPE})
+    @Operation(summary = "Bulk import products from NDJSON or CSV, upserting by SKU")
+    public ResponseEntity<BulkImportResult> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) Integer batchSize,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(
+                body, ImportFormat.fromContentType(contentType), batchSize));
+    }
+
+    @GetMapping(value = "/export", produces = ImportFormat.NDJSON_MEDIA_TYPE)
+    @Operation(summary = "Stream active products as NDJSON, resumable from the last exported id")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImportFormat.NDJSON_MEDIA_TYPE));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(productExportService.export(after, fields, gzip));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing product")
     public ResponseEntity<ProductResponse> updateProduct(
@@ -114,4 +270,37 @@ public class ProductController {
         productService.updateStock(id, quantity);
         return ResponseEntity.ok().build();
     }
+
+    private ResponseEntity<MappingJacksonValue> product(ProductResponse product, FieldSelection selection) {
+        return ResponseEntity.ok()
+                .eTag(ProductETags.forProduct(product))
+                .body(selection.apply(product));
+    }
+
+    /**
+     * Answer a list read, tagged with the current list generation. A request that already
+     * holds that tag gets {@code 304 Not Modified} before the page is loaded.
+     */
+    private <T> ResponseEntity<T> listing(WebRequest webRequest, Supplier<T> page) {
+        return listing(webRequest, ProductETags.forListings(cacheGenerations.current(CacheGenerations.PRODUCT_LISTS)), page);
+    }
+
+    /**
+     * Answer a list read served by the {@link ProductListingIndex}, tagged with its version
+     * rather than the list generation: the index applies writes asynchronously, after the
+     * generation has already moved on.
+     */
+    private <T> ResponseEntity<T> indexedListing(WebRequest webRequest, Supplier<T> page) {
+        if (!listingIndex.isReady()) {
+            return listing(webRequest, page);
+        }
+        return listing(webRequest, listingIndex.etag(), page);
+    }
+
+    private <T> ResponseEntity<T> listing(WebRequest webRequest, String etag, Supplier<T> page) {
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(page.get());
+    }
 }
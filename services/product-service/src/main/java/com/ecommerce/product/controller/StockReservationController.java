@@ -0,0 +1,48 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.StockReservationRequest;
+import com.ecommerce.product.dto.StockReservationResponse;
+import com.ecommerce.product.inventory.StockReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for stock reservations.
+ */
+@RestController
+@RequestMapping("/api/products/stock/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Stock", description = "Stock reservation APIs")
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @PostMapping
+    @Operation(summary = "Reserve stock for a cart or order; all items are reserved or none")
+    public ResponseEntity<StockReservationResponse> reserve(@Valid @RequestBody StockReservationRequest request) {
+        return new ResponseEntity<>(stockReservationService.reserve(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get stock reservation by ID")
+    public ResponseEntity<StockReservationResponse> getReservation(@PathVariable String id) {
+        return ResponseEntity.ok(stockReservationService.getReservation(id));
+    }
+
+    @PostMapping("/{id}/commit")
+    @Operation(summary = "Commit reserved stock as sold")
+    public ResponseEntity<StockReservationResponse> commit(@PathVariable String id) {
+        return ResponseEntity.ok(stockReservationService.commit(id));
+    }
+
+    @PostMapping("/{id}/release")
+    @Operation(summary = "Release reserved stock back to available stock")
+    public ResponseEntity<StockReservationResponse> release(@PathVariable String id) {
+        return ResponseEntity.ok(stockReservationService.release(id));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.product.coordination;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Time-bounded leases stored as one document per lease, used to let a single instance
+ * run a background job. Acquiring is an upsert matching the lease only while it is held
+ * by the caller or has expired; when another owner holds it the upsert collides on
+ * {@code _id} and fails. Holders renew by acquiring again before the TTL runs out.
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoLeases {
+
+    private final MongoTemplate mongoTemplate;
+
+    public boolean tryAcquire(String collection, String leaseId, String owner, Duration ttl) {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("_id").is(leaseId),
+                new Criteria().orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now))));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(ttl));
+        try {
+            mongoTemplate.upsert(query, update, collection);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void release(String collection, String leaseId, String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(leaseId).and("owner").is(owner)), collection);
+    }
+}
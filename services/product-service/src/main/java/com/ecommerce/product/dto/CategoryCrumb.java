@@ -0,0 +1,16 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One step of a category breadcrumb.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryCrumb {
+
+    private final String id;
+    private final String name;
+    private final String slug;
+}
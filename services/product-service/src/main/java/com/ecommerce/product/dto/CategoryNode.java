@@ -0,0 +1,22 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A category in the category tree, with its active subcategories in display order.
+ * Instances are immutable and shared by all readers of a tree snapshot.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryNode {
+
+    private final String id;
+    private final String name;
+    private final String slug;
+    private final String imageUrl;
+    private final Integer displayOrder;
+    private final List<CategoryNode> children;
+}
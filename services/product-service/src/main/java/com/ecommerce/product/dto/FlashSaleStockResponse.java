@@ -0,0 +1,23 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flash-sale stock counters of a product as held in Redis.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStockResponse {
+
+    private String productId;
+    private boolean enabled;
+    private Long availableQuantity;
+    private Long reservedQuantity;
+    private Long pendingAvailableDelta; // not yet written back to MongoDB
+    private Long pendingReservedDelta;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for resolving several products by id in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "At least one product id is required")
+    @Size(max = 200, message = "At most 200 product ids can be requested at once")
+    private List<String> ids;
+}
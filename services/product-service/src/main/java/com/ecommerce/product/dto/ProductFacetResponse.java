@@ -0,0 +1,25 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted search response: one page of matching products plus counts per facet value.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResponse {
+
+    private long totalElements;
+    private int page;
+    private int size;
+    private List<ProductResponse> products;
+    private Map<String, Map<String, Long>> facets;
+}
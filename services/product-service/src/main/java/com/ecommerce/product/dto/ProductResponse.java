@@ -1,6 +1,8 @@
 package com.ecommerce.product.dto;
 
+import com.ecommerce.common.dto.FieldSelection;
 import com.ecommerce.product.model.ProductVariant;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +20,7 @@ import java.util.Map;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public class ProductResponse {
 
     private String id;
@@ -30,6 +33,7 @@ public class ProductResponse {
     private BigDecimal compareAtPrice;
     private String currency;
     private Integer stockQuantity;
+    private Integer reservedQuantity;
     private Integer lowStockThreshold;
     private String brand;
     private List<String> tags;
@@ -41,6 +45,8 @@ public class ProductResponse {
     private Integer reviewCount;
     private Boolean active;
     private Boolean featured;
+    private Boolean flashSale;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
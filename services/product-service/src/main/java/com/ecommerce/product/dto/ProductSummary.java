@@ -0,0 +1,49 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.common.dto.FieldSelection;
+import com.ecommerce.product.model.Product;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Listing-tile view of a product. Repository methods returning this type only fetch
+ * these fields from MongoDB.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
+public class ProductSummary {
+
+    private String id;
+    private String sku;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal compareAtPrice;
+    private String currency;
+    private String primaryImageUrl;
+    private Double averageRating;
+    private Integer reviewCount;
+    private Integer stockQuantity;
+
+    public static ProductSummary of(Product product) {
+        return ProductSummary.builder()
+                .id(product.getId())
+                .sku(product.getSku())
+                .name(product.getName())
+                .price(product.getPrice())
+                .compareAtPrice(product.getCompareAtPrice())
+                .currency(product.getCurrency())
+                .primaryImageUrl(product.getPrimaryImageUrl())
+                .averageRating(product.getAverageRating())
+                .reviewCount(product.getReviewCount())
+                .stockQuantity(product.getStockQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for reserving stock for a whole cart or order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+
+    private String reference;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 200, message = "At most 200 items can be reserved at once")
+    @Valid
+    private List<Item> items;
+
+    @Positive(message = "TTL must be positive")
+    private Integer ttlSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotBlank(message = "Product ID is required")
+        private String productId;
+
+        private String variantId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.model.StockReservation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock reservation response DTO.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResponse {
+
+    private String id;
+    private String reference;
+    private List<StockReservation.Item> items;
+    private StockReservation.Status status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime closedAt;
+}
@@ -23,5 +23,6 @@ public class ProductEvent {
     private String name;
     private BigDecimal price;
     private Integer stockQuantity;
+    private Long version; // document version the event was built from; older stock updates are stale
     private LocalDateTime timestamp;
 }
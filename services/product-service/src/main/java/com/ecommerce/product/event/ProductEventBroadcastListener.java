@@ -0,0 +1,105 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.facet.ProductFacetIndex;
+import com.ecommerce.product.listing.ProductListingIndex;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies every product write to the in-process state of this instance: the search,
+ * facet and listing indexes, the L1 near-cache and the existence filter. A write is
+ * loaded from MongoDB once and fanned out; stock updates are applied from the event
+ * payload and deletes need no read.
+ * <p>
+ * Each instance consumes {@code product-events} in its own, stable consumer group
+ * ({@code <application>-<instance-id>}) so that all of them see every event and restarts
+ * do not leave groups behind. The first time a partition is assigned to this process it
+ * is rewound to shortly before start-up, since the in-memory state is rebuilt from
+ * MongoDB on start-up and events published while the rebuild ran would otherwise be
+ * skipped; replaying events the rebuild already reflects is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventBroadcastListener implements ConsumerSeekAware {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductListingIndex listingIndex;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductExistenceFilter existenceFilter;
+
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Set<TopicPartition> rewound = ConcurrentHashMap.newKeySet();
+
+    @Value("${product.events.replay-margin:30s}")
+    private Duration replayMargin;
+
+    @KafkaListener(
+            topics = "product-events",
+            groupId = "${spring.application.name}-${product.events.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void onProductEvent(ProductEvent event) {
+        if (event == null || event.getProductId() == null || event.getEventType() == null) {
+            return;
+        }
+        String id = event.getProductId();
+        switch (event.getEventType()) {
+            case "PRODUCT_DELETED" -> removeFromIndexes(id);
+            case "PRODUCT_STOCK_UPDATED" -> {
+                facetIndex.updateStock(id, event.getStockQuantity(), event.getVersion());
+                listingIndex.updateStock(id, event.getStockQuantity(), event.getVersion());
+            }
+            default -> {
+                Optional<Product> product = productRepository.findById(id);
+                product.ifPresentOrElse(this::index, () -> removeFromIndexes(id));
+            }
+        }
+        cacheInvalidator.evictLocal(id, event.getSku());
+        if ("PRODUCT_CREATED".equals(event.getEventType())) {
+            existenceFilter.register(id, event.getSku());
+        }
+        log.debug("Applied {} for product: {} to local state", event.getEventType(), id);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> first = assignments.keySet().stream()
+                .filter(rewound::add)
+                .toList();
+        if (!first.isEmpty()) {
+            callback.seekToTimestamp(first, startedAtMillis - replayMargin.toMillis());
+            log.info("Replaying product events of {} partitions from {} before start-up", first.size(), replayMargin);
+        }
+    }
+
+    private void index(Product product) {
+        searchIndex.index(product);
+        facetIndex.index(product);
+        listingIndex.index(product);
+    }
+
+    private void removeFromIndexes(String id) {
+        searchIndex.remove(id);
+        facetIndex.remove(id);
+        listingIndex.remove(id);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes {@link ProductEvent}s to the {@code product-events} topic, keyed by product id.
+ * Events go through the outbox: they are stored with the caller's write (in its
+ * transaction, when there is one) and relayed to Kafka asynchronously, so callers never
+ * wait on the broker. Stock updates are coalesced per product by
+ * {@link StockEventCoalescer} before they reach the outbox.
+ * <p>
+ * With {@code product.change-stream.enabled=true} events are derived from the MongoDB
+ * change stream instead, and the publish methods do nothing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventPublisher {
+
+    public static final String PRODUCT_TOPIC = "product-events";
+    public static final String STOCK_UPDATED = "PRODUCT_STOCK_UPDATED";
+
+    private final OutboxWriter outboxWriter;
+    private final StockEventCoalescer stockEventCoalescer;
+
+    @Value("${product.change-stream.enabled:false}")
+    private boolean changeStreamEnabled;
+
+    public void publish(Product product, String eventType) {
+        if (changeStreamEnabled) {
+            return;
+        }
+        if (STOCK_UPDATED.equals(eventType)) {
+            stockEventCoalescer.offer(product, event(product, eventType));
+            return;
+        }
+        stockEventCoalescer.flush(product.getId());
+        outboxWriter.append(PRODUCT_TOPIC, product.getId(), event(product, eventType));
+        log.info("Queued {} event for product: {}", eventType, product.getId());
+    }
+
+    /**
+     * Queue the events of several products with one outbox insert.
+     */
+    public void publishAll(List<ProductEvent> events) {
+        if (changeStreamEnabled) {
+            return;
+        }
+        events.forEach(event -> stockEventCoalescer.flush(event.getProductId()));
+        outboxWriter.appendAll(PRODUCT_TOPIC, events, ProductEvent::getProductId);
+        log.info("Queued {} product events", events.size());
+    }
+
+    /**
+     * Publish the current stock counters of several products.
+     */
+    public void publishStockUpdates(List<Product> products) {
+        if (changeStreamEnabled) {
+            return;
+        }
+        products.forEach(product -> stockEventCoalescer.offer(product, event(product, STOCK_UPDATED)));
+    }
+
+    public ProductEvent event(Product product, String eventType) {
+        return ProductEvent.builder()
+                .eventType(eventType)
+                .productId(product.getId())
+                .sku(product.getSku())
+                .name(product.getName())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .version(product.getVersion())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.outbox.OutboxWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces {@code PRODUCT_STOCK_UPDATED} events per product. Within a window only the
+ * newest stock value of a product is kept; the window closes on the periodic flush, or
+ * at once when the stock crosses a threshold (runs out, drops to or below the product's
+ * {@code lowStockThreshold}, or recovers from either), so alerts are never delayed.
+ * <p>
+ * Buffered events are held in memory until they reach the outbox, so a crash can lose
+ * at most one window of stock updates; the next change of the product publishes its
+ * current counters again. Events the outbox rejects go back into the buffer, merged with
+ * anything offered meanwhile, and are retried on the next flush. Any other event of a
+ * product first flushes its pending stock event; since a retried event can still land
+ * behind it, events carry the document version and consumers drop stale stock updates.
+ */
+@Component
+@Slf4j
+public class StockEventCoalescer {
+
+    private static final String RECEIVED_METRIC = "product.stock.events.received";
+    private static final String EMITTED_METRIC = "product.stock.events.emitted";
+
+    private final OutboxWriter outboxWriter;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Cache<String, StockLevel> emittedLevels;
+
+    private final Counter received;
+    private final Map<String, Counter> emitted = new ConcurrentHashMap<>();
+    private final AtomicLong receivedTotal = new AtomicLong();
+    private final AtomicLong emittedTotal = new AtomicLong();
+    private final Timer flushLatency;
+    private final MeterRegistry meterRegistry;
+
+    public StockEventCoalescer(OutboxWriter outboxWriter,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.events.stock-coalescing.enabled:true}") boolean enabled,
+                               @Value("${product.events.stock-coalescing.window:250ms}") Duration window,
+                               @Value("${product.events.stock-coalescing.tracked-products:100000}") long trackedProducts) {
+        this.outboxWriter = outboxWriter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.emittedLevels = Caffeine.newBuilder().maximumSize(trackedProducts).build();
+        this.received = Counter.builder(RECEIVED_METRIC)
+                .description("Stock update events offered for publishing")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("product.stock.events.flush.latency")
+                .description("Time from the first buffered stock update of a product to its publication")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.events.coalescing.ratio", this, StockEventCoalescer::coalescingRatio)
+                .description("Stock update events received per event published")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.events.pending", pending, Map::size)
+                .description("Products with a buffered stock update event")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffer the stock event of a product, replacing any older one still pending.
+     */
+    public void offer(Product product, ProductEvent event) {
+        received.increment();
+        receivedTotal.incrementAndGet();
+        if (!enabled) {
+            emit(List.of(new Pending(product, event, System.nanoTime())), "disabled");
+            return;
+        }
+        String productId = event.getProductId();
+        Pending merged = pending.compute(productId, (id, current) -> {
+            Pending next = new Pending(product, event, System.nanoTime());
+            return current == null ? next : current.merge(next);
+        });
+        StockLevel previous = emittedLevels.getIfPresent(productId);
+        if (merged.level != previous && (previous != null || merged.level != StockLevel.IN_STOCK)) {
+            flush(productId, "threshold");
+        }
+    }
+
+    /**
+     * Publish the pending stock event of a product, if any, ahead of another of its events.
+     */
+    public void flush(String productId) {
+        flush(productId, "ordered");
+    }
+
+    @Scheduled(fixedDelayString = "${product.events.stock-coalescing.flush-interval-ms:50}")
+    public void flushExpired() {
+        long now = System.nanoTime();
+        List<Pending> due = new ArrayList<>();
+        pending.forEach((productId, entry) -> {
+            if (now - entry.firstNanos >= windowNanos && pending.remove(productId, entry)) {
+                due.add(entry);
+            }
+        });
+        emit(due, "window");
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        List<Pending> remaining = new ArrayList<>();
+        pending.keySet().forEach(productId -> {
+            Pending entry = pending.remove(productId);
+            if (entry != null) {
+                remaining.add(entry);
+            }
+        });
+        emit(remaining, "shutdown");
+    }
+
+    private void flush(String productId, String reason) {
+        Pending entry = pending.remove(productId);
+        if (entry != null) {
+            emit(List.of(entry), reason);
+        }
+    }
+
+    private void emit(List<Pending> entries, String reason) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            outboxWriter.appendAll(ProductEventPublisher.PRODUCT_TOPIC,
+                    entries.stream().map(entry -> entry.event).toList(), ProductEvent::getProductId);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish {} coalesced stock events, retrying on the next flush", entries.size(), e);
+            entries.forEach(this::requeue);
+            return;
+        }
+        long now = System.nanoTime();
+        for (Pending entry : entries) {
+            emittedLevels.put(entry.event.getProductId(), entry.level);
+            flushLatency.record(now - entry.firstNanos, TimeUnit.NANOSECONDS);
+        }
+        emitted.computeIfAbsent(reason, tag -> Counter.builder(EMITTED_METRIC)
+                        .description("Stock update events published after coalescing")
+                        .tag("reason", tag)
+                        .register(meterRegistry))
+                .increment(entries.size());
+        emittedTotal.addAndGet(entries.size());
+        log.debug("Published {} stock events ({})", entries.size(), reason);
+    }
+
+    /**
+     * Put back an event the outbox did not take, unless a newer one was offered meanwhile.
+     */
+    private void requeue(Pending entry) {
+        pending.merge(entry.event.getProductId(), entry, (current, failed) -> failed.merge(current));
+    }
+
+    private double coalescingRatio() {
+        long published = emittedTotal.get();
+        return published == 0 ? 1.0 : (double) receivedTotal.get() / published;
+    }
+
+    private enum StockLevel {
+        OUT_OF_STOCK, LOW_STOCK, IN_STOCK;
+
+        static StockLevel of(Product product) {
+            int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+            if (stock <= 0) {
+                return OUT_OF_STOCK;
+            }
+            Integer threshold = product.getLowStockThreshold();
+            return threshold != null && stock <= threshold ? LOW_STOCK : IN_STOCK;
+        }
+    }
+
+    private static final class Pending {
+
+        private final ProductEvent event;
+        private final Long version;
+        private final StockLevel level;
+        private final long firstNanos;
+
+        Pending(Product product, ProductEvent event, long firstNanos) {
+            this(event, product.getVersion(), StockLevel.of(product), firstNanos);
+        }
+
+        private Pending(ProductEvent event, Long version, StockLevel level, long firstNanos) {
+            this.event = event;
+            this.version = version;
+            this.level = level;
+            this.firstNanos = firstNanos;
+        }
+
+        /**
+         * Keep the newer of two events by document version; concurrent writers may offer
+         * their results out of order. The window keeps its original start.
+         */
+        Pending merge(Pending next) {
+            boolean stale = version != null && next.version != null && next.version < version;
+            Pending newest = stale ? this : next;
+            return new Pending(newest.event, newest.version, newest.level, firstNanos);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.product.exception;
+
+/**
+ * Exception thrown when a category is not found.
+ */
+public class CategoryNotFoundException extends RuntimeException {
+    public CategoryNotFoundException(String message) {
+        super(message);
+    }
+}
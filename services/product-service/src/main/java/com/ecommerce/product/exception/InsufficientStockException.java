@@ -0,0 +1,10 @@
+package com.ecommerce.product.exception;
+
+/**
+ * Exception thrown when stock cannot be reserved because not enough is available.
+ */
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,11 @@
 package com.ecommerce.product.exception;
 
 /**
- * Exception thrown when a product is not found.
+ * Exception thrown when a product is not found. Unknown ids and SKUs are routine (crawlers,
+ * stale links) and always end as a 404, so no stack trace is captured.
  */
 public class ProductNotFoundException extends RuntimeException {
     public ProductNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
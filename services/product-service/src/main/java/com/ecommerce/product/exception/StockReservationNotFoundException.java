@@ -0,0 +1,10 @@
+package com.ecommerce.product.exception;
+
+/**
+ * Exception thrown when a stock reservation is not found.
+ */
+public class StockReservationNotFoundException extends RuntimeException {
+    public StockReservationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.product.exception;
+
+/**
+ * Exception thrown when a stock reservation is committed or released after it was closed.
+ */
+public class StockReservationStateException extends RuntimeException {
+    public StockReservationStateException(String message) {
+        super(message);
+    }
+}
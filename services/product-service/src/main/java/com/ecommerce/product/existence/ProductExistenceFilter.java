@@ -0,0 +1,263 @@
+package com.ecommerce.product.existence;
+
+import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Answers "does this product id or SKU exist?" without I/O for the common case of an
+ * unknown key, so that crawlers and broken links stop reaching MongoDB.
+ * <ul>
+ *   <li>A Bloom filter of every product id and SKU (inactive products included, since
+ *       they are still readable by key) rejects definite misses. It is built from MongoDB
+ *       on start-up, extended on create by this instance and, through the
+ *       {@link com.ecommerce.product.event.ProductEventBroadcastListener}, by every other
+ *       one, and rebuilt periodically or when it fills up, which also drops keys removed outside the service.</li>
+ *   <li>Keys the filter lets through but MongoDB does not know (false positives and
+ *       removed products) are remembered in a short-lived local negative cache.</li>
+ * </ul>
+ * Until the first build completes every key is let through. Product ids are MongoDB
+ * object ids; ids younger than the grace period always pass the filter, so a product
+ * created on another instance can be read before its event arrives here. New SKUs
+ * become known when the {@code PRODUCT_CREATED} event arrives.
+ */
+@Component
+@Slf4j
+public class ProductExistenceFilter {
+
+    private static final String NOT_FOUND_METRIC = "product.lookups.not-found";
+    private static final String ID_PREFIX = "id:";
+    private static final String SKU_PREFIX = "sku:";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long rebuildIntervalNanos;
+    private final long gracePeriodSeconds;
+    private final Cache<String, Boolean> negativeCache;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile long builtAtNanos;
+
+    private final Counter rejectedByFilter;
+    private final Counter rejectedByNegativeCache;
+    private final Counter missedInDatabase;
+
+    public ProductExistenceFilter(MongoTemplate mongoTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${product.existence-filter.enabled:true}") boolean enabled,
+                                  @Value("${product.existence-filter.expected-insertions:1000000}") long expectedInsertions,
+                                  @Value("${product.existence-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${product.existence-filter.rebuild-interval:6h}") Duration rebuildInterval,
+                                  @Value("${product.existence-filter.grace-period:60s}") Duration gracePeriod,
+                                  @Value("${product.existence-filter.negative-ttl:30s}") Duration negativeTtl,
+                                  @Value("${product.existence-filter.negative-cache-size:100000}") long negativeCacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalNanos = rebuildInterval.toNanos();
+        this.gracePeriodSeconds = gracePeriod.toSeconds();
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        this.rejectedByFilter = notFoundCounter(meterRegistry, "filter");
+        this.rejectedByNegativeCache = notFoundCounter(meterRegistry, "negative-cache");
+        this.missedInDatabase = notFoundCounter(meterRegistry, "database");
+        Gauge.builder("product.existence.filter.false-positive-rate", this, ProductExistenceFilter::currentFalsePositiveRate)
+                .description("Expected false-positive rate of the product existence filter at its current fill")
+                .register(meterRegistry);
+        Gauge.builder("product.existence.filter.entries", this, ProductExistenceFilter::entries)
+                .description("Product ids and SKUs added to the existence filter since its last build")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Read a product by id, failing fast with {@link ProductNotFoundException} when the id
+     * is known not to exist, and remembering ids the lookup did not find.
+     */
+    public <T> T lookupById(String id, Supplier<T> lookup) {
+        if (!mightExistById(id)) {
+            throw new ProductNotFoundException("Product not found with id: " + id);
+        }
+        return remembering(ID_PREFIX + id, lookup);
+    }
+
+    /**
+     * SKU counterpart of {@link #lookupById(String, Supplier)}.
+     */
+    public <T> T lookupBySku(String sku, Supplier<T> lookup) {
+        if (!mightExist(SKU_PREFIX + sku)) {
+            throw new ProductNotFoundException("Product not found with SKU: " + sku);
+        }
+        return remembering(SKU_PREFIX + sku, lookup);
+    }
+
+    /**
+     * Whether a product with this id may exist; {@code false} is definite.
+     */
+    public boolean mightExistById(String id) {
+        return isRecentObjectId(id) || mightExist(ID_PREFIX + id);
+    }
+
+    /**
+     * Add a created product's id and SKU, and drop any negative entry for them. Inside a
+     * transaction this happens after commit, so a rollback leaves the filter untouched.
+     */
+    public void register(String id, String sku) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addKeys(id, sku);
+                }
+            });
+        } else {
+            addKeys(id, sku);
+        }
+    }
+
+    public void register(Product product) {
+        register(product.getId(), product.getSku());
+    }
+
+    public void registerAll(Collection<Product> products) {
+        products.forEach(this::register);
+    }
+
+    /**
+     * Build a new filter from MongoDB and swap it in. Keys registered while the build
+     * runs go into both the current and the new filter.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long products = mongoTemplate.estimatedCount(Product.class);
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, products * 3), falsePositiveRate);
+        building = next;
+        Query query = new Query();
+        query.fields().include("_id", "sku");
+        try (Stream<Product> stream = mongoTemplate.stream(query, Product.class)) {
+            stream.forEach(product -> {
+                next.add(ID_PREFIX + product.getId());
+                if (product.getSku() != null) {
+                    next.add(SKU_PREFIX + product.getSku());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to build product existence filter; keeping the previous one", e);
+            return;
+        } finally {
+            building = null;
+        }
+        filter = next;
+        builtAtNanos = System.nanoTime();
+        log.info("Built product existence filter with {} keys in {} ms", next.insertions(),
+                Duration.ofNanos(builtAtNanos - started).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${product.existence-filter.check-interval-ms:60000}")
+    public void rebuildIfStale() {
+        BloomFilter current = filter;
+        if (current != null && (current.isSaturated() || System.nanoTime() - builtAtNanos >= rebuildIntervalNanos)) {
+            rebuild();
+        }
+    }
+
+    private void addKeys(String id, String sku) {
+        if (id != null) {
+            add(ID_PREFIX + id);
+        }
+        if (sku != null) {
+            add(SKU_PREFIX + sku);
+        }
+    }
+
+    private boolean mightExist(String key) {
+        if (!enabled) {
+            return true;
+        }
+        if (negativeCache.getIfPresent(key) != null) {
+            rejectedByNegativeCache.increment();
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(key)) {
+            rejectedByFilter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private <T> T remembering(String key, Supplier<T> lookup) {
+        try {
+            return lookup.get();
+        } catch (ProductNotFoundException e) {
+            if (enabled) {
+                negativeCache.put(key, Boolean.TRUE);
+                missedInDatabase.increment();
+            }
+            throw e;
+        }
+    }
+
+    private void add(String key) {
+        negativeCache.invalidate(key);
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(key);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(key);
+        }
+    }
+
+    private boolean isRecentObjectId(String id) {
+        return ObjectId.isValid(id)
+                && new ObjectId(id).getTimestamp() >= System.currentTimeMillis() / 1000 - gracePeriodSeconds;
+    }
+
+    private double currentFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 0.0 : current.expectedFalsePositiveRate();
+    }
+
+    private double entries() {
+        BloomFilter current = filter;
+        return current == null ? 0.0 : current.insertions();
+    }
+
+    private static Counter notFoundCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder(NOT_FOUND_METRIC)
+                .description("Product lookups by id or SKU answered with not found")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.product.facet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Facet filter selection. Values within a dimension are OR-ed, dimensions are AND-ed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetQuery {
+
+    private List<String> categoryIds;
+    private List<String> brands;
+    private List<String> tags;
+    private List<String> stock; // IN_STOCK, LOW_STOCK, OUT_OF_STOCK
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.product.facet;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matching product ids for one page plus per-dimension facet counts.
+ */
+@Data
+@AllArgsConstructor
+public class FacetResult {
+
+    private long totalElements;
+    private List<String> productIds;
+    private Map<String, Map<String, Long>> facets;
+}
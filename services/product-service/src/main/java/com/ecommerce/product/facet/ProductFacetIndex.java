@@ -0,0 +1,448 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.product.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Compressed-bitmap index over active products for combined filtering and facet counts.
+ * Every product gets a dense ordinal; each facet value (category, brand, tag, price band,
+ * stock state) owns a {@link RoaringBitmap} of the ordinals that carry it. Filters are
+ * bitwise AND/OR over those bitmaps and counts are {@code andCardinality} calls.
+ * <p>
+ * Facet counts are disjunctive: the counts of a dimension apply every filter except the
+ * dimension's own selection, so a multi-select UI can show how many products each
+ * additional value would add.
+ * <p>
+ * A rebuild streams MongoDB into a fresh set of bitmaps while queries keep using the
+ * current ones; writes that arrive meanwhile are applied to both, and the new set is
+ * swapped in under a short write lock. Writes older than the indexed document version
+ * are ignored. The index reports {@code OUT_OF_SERVICE} until the first build completes,
+ * and is rebuilt periodically once removed products leave too many dead ordinals.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex implements HealthIndicator {
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String TAG = "tag";
+    public static final String PRICE = "price";
+    public static final String STOCK = "stock";
+
+    public static final String IN_STOCK = "IN_STOCK";
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+    private static final List<String> DIMENSIONS = List.of(CATEGORY, BRAND, TAG, PRICE, STOCK);
+    private static final String[] FIELDS = {"id", "active", "version", "categoryId", "brand", "tags", "price",
+            "stockQuantity", "lowStockThreshold"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.facets.price-bands:0,25,50,100,250,500,1000}")
+    private long[] priceBands;
+
+    @Value("${product.facets.max-values:50}")
+    private int maxValuesPerFacet;
+
+    @Value("${product.facets.max-dead-ratio:0.25}")
+    private double maxDeadRatio;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<Consumer<State>> pendingWrites;
+    private volatile boolean ready;
+
+    /**
+     * Rebuild the index from MongoDB, streaming the facet fields of active products
+     * through a cursor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        log.info("Rebuilding product facet index");
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        State next = new State();
+        long count = 0;
+        try {
+            Query query = Query.query(Criteria.where("active").is(true));
+            query.fields().include(FIELDS);
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    next.index(product);
+                    count++;
+                }
+            }
+            next.optimize();
+            lock.writeLock().lock();
+            try {
+                pendingWrites.forEach(write -> write.accept(next));
+                state = next;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Product facet index rebuilt with {} products in {} ms",
+                    count, System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Ordinals of removed or deactivated products are not reused, so every bitmap's
+     * ordinal space grows with churn. Rebuild, which assigns dense ordinals again, once
+     * more than {@code product.facets.max-dead-ratio} of them are dead.
+     */
+    @Scheduled(fixedDelayString = "${product.facets.compaction-check-interval-ms:60000}")
+    public void rebuildIfFragmented() {
+        if (!ready) {
+            return;
+        }
+        int ordinals;
+        long live;
+        lock.readLock().lock();
+        try {
+            ordinals = state.productIds.size();
+            live = state.live.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ordinals > 0 && ordinals - live > ordinals * maxDeadRatio) {
+            log.info("Product facet index holds {} dead of {} ordinals; rebuilding", ordinals - live, ordinals);
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = ready ? Health.up() : Health.outOfService();
+        lock.readLock().lock();
+        try {
+            return health.withDetail("products", state.live.getCardinality()).build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a product; inactive products are removed instead.
+     */
+    public void index(Product product) {
+        write(next -> next.index(product));
+    }
+
+    public void remove(String productId) {
+        write(next -> next.remove(productId));
+    }
+
+    /**
+     * Move a product between stock states without reloading it. Updates older than the
+     * indexed document version are ignored; a {@code null} version always applies.
+     */
+    public void updateStock(String productId, Integer stockQuantity, Long version) {
+        write(next -> next.updateStock(productId, stockQuantity, version));
+    }
+
+    public FacetResult query(FacetQuery facetQuery, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            State current = state;
+            Map<String, RoaringBitmap> filters = new LinkedHashMap<>();
+            current.addValueFilter(filters, CATEGORY, facetQuery.getCategoryIds());
+            current.addValueFilter(filters, BRAND, facetQuery.getBrands());
+            current.addValueFilter(filters, TAG, facetQuery.getTags());
+            current.addValueFilter(filters, STOCK, facetQuery.getStock());
+            if (facetQuery.getMinPrice() != null || facetQuery.getMaxPrice() != null) {
+                filters.put(PRICE, current.priceFilter(facetQuery.getMinPrice(), facetQuery.getMaxPrice()));
+            }
+
+            RoaringBitmap matches = current.intersect(filters, null);
+            int total = matches.getCardinality();
+            int offset = (int) Math.min(pageable.getOffset(), total);
+            int end = Math.min(offset + pageable.getPageSize(), total);
+            List<String> ids = new ArrayList<>(end - offset);
+            for (int i = offset; i < end; i++) {
+                ids.add(current.productIds.get(matches.select(i)));
+            }
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                RoaringBitmap base = filters.containsKey(dimension) ? current.intersect(filters, dimension) : matches;
+                facets.put(dimension, current.counts(dimension, base));
+            }
+            return new FacetResult(total, ids, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a write to the live state and, while a rebuild runs, queue it for the new one.
+     */
+    private void write(Consumer<State> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(state);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String priceBand(long cents) {
+        int band = 0;
+        for (int i = 0; i < priceBands.length; i++) {
+            if (cents >= priceBands[i] * 100) {
+                band = i;
+            }
+        }
+        return bandLabel(band);
+    }
+
+    private String bandLabel(int band) {
+        return band + 1 < priceBands.length
+                ? priceBands[band] + "-" + priceBands[band + 1]
+                : priceBands[band] + "+";
+    }
+
+    private static String stockState(Integer stockQuantity, int lowStockThreshold) {
+        int quantity = stockQuantity != null ? stockQuantity : 0;
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return quantity <= lowStockThreshold ? LOW_STOCK : IN_STOCK;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+
+    /**
+     * Ordinals, postings and bitmaps of one build of the index.
+     */
+    private final class State {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> productIds = new ArrayList<>();
+        private final List<Map<String, Set<String>>> postings = new ArrayList<>();
+        private long[] priceCents = new long[1024];
+        private int[] lowStockThresholds = new int[1024];
+        private long[] versions = new long[1024];
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+
+        void index(Product product) {
+            Integer ordinal = ordinals.get(product.getId());
+            if (ordinal != null) {
+                if (product.getVersion() != null && product.getVersion() < versions[ordinal]) {
+                    return;
+                }
+                clear(ordinal);
+            }
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                if (ordinal != null && product.getVersion() != null) {
+                    versions[ordinal] = product.getVersion();
+                }
+                return;
+            }
+            if (ordinal == null) {
+                ordinal = productIds.size();
+                ordinals.put(product.getId(), ordinal);
+                productIds.add(product.getId());
+                postings.add(null);
+                ensureCapacity(ordinal);
+            }
+
+            long cents = product.getPrice() != null ? toCents(product.getPrice()) : 0L;
+            int threshold = product.getLowStockThreshold() != null ? product.getLowStockThreshold() : 0;
+            priceCents[ordinal] = cents;
+            lowStockThresholds[ordinal] = threshold;
+            versions[ordinal] = product.getVersion() != null ? product.getVersion() : Long.MIN_VALUE;
+
+            Map<String, Set<String>> values = new HashMap<>();
+            if (product.getCategoryId() != null) {
+                values.put(CATEGORY, Set.of(product.getCategoryId()));
+            }
+            if (product.getBrand() != null) {
+                values.put(BRAND, Set.of(product.getBrand()));
+            }
+            if (product.getTags() != null && !product.getTags().isEmpty()) {
+                values.put(TAG, Set.copyOf(product.getTags()));
+            }
+            values.put(PRICE, Set.of(priceBand(cents)));
+            values.put(STOCK, Set.of(stockState(product.getStockQuantity(), threshold)));
+
+            for (Map.Entry<String, Set<String>> entry : values.entrySet()) {
+                for (String value : entry.getValue()) {
+                    bitmap(entry.getKey(), value).add(ordinal);
+                }
+            }
+            postings.set(ordinal, new HashMap<>(values));
+            live.add(ordinal);
+        }
+
+        void remove(String productId) {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                clear(ordinal);
+            }
+        }
+
+        void updateStock(String productId, Integer stockQuantity, Long version) {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal == null || !live.contains(ordinal)) {
+                return;
+            }
+            if (version != null) {
+                if (version < versions[ordinal]) {
+                    return;
+                }
+                versions[ordinal] = version;
+            }
+            Map<String, Set<String>> values = postings.get(ordinal);
+            values.getOrDefault(STOCK, Set.of()).forEach(value -> bitmap(STOCK, value).remove(ordinal));
+            String state = stockState(stockQuantity, lowStockThresholds[ordinal]);
+            values.put(STOCK, Set.of(state));
+            bitmap(STOCK, state).add(ordinal);
+        }
+
+        void optimize() {
+            live.runOptimize();
+            bitmaps.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+        }
+
+        private void clear(int ordinal) {
+            Map<String, Set<String>> values = postings.get(ordinal);
+            if (values != null) {
+                values.forEach((dimension, dimensionValues) ->
+                        dimensionValues.forEach(value -> bitmap(dimension, value).remove(ordinal)));
+                postings.set(ordinal, null);
+            }
+            live.remove(ordinal);
+        }
+
+        void addValueFilter(Map<String, RoaringBitmap> filters, String dimension, Collection<String> selected) {
+            if (selected == null || selected.isEmpty()) {
+                return;
+            }
+            Map<String, RoaringBitmap> values = bitmaps.getOrDefault(dimension, Map.of());
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : selected) {
+                RoaringBitmap bitmap = values.get(value);
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            filters.put(dimension, union);
+        }
+
+        RoaringBitmap intersect(Map<String, RoaringBitmap> filters, String excludedDimension) {
+            RoaringBitmap result = live.clone();
+            filters.forEach((dimension, filter) -> {
+                if (!dimension.equals(excludedDimension)) {
+                    result.and(filter);
+                }
+            });
+            return result;
+        }
+
+        Map<String, Long> counts(String dimension, RoaringBitmap base) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            bitmaps.getOrDefault(dimension, Map.of()).entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), (long) RoaringBitmap.andCardinality(base, entry.getValue())))
+                    .filter(entry -> entry.getValue() > 0)
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(maxValuesPerFacet)
+                    .forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+            return counts;
+        }
+
+        /**
+         * Union of the price bands overlapping [min, max]; bands only partly inside the
+         * range are refined against the exact per-ordinal price.
+         */
+        RoaringBitmap priceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+            long min = minPrice != null ? toCents(minPrice) : Long.MIN_VALUE;
+            long max = maxPrice != null ? toCents(maxPrice) : Long.MAX_VALUE;
+            Map<String, RoaringBitmap> bands = bitmaps.getOrDefault(PRICE, Map.of());
+            RoaringBitmap result = new RoaringBitmap();
+            for (int i = 0; i < priceBands.length; i++) {
+                long low = priceBands[i] * 100;
+                long high = i + 1 < priceBands.length ? priceBands[i + 1] * 100 : Long.MAX_VALUE;
+                RoaringBitmap band = bands.get(bandLabel(i));
+                if (band == null || high <= min || low > max) {
+                    continue;
+                }
+                if (low >= min && high - 1 <= max) {
+                    result.or(band);
+                } else {
+                    band.forEach((int ordinal) -> {
+                        if (priceCents[ordinal] >= min && priceCents[ordinal] <= max) {
+                            result.add(ordinal);
+                        }
+                    });
+                }
+            }
+            return result;
+        }
+
+        private RoaringBitmap bitmap(String dimension, String value) {
+            return bitmaps.computeIfAbsent(dimension, d -> new HashMap<>())
+                    .computeIfAbsent(value, v -> new RoaringBitmap());
+        }
+
+        private void ensureCapacity(int ordinal) {
+            if (ordinal >= priceCents.length) {
+                int capacity = Math.max(ordinal + 1, priceCents.length * 2);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                lowStockThresholds = Arrays.copyOf(lowStockThresholds, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+        }
+    }
+}
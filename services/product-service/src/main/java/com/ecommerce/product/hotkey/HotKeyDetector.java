@@ -0,0 +1,109 @@
+package com.ecommerce.product.hotkey;
+
+import com.ecommerce.product.cache.HotKeyPins;
+import com.ecommerce.product.cache.TopKSketch;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming heavy-hitter detection over product reads by id. Reads are counted in a
+ * {@link TopKSketch} whose counts halve every decay interval, so the sketch reflects
+ * roughly the last few intervals of traffic. A product is hot while its decayed count is
+ * at least the configured share of all decayed reads (and at least {@code min-reads});
+ * the hot set is published to {@link HotKeyPins} on every detection run, which pins hot
+ * entries of the {@code products} cache in memory and releases the ones that cooled down.
+ * Detection is per instance; each instance pins what it serves most.
+ */
+@Component
+@Slf4j
+public class HotKeyDetector {
+
+    private final HotKeyPins pins;
+    private final boolean enabled;
+    private final TopKSketch sketch;
+    private final double share;
+    private final long minReads;
+    private final int maxHotKeys;
+
+    private volatile List<Map.Entry<String, Long>> hotKeys = List.of();
+    private volatile long recentReads;
+    private volatile long threshold;
+
+    public HotKeyDetector(HotKeyPins pins,
+                          MeterRegistry meterRegistry,
+                          @Value("${product.cache.hot-keys.enabled:true}") boolean enabled,
+                          @Value("${product.cache.hot-keys.sketch.tracked-keys:200}") int trackedKeys,
+                          @Value("${product.cache.hot-keys.sketch.width:16384}") int width,
+                          @Value("${product.cache.hot-keys.sketch.depth:4}") int depth,
+                          @Value("${product.cache.hot-keys.share:0.005}") double share,
+                          @Value("${product.cache.hot-keys.min-reads:100}") long minReads,
+                          @Value("${product.cache.hot-keys.max-keys:100}") int maxHotKeys) {
+        this.pins = pins;
+        this.enabled = enabled;
+        this.sketch = new TopKSketch(trackedKeys, width, depth);
+        this.share = share;
+        this.minReads = minReads;
+        this.maxHotKeys = maxHotKeys;
+        Gauge.builder("product.cache.hot-keys", this, detector -> detector.hotKeys.size())
+                .description("Product ids currently detected as hot")
+                .register(meterRegistry);
+        Gauge.builder("product.cache.hot-keys.pinned", pins, HotKeyPins::size)
+                .description("Hot product cache entries pinned in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count one read of a product by id.
+     */
+    public void record(String productId) {
+        if (enabled) {
+            sketch.add(productId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.hot-keys.detect-interval-ms:1000}")
+    public void detect() {
+        if (!enabled) {
+            return;
+        }
+        long reads = sketch.total();
+        long limit = Math.max(minReads, (long) Math.ceil(reads * share));
+        List<Map.Entry<String, Long>> next = sketch.top().stream()
+                .filter(entry -> entry.getValue() >= limit)
+                .limit(maxHotKeys)
+                .toList();
+        Set<String> keys = next.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+        if (log.isDebugEnabled() && !keys.equals(hotKeys.stream().map(Map.Entry::getKey).collect(Collectors.toSet()))) {
+            log.debug("Hot product ids changed: {}", keys);
+        }
+        hotKeys = next;
+        recentReads = reads;
+        threshold = limit;
+        pins.updateHotKeys(keys);
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.hot-keys.decay-interval-ms:10000}")
+    public void decay() {
+        if (enabled) {
+            sketch.decay();
+        }
+    }
+
+    public HotKeyReport report() {
+        long reads = recentReads;
+        List<HotKeyReport.HotKey> keys = hotKeys.stream()
+                .map(entry -> new HotKeyReport.HotKey(entry.getKey(), entry.getValue(),
+                        reads == 0 ? 0.0 : (double) entry.getValue() / reads, pins.isPinned(entry.getKey())))
+                .toList();
+        return new HotKeyReport(reads, threshold, pins.size(), keys);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.product.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Current hot product ids as seen by {@link HotKeyDetector}, hottest first. Read counts
+ * are decayed estimates, not exact totals.
+ */
+@Data
+@AllArgsConstructor
+public class HotKeyReport {
+
+    private long recentReads;
+    private long threshold;
+    private int pinned;
+    private List<HotKey> keys;
+
+    @Data
+    @AllArgsConstructor
+    public static class HotKey {
+
+        private String key;
+        private long estimatedReads;
+        private double share;
+        private boolean pinned;
+    }
+}
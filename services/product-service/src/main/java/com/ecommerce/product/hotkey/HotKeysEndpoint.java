@@ -0,0 +1,23 @@
+package com.ecommerce.product.hotkey;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/hotkeys}: the product ids this instance currently treats as hot and
+ * whether each is pinned in memory.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    @ReadOperation
+    public HotKeyReport hotKeys() {
+        return hotKeyDetector.report();
+    }
+}
@@ -0,0 +1,397 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.dto.FlashSaleStockResponse;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flash-sale mode for hot products. While a product is in this mode its product-level
+ * {@code stockQuantity} and {@code reservedQuantity} live in a Redis hash and are changed
+ * by Lua scripts that apply the same guards as the MongoDB path, so stock never goes
+ * negative; the MongoDB counters are frozen. The net change is accumulated alongside
+ * and a periodic reconciler adds it to the product document with one {@code $inc},
+ * publishing a single {@code PRODUCT_STOCK_UPDATED} event per product and interval.
+ * The reservation holds recorded on the product move to a Redis set for the duration,
+ * so holding and settling stay idempotent in this mode too.
+ * <p>
+ * Deltas being written back stay in the hash as a numbered pending batch until MongoDB
+ * has applied them, and the product records the last batch number it applied, so a
+ * failed or interrupted write-back is retried without being lost or counted twice.
+ * Enabling sets the MongoDB flag before creating the counters and disabling closes the
+ * counters before clearing the flag; both can be repeated after a failure, and the
+ * reconciler finishes a disable that stopped part-way.
+ * <p>
+ * Every instance keeps a local copy of the set of flash-sale products, refreshed by the
+ * reconciler; writes that reach MongoDB during a stale window are rejected by the
+ * {@code flashSale} guard and retried here.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlashSaleStockService {
+
+    private static final String PRODUCTS_KEY = "flash-sale:products";
+    private static final String STOCK_UPDATED = "PRODUCT_STOCK_UPDATED";
+
+    static final long CLOSING = -2;
+    static final long NOT_ENABLED = -1;
+    private static final long REJECTED = 0;
+
+    /**
+     * KEYS: counters, holds. ARGV: available, reserved, last applied write-back, holds...
+     * Creates the counters unless they exist. Returns 1 if created, 0 if they existed,
+     * {@link #CLOSING} if flash-sale mode is being left.
+     */
+    static final RedisScript<Long> INIT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                if redis.call('HEXISTS', KEYS[1], 'closing') == 1 then return -2 end
+                return 0
+            end
+            redis.call('DEL', KEYS[2])
+            for i = 4, #ARGV do redis.call('SADD', KEYS[2], ARGV[i]) end
+            redis.call('HSET', KEYS[1], 'available', ARGV[1], 'reserved', ARGV[2],
+                    'availableDelta', 0, 'reservedDelta', 0, 'seq', ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: counters, holds. ARGV: quantity, hold. Returns {status, available, reserved};
+     * status 2 if the hold was already taken.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> HOLD = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {-1, 0, 0} end
+            if redis.call('HEXISTS', KEYS[1], 'closing') == 1 then return {-2, 0, 0} end
+            local available = tonumber(redis.call('HGET', KEYS[1], 'available'))
+            local reserved = tonumber(redis.call('HGET', KEYS[1], 'reserved'))
+            if redis.call('SISMEMBER', KEYS[2], ARGV[2]) == 1 then return {2, available, reserved} end
+            local quantity = tonumber(ARGV[1])
+            if available < quantity then return {0, available, reserved} end
+            redis.call('HINCRBY', KEYS[1], 'available', -quantity)
+            redis.call('HINCRBY', KEYS[1], 'reserved', quantity)
+            redis.call('HINCRBY', KEYS[1], 'availableDelta', -quantity)
+            redis.call('HINCRBY', KEYS[1], 'reservedDelta', quantity)
+            redis.call('SADD', KEYS[2], ARGV[2])
+            return {1, available - quantity, reserved + quantity}
+            """, List.class);
+
+    /**
+     * KEYS: counters, holds. ARGV: available delta, reserved delta, hold. Returns
+     * {status, available, reserved}; status 2 if the hold was already settled.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SETTLE = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {-1, 0, 0} end
+            if redis.call('HEXISTS', KEYS[1], 'closing') == 1 then return {-2, 0, 0} end
+            local available = tonumber(redis.call('HGET', KEYS[1], 'available'))
+            local reserved = tonumber(redis.call('HGET', KEYS[1], 'reserved'))
+            if redis.call('SREM', KEYS[2], ARGV[3]) == 0 then return {2, available, reserved} end
+            local da = tonumber(ARGV[1])
+            local dr = tonumber(ARGV[2])
+            redis.call('HINCRBY', KEYS[1], 'available', da)
+            redis.call('HINCRBY', KEYS[1], 'reserved', dr)
+            redis.call('HINCRBY', KEYS[1], 'availableDelta', da)
+            redis.call('HINCRBY', KEYS[1], 'reservedDelta', dr)
+            return {1, available + da, reserved + dr}
+            """, List.class);
+
+    /**
+     * ARGV: new available quantity. Returns {status, available, reserved}.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SET_AVAILABLE = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {-1, 0, 0} end
+            if redis.call('HEXISTS', KEYS[1], 'closing') == 1 then return {-2, 0, 0} end
+            local da = tonumber(ARGV[1]) - tonumber(redis.call('HGET', KEYS[1], 'available'))
+            redis.call('HINCRBY', KEYS[1], 'available', da)
+            redis.call('HINCRBY', KEYS[1], 'availableDelta', da)
+            return {1, tonumber(ARGV[1]), tonumber(redis.call('HGET', KEYS[1], 'reserved'))}
+            """, List.class);
+
+    /**
+     * ARGV: '1' to close the counters (leave flash-sale mode), after which they no longer
+     * change. Returns {status, availableDelta, reservedDelta, seq, closing} of the pending
+     * write-back, moving the accumulated deltas into a new one numbered {@code seq} if
+     * none is pending; {@code seq} is 0 if there is nothing to write back.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> TAKE_DELTAS = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {-1, 0, 0, 0, 0} end
+            if ARGV[1] == '1' then redis.call('HSET', KEYS[1], 'closing', 1) end
+            local closing = redis.call('HEXISTS', KEYS[1], 'closing')
+            local pending = redis.call('HMGET', KEYS[1], 'pendingSeq', 'pendingAvailable', 'pendingReserved')
+            if pending[1] then
+                return {1, tonumber(pending[2]), tonumber(pending[3]), tonumber(pending[1]), closing}
+            end
+            local counters = redis.call('HMGET', KEYS[1], 'availableDelta', 'reservedDelta', 'seq')
+            local da = tonumber(counters[1])
+            local dr = tonumber(counters[2])
+            if da == 0 and dr == 0 then return {1, 0, 0, 0, closing} end
+            local seq = tonumber(counters[3]) + 1
+            redis.call('HSET', KEYS[1], 'availableDelta', 0, 'reservedDelta', 0, 'seq', seq,
+                    'pendingSeq', seq, 'pendingAvailable', da, 'pendingReserved', dr)
+            return {1, da, dr, seq, closing}
+            """, List.class);
+
+    /**
+     * Drop a pending write-back once MongoDB has applied it. ARGV: seq.
+     */
+    static final RedisScript<Long> ACK_DELTAS = RedisScript.of("""
+            if redis.call('HGET', KEYS[1], 'pendingSeq') == ARGV[1] then
+                redis.call('HDEL', KEYS[1], 'pendingSeq', 'pendingAvailable', 'pendingReserved')
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ProductCacheInvalidator cacheInvalidator;
+
+    private final Set<String> enabledProducts = ConcurrentHashMap.newKeySet();
+
+    public boolean isEnabled(String productId) {
+        return enabledProducts.contains(productId);
+    }
+
+    /**
+     * Ask Redis rather than the local copy, e.g. after MongoDB rejected a write.
+     */
+    public boolean checkEnabled(String productId) {
+        boolean enabled = Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(PRODUCTS_KEY, productId));
+        if (enabled) {
+            enabledProducts.add(productId);
+        } else {
+            enabledProducts.remove(productId);
+        }
+        return enabled;
+    }
+
+    /**
+     * Put a product into flash-sale mode. Fencing MongoDB comes first, so the counters
+     * copied from it no longer change; repeating the call completes an interrupted one.
+     */
+    public FlashSaleStockResponse enable(String productId) {
+        Product product = productRepository.startFlashSale(productId);
+        if (product == null) {
+            throw new ProductNotFoundException("Active product not found with id: " + productId);
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(quantity(product.getStockQuantity())));
+        args.add(String.valueOf(quantity(product.getReservedQuantity())));
+        args.add(String.valueOf(product.getFlashSaleSeq() != null ? product.getFlashSaleSeq() : 0));
+        if (product.getStockHolds() != null) {
+            args.addAll(product.getStockHolds());
+        }
+        List<Long> created = execute(INIT, productId, args.toArray(String[]::new));
+        if (created.get(0) == CLOSING) {
+            // A disable that stopped part-way cleared nothing yet; finish it and start over
+            disable(productId);
+            return enable(productId);
+        }
+        redisTemplate.opsForSet().add(PRODUCTS_KEY, productId);
+        enabledProducts.add(productId);
+        if (created.get(0) > REJECTED) {
+            cacheInvalidator.evictProduct(product.getId(), product.getSku());
+            log.info("Flash-sale mode enabled for product: {} with {} in stock", productId, product.getStockQuantity());
+        }
+        return getStock(productId);
+    }
+
+    /**
+     * Take a product out of flash-sale mode: close the counters, write every pending delta
+     * back, then clear the MongoDB flag together with the holds and drop the counters.
+     * The flag is cleared even when the counters are gone, e.g. after an interrupted
+     * enable; repeating the call completes an interrupted one.
+     */
+    public FlashSaleStockResponse disable(String productId) {
+        List<Long> taken;
+        do {
+            taken = execute(TAKE_DELTAS, productId, "1");
+            if (taken.get(3) != 0) {
+                writeBack(productId, taken);
+            }
+        } while (taken.get(3) != 0);
+
+        Set<String> holds = taken.get(0) != NOT_ENABLED ? redisTemplate.opsForSet().members(holdsKey(productId)) : null;
+        Product product = productRepository.endFlashSale(productId, holds);
+        redisTemplate.delete(List.of(stockKey(productId), holdsKey(productId)));
+        redisTemplate.opsForSet().remove(PRODUCTS_KEY, productId);
+        enabledProducts.remove(productId);
+        if (product != null) {
+            cacheInvalidator.evictProduct(product.getId(), product.getSku());
+            eventPublisher.publish(product, STOCK_UPDATED);
+            log.info("Flash-sale mode disabled for product: {}", productId);
+        }
+        return FlashSaleStockResponse.builder().productId(productId).enabled(false).build();
+    }
+
+    public FlashSaleStockResponse getStock(String productId) {
+        List<Object> counters = redisTemplate.opsForHash().multiGet(stockKey(productId), List.of("available",
+                "reserved", "availableDelta", "reservedDelta", "pendingAvailable", "pendingReserved"));
+        if (counters.get(0) == null) {
+            return FlashSaleStockResponse.builder().productId(productId).enabled(false).build();
+        }
+        return FlashSaleStockResponse.builder()
+                .productId(productId)
+                .enabled(true)
+                .availableQuantity(parse(counters.get(0)))
+                .reservedQuantity(parse(counters.get(1)))
+                .pendingAvailableDelta(parse(counters.get(2)) + parse(counters.get(4)))
+                .pendingReservedDelta(parse(counters.get(3)) + parse(counters.get(5)))
+                .build();
+    }
+
+    /**
+     * Counterpart of {@link ProductRepository#holdStock} for a product in flash-sale mode.
+     *
+     * @return the counters after the hold, also if it was already taken, or {@code null}
+     *         if the available stock does not cover it or the product is not in flash-sale
+     *         mode (then {@link #isEnabled} is false)
+     * @throws IllegalStateException if the product is leaving flash-sale mode; retry later
+     */
+    public Product hold(String productId, int quantity, String hold) {
+        List<Long> result = checkClosing(productId, execute(HOLD, productId, String.valueOf(quantity), hold));
+        if (result.get(0) == NOT_ENABLED) {
+            enabledProducts.remove(productId);
+        }
+        return result.get(0) > REJECTED ? toProduct(productId, result) : null;
+    }
+
+    /**
+     * Counterpart of {@link ProductRepository#settleHold} for a product in flash-sale mode.
+     *
+     * @return the counters after settling, also if the hold was already settled, or
+     *         {@code null} if the product is not in flash-sale mode
+     * @throws IllegalStateException if the product is leaving flash-sale mode; retry later
+     */
+    public Product settle(String productId, int availableDelta, int reservedDelta, String hold) {
+        List<Long> result = checkClosing(productId, execute(SETTLE, productId,
+                String.valueOf(availableDelta), String.valueOf(reservedDelta), hold));
+        if (result.get(0) == NOT_ENABLED) {
+            enabledProducts.remove(productId);
+            return null;
+        }
+        return toProduct(productId, result);
+    }
+
+    /**
+     * Overwrite the available stock of a product in flash-sale mode.
+     *
+     * @return whether the product was in flash-sale mode
+     * @throws IllegalStateException if the product is leaving flash-sale mode; retry later
+     */
+    public boolean setAvailable(String productId, int quantity) {
+        List<Long> result = checkClosing(productId, execute(SET_AVAILABLE, productId, String.valueOf(quantity)));
+        if (result.get(0) == NOT_ENABLED) {
+            enabledProducts.remove(productId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the accumulated deltas of every flash-sale product back to MongoDB and refresh
+     * the local set of flash-sale products. Safe to run on every instance: a write-back
+     * is applied to MongoDB at most once and dropped from Redis only after that.
+     */
+    @Scheduled(fixedDelayString = "${product.flash-sale.reconcile-interval-ms:500}")
+    public void reconcile() {
+        Set<String> members;
+        try {
+            members = redisTemplate.opsForSet().members(PRODUCTS_KEY);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read flash-sale products", e);
+            return;
+        }
+        Set<String> current = members != null ? members : Set.of();
+        enabledProducts.retainAll(current);
+        enabledProducts.addAll(current);
+
+        for (String productId : new HashSet<>(current)) {
+            try {
+                List<Long> taken = execute(TAKE_DELTAS, productId, "0");
+                if (taken.get(0) != NOT_ENABLED && taken.get(4) == 1) {
+                    log.info("Finishing interrupted disable of flash-sale mode for product: {}", productId);
+                    disable(productId);
+                } else if (taken.get(3) != 0) {
+                    writeBack(productId, taken);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile flash-sale stock of product: {}", productId, e);
+            }
+        }
+    }
+
+    /**
+     * Apply a pending write-back to MongoDB and then drop it from Redis. A failure leaves
+     * it pending for the next attempt.
+     */
+    private void writeBack(String productId, List<Long> taken) {
+        long seq = taken.get(3);
+        Product product = productRepository.applyStockDelta(
+                productId, Math.toIntExact(taken.get(1)), Math.toIntExact(taken.get(2)), seq);
+        execute(ACK_DELTAS, productId, String.valueOf(seq));
+        if (product == null) {
+            log.warn("Flash-sale write-back {} of product {} was already applied or the product is missing",
+                    seq, productId);
+            return;
+        }
+        cacheInvalidator.evictProduct(product.getId(), product.getSku());
+        eventPublisher.publish(product, STOCK_UPDATED);
+    }
+
+    private List<Long> checkClosing(String productId, List<Long> result) {
+        if (result.get(0) == CLOSING) {
+            throw new IllegalStateException("Flash-sale mode of product " + productId + " is being disabled");
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> execute(RedisScript<?> script, String productId, String... args) {
+        Object result = redisTemplate.execute(script, List.of(stockKey(productId), holdsKey(productId)), (Object[]) args);
+        return result instanceof List<?> list ? (List<Long>) list : List.of((Long) result);
+    }
+
+    private static Product toProduct(String productId, List<Long> result) {
+        return Product.builder()
+                .id(productId)
+                .stockQuantity(Math.toIntExact(result.get(1)))
+                .reservedQuantity(Math.toIntExact(result.get(2)))
+                .flashSale(true)
+                .build();
+    }
+
+    private static long parse(Object counter) {
+        return counter != null ? Long.parseLong((String) counter) : 0;
+    }
+
+    private static int quantity(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    static String stockKey(String productId) {
+        return "flash-sale:{" + productId + "}";
+    }
+
+    static String holdsKey(String productId) {
+        return stockKey(productId) + ":holds";
+    }
+}
@@ -0,0 +1,396 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.config.TaskExecutorConfig;
+import com.ecommerce.product.dto.StockReservationRequest;
+import com.ecommerce.product.dto.StockReservationResponse;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.InsufficientStockException;
+import com.ecommerce.product.exception.StockReservationNotFoundException;
+import com.ecommerce.product.exception.StockReservationStateException;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.StockReservation;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves, commits and releases stock with one guarded atomic update per line
+ * ({@code $inc} conditioned on the counter covering the quantity), never reading and
+ * rewriting the whole product. Reserving moves units from {@code stockQuantity} to
+ * {@code reservedQuantity}; committing drops them from {@code reservedQuantity}; releasing
+ * moves them back. Lines of a cart are applied concurrently, so a whole cart costs about
+ * one database round-trip; if any line cannot be covered, the lines already taken are
+ * given back and nothing is reserved.
+ * <p>
+ * Every line update records or removes the reservation id as a hold on the counters it
+ * changes, in the same atomic update, so it applies at most once however often it is
+ * retried. The reservation is saved as {@code PENDING} before any stock is held and
+ * closed through a transient status while its lines are settled; line updates whose
+ * outcome is unknown are retried, and failures are left to a retry of the call or to the
+ * periodic sweep, which expires reservations past their TTL and resumes closes that
+ * stopped part-way. Stock events carry the counters returned by the atomic update itself.
+ * Products in flash-sale mode are served from Redis by {@link FlashSaleStockService}.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private static final int EXPIRY_BATCH_SIZE = 100;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Set<StockReservation.Status> OPEN_STATUSES = EnumSet.of(
+            StockReservation.Status.PENDING, StockReservation.Status.RESERVED, StockReservation.Status.COMMITTING,
+            StockReservation.Status.RELEASING, StockReservation.Status.EXPIRING);
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final FlashSaleStockService flashSaleStock;
+    private final Executor executor;
+
+    @Value("${product.stock.reservation.default-ttl:15m}")
+    private Duration defaultTtl;
+
+    @Value("${product.stock.reservation.max-ttl:2h}")
+    private Duration maxTtl;
+
+    public StockReservationService(ProductRepository productRepository,
+                                   StockReservationRepository reservationRepository,
+                                   ProductEventPublisher eventPublisher,
+                                   ProductCacheInvalidator cacheInvalidator,
+                                   FlashSaleStockService flashSaleStock,
+                                   @Qualifier(TaskExecutorConfig.STOCK_RESERVATION_EXECUTOR) Executor executor) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheInvalidator = cacheInvalidator;
+        this.flashSaleStock = flashSaleStock;
+        this.executor = executor;
+    }
+
+    public StockReservationResponse reserve(StockReservationRequest request) {
+        List<StockReservation.Item> items = mergeItems(request.getItems());
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        if (ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation TTL cannot exceed " + maxTtl);
+        }
+        log.info("Reserving stock for {} items (reference: {})", items.size(), request.getReference());
+
+        StockReservation reservation = reservationRepository.save(StockReservation.builder()
+                .reference(request.getReference())
+                .items(items)
+                .status(StockReservation.Status.PENDING)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+
+        List<Product> results;
+        try {
+            results = applyAll(items, item -> retrying(item, () -> hold(reservation, item)));
+        } catch (RuntimeException e) {
+            abandon(reservation);
+            throw e;
+        }
+
+        List<StockReservation.Item> missing = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results.get(i) == null) {
+                missing.add(items.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            abandon(reservation);
+            throw new InsufficientStockException("Insufficient stock for " + missing.stream()
+                    .map(StockReservationService::describe)
+                    .collect(Collectors.joining(", ")));
+        }
+
+        if (reservationRepository.transition(reservation.getId(),
+                StockReservation.Status.PENDING, StockReservation.Status.RESERVED) == null) {
+            // The expiry sweep took it over; lines held after it settled them are still ours to give back
+            abandon(reservation);
+            throw new StockReservationStateException("Stock reservation " + reservation.getId()
+                    + " expired before its stock was held");
+        }
+        reservation.setStatus(StockReservation.Status.RESERVED);
+        stockChanged(results);
+        log.info("Stock reservation {} created", reservation.getId());
+        return mapToResponse(reservation);
+    }
+
+    public StockReservationResponse getReservation(String id) {
+        return reservationRepository.findById(id)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new StockReservationNotFoundException("Stock reservation not found with id: " + id));
+    }
+
+    /**
+     * Turn held units into sold units. A reservation past its TTL can still be committed
+     * until the expiry sweep has claimed it.
+     */
+    public StockReservationResponse commit(String id) {
+        return close(id, StockReservation.Status.COMMITTING, StockReservation.Status.COMMITTED);
+    }
+
+    public StockReservationResponse release(String id) {
+        return close(id, StockReservation.Status.RELEASING, StockReservation.Status.RELEASED);
+    }
+
+    /**
+     * Release reservations whose TTL has passed and finish closes that failed part-way.
+     * Safe to run on every instance: each reservation is claimed by one status transition
+     * and settling its lines is idempotent. A batch with failures ends the run, so the
+     * same reservations are retried on the next one.
+     */
+    @Scheduled(fixedDelayString = "${product.stock.reservation.expiry-sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        List<StockReservation> expired;
+        boolean failed = false;
+        do {
+            expired = reservationRepository.findByStatusInAndExpiresAtBefore(
+                    OPEN_STATUSES, LocalDateTime.now(), PageRequest.of(0, EXPIRY_BATCH_SIZE));
+            for (StockReservation reservation : expired) {
+                try {
+                    expire(reservation);
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.error("Failed to settle expired stock reservation {}", reservation.getId(), e);
+                }
+            }
+        } while (!failed && expired.size() == EXPIRY_BATCH_SIZE);
+    }
+
+    private void expire(StockReservation reservation) {
+        switch (reservation.getStatus()) {
+            case PENDING, RESERVED -> {
+                if (reservationRepository.transition(reservation.getId(),
+                        reservation.getStatus(), StockReservation.Status.EXPIRING) != null) {
+                    reservation.setStatus(StockReservation.Status.EXPIRING);
+                    settleAndClose(reservation, StockReservation.Status.EXPIRED);
+                }
+            }
+            case EXPIRING -> settleAndClose(reservation, StockReservation.Status.EXPIRED);
+            case COMMITTING -> settleAndClose(reservation, StockReservation.Status.COMMITTED);
+            case RELEASING -> settleAndClose(reservation, StockReservation.Status.RELEASED);
+            default -> {
+                // closed meanwhile
+            }
+        }
+    }
+
+    private StockReservationResponse close(String id, StockReservation.Status closing, StockReservation.Status closed) {
+        StockReservation reservation = reservationRepository.transition(id, StockReservation.Status.RESERVED, closing);
+        if (reservation == null) {
+            reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new StockReservationNotFoundException("Stock reservation not found with id: " + id));
+            if (reservation.getStatus() == closed) {
+                return mapToResponse(reservation);
+            }
+            if (reservation.getStatus() != closing) {
+                throw new StockReservationStateException("Stock reservation " + id + " is " + reservation.getStatus());
+            }
+            log.info("Resuming {} of stock reservation {}", closed, id);
+        }
+        reservation.setStatus(closing);
+        settleAndClose(reservation, closed);
+        return mapToResponse(reservation);
+    }
+
+    /**
+     * Settle every line of a reservation in a closing status and then move it to
+     * {@code closed}. Failures propagate with the reservation still in the closing status.
+     */
+    private void settleAndClose(StockReservation reservation, StockReservation.Status closed) {
+        boolean commit = closed == StockReservation.Status.COMMITTED;
+        List<Product> results = applyAll(reservation.getItems(), item -> retrying(item, () -> settle(reservation, item,
+                commit ? 0 : item.getQuantity(), -item.getQuantity())));
+        if (reservationRepository.transition(reservation.getId(), reservation.getStatus(), closed) != null) {
+            log.info("Stock reservation {} {}", reservation.getId(), closed);
+        }
+        reservation.setStatus(closed);
+        reservation.setClosedAt(LocalDateTime.now());
+        stockChanged(results);
+    }
+
+    /**
+     * Give back whatever a {@code PENDING} reservation holds and release it. A failure is
+     * left to the expiry sweep, so that the caller sees the original error.
+     */
+    private void abandon(StockReservation reservation) {
+        try {
+            List<Product> results = applyAll(reservation.getItems(), item -> retrying(item,
+                    () -> settle(reservation, item, item.getQuantity(), -item.getQuantity())));
+            reservationRepository.transition(reservation.getId(),
+                    StockReservation.Status.PENDING, StockReservation.Status.RELEASED);
+            stockChanged(results);
+        } catch (RuntimeException e) {
+            log.error("Failed to give back stock of reservation {}; leaving it to the expiry sweep",
+                    reservation.getId(), e);
+        }
+    }
+
+    /**
+     * Hold the units of one line for a reservation.
+     *
+     * @return the counters after the hold, also if an earlier attempt took it, or
+     *         {@code null} if the stock does not cover it
+     */
+    private Product hold(StockReservation reservation, StockReservation.Item item) {
+        String productId = item.getProductId();
+        boolean productLevel = item.getVariantId() == null;
+        if (productLevel && flashSaleStock.isEnabled(productId)) {
+            Product product = flashSaleStock.hold(productId, item.getQuantity(), reservation.getId());
+            if (product != null || flashSaleStock.isEnabled(productId)) {
+                return product;
+            }
+        }
+        Product product = productRepository.holdStock(productId, item.getVariantId(), item.getQuantity(),
+                reservation.getId());
+        if (product == null) {
+            product = productRepository.findStockWithHold(productId, item.getVariantId(), reservation.getId());
+        }
+        if (product == null && productLevel && flashSaleStock.checkEnabled(productId)) {
+            return flashSaleStock.hold(productId, item.getQuantity(), reservation.getId());
+        }
+        return product;
+    }
+
+    /**
+     * Apply the deltas that settle the hold of one line and remove the hold.
+     *
+     * @return the counters after settling, or {@code null} if there was no hold to settle
+     */
+    private Product settle(StockReservation reservation, StockReservation.Item item,
+                           int availableDelta, int reservedDelta) {
+        String productId = item.getProductId();
+        boolean productLevel = item.getVariantId() == null;
+        if (productLevel && flashSaleStock.isEnabled(productId)) {
+            Product product = flashSaleStock.settle(productId, availableDelta, reservedDelta, reservation.getId());
+            if (product != null) {
+                return product;
+            }
+        }
+        Product product = productRepository.settleHold(productId, item.getVariantId(), availableDelta, reservedDelta,
+                reservation.getId());
+        if (product != null) {
+            return product;
+        }
+        if (productLevel && flashSaleStock.checkEnabled(productId)) {
+            product = flashSaleStock.settle(productId, availableDelta, reservedDelta, reservation.getId());
+            if (product != null) {
+                return product;
+            }
+        }
+        if (productRepository.findStockWithHold(productId, item.getVariantId(), reservation.getId()) != null) {
+            // Held but fenced: the product is moving between MongoDB and flash-sale counters
+            throw new IllegalStateException("Stock of " + describe(item) + " is switching flash-sale mode");
+        }
+        return null;
+    }
+
+    private <T> T retrying(StockReservation.Item item, Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Stock update of {} failed (attempt {} of {}), retrying",
+                        describe(item), attempt, MAX_ATTEMPTS, e);
+            }
+        }
+    }
+
+    /**
+     * Run one operation per item concurrently; results are aligned with the items and
+     * {@code null} where the operation did not apply. Waits for every operation before
+     * rethrowing the first failure.
+     */
+    private List<Product> applyAll(List<StockReservation.Item> items,
+                                   Function<StockReservation.Item, Product> operation) {
+        if (items.size() == 1) {
+            return Collections.singletonList(operation.apply(items.get(0)));
+        }
+        List<CompletableFuture<Product>> futures = items.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> operation.apply(item), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Flash-sale counters are announced by {@link FlashSaleStockService#reconcile()} instead.
+     */
+    private void stockChanged(List<Product> results) {
+        List<Product> changed = results.stream()
+                .filter(Objects::nonNull)
+                .filter(product -> !Boolean.TRUE.equals(product.getFlashSale()))
+                .toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+        cacheInvalidator.evictProducts(changed);
+        eventPublisher.publishStockUpdates(changed);
+    }
+
+    private static List<StockReservation.Item> mergeItems(List<StockReservationRequest.Item> requested) {
+        Map<String, StockReservation.Item> merged = new LinkedHashMap<>();
+        for (StockReservationRequest.Item item : requested) {
+            merged.merge(item.getProductId() + "/" + item.getVariantId(),
+                    new StockReservation.Item(item.getProductId(), item.getVariantId(), item.getQuantity()),
+                    (first, second) -> {
+                        first.setQuantity(first.getQuantity() + second.getQuantity());
+                        return first;
+                    });
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private static String describe(StockReservation.Item item) {
+        return item.getVariantId() != null
+                ? "product " + item.getProductId() + " variant " + item.getVariantId()
+                : "product " + item.getProductId();
+    }
+
+    private StockReservationResponse mapToResponse(StockReservation reservation) {
+        return StockReservationResponse.builder()
+                .id(reservation.getId())
+                .reference(reservation.getReference())
+                .items(reservation.getItems())
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .closedAt(reservation.getClosedAt())
+                .build();
+    }
+}
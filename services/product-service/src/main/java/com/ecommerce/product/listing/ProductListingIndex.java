@@ -0,0 +1,405 @@
+package com.ecommerce.product.listing;
+
+import com.ecommerce.product.cache.ProductETags;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Materialized featured and per-category listings, newest first (by {@code createdAt},
+ * then id), held in memory so that listing pages need no MongoDB query.
+ * <p>
+ * Each listing is an immutable sorted array of keys, swapped on write, so readers take a
+ * page by offset without locking in O(pageSize). Writes are serialized; a product
+ * entering, leaving or moving between listings costs a binary search and one array copy
+ * of the affected listings, while price or stock changes only replace the product's tile
+ * in the summary map. The index is rebuilt from MongoDB on start-up and kept current
+ * from {@code product-events} by {@link com.ecommerce.product.event.ProductEventBroadcastListener}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductListingIndex {
+
+    private static final String[] FIELDS = {"id", "sku", "name", "price", "compareAtPrice", "currency",
+            "primaryImageUrl", "averageRating", "reviewCount", "stockQuantity", "categoryId", "featured",
+            "createdAt", "active", "version"};
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Object writeLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+    private volatile State state = new State();
+    private List<Consumer<State>> pendingWrites;
+    private volatile boolean ready;
+
+    /**
+     * Rebuild all listings from MongoDB, streaming active products through a cursor into
+     * a new set of listings while readers and writers keep using the current one. Writes
+     * that arrive meanwhile are applied to both, and the new set is swapped in at the end.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        log.info("Rebuilding product listing index");
+        long started = System.currentTimeMillis();
+        synchronized (writeLock) {
+            pendingWrites = new ArrayList<>();
+        }
+        try {
+            State next = new State();
+            List<Key> featuredKeys = new ArrayList<>();
+            Map<String, List<Key>> categoryKeys = new HashMap<>();
+            Query query = Query.query(Criteria.where("active").is(true));
+            query.fields().include(FIELDS);
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    Placement placement = Placement.of(product);
+                    next.placements.put(product.getId(), placement);
+                    next.summaries.put(product.getId(), ProductSummary.of(product));
+                    next.trackVersion(product);
+                    if (placement.featured) {
+                        featuredKeys.add(placement.key);
+                    }
+                    if (placement.categoryId != null) {
+                        categoryKeys.computeIfAbsent(placement.categoryId, id -> new ArrayList<>()).add(placement.key);
+                    }
+                }
+            }
+            next.featured = Listing.of(featuredKeys);
+            categoryKeys.forEach((categoryId, keys) -> next.categories.put(categoryId, Listing.of(keys)));
+            synchronized (writeLock) {
+                pendingWrites.forEach(write -> write.accept(next));
+                state = next;
+                version.incrementAndGet();
+                ready = true;
+            }
+            log.info("Product listing index rebuilt with {} products in {} categories in {} ms",
+                    next.placements.size(), next.categories.size(), System.currentTimeMillis() - started);
+        } finally {
+            synchronized (writeLock) {
+                pendingWrites = null;
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tag of the current listing state. It is local to this instance, which rebuilds and
+     * updates its listings independently of the others.
+     */
+    public String etag() {
+        return ProductETags.forListingIndex(instanceId, version.get());
+    }
+
+    public List<ProductSummary> getFeatured() {
+        State current = state;
+        Listing listing = current.featured;
+        return listing.page(0, listing.size(), current.summaries);
+    }
+
+    public Page<ProductSummary> getCategory(String categoryId, Pageable pageable) {
+        State current = state;
+        Listing listing = current.categories.getOrDefault(categoryId, Listing.EMPTY);
+        List<ProductSummary> content = listing.page(
+                (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE), pageable.getPageSize(), current.summaries);
+        return new PageImpl<>(content, pageable, listing.size());
+    }
+
+    /**
+     * Add or replace a product; inactive products are removed instead.
+     */
+    public void index(Product product) {
+        write(next -> next.index(product));
+    }
+
+    public void remove(String productId) {
+        write(next -> next.remove(productId));
+    }
+
+    /**
+     * Update the stock shown on a product's tile without reloading it. Updates older than
+     * the listed document version are ignored; a {@code null} version always applies.
+     */
+    public void updateStock(String productId, Integer stockQuantity, Long productVersion) {
+        write(next -> next.updateStock(productId, stockQuantity, productVersion));
+    }
+
+    /**
+     * Apply a write to the current listings and, while a rebuild runs, queue it for the
+     * listings being built.
+     */
+    private void write(Predicate<State> write) {
+        synchronized (writeLock) {
+            if (write.test(state)) {
+                version.incrementAndGet();
+            }
+            if (pendingWrites != null) {
+                pendingWrites.add(write::test);
+            }
+        }
+    }
+
+    /**
+     * One complete set of listings. Writes are serialized by the caller; readers see the
+     * immutable listings and the concurrent summary map without locking.
+     */
+    private static final class State {
+
+        private final Map<String, ProductSummary> summaries = new ConcurrentHashMap<>();
+        private final Map<String, Placement> placements = new HashMap<>();
+        private final Map<String, Long> versions = new HashMap<>();
+        private final Map<String, Listing> categories = new ConcurrentHashMap<>();
+        private volatile Listing featured = Listing.EMPTY;
+
+        /**
+         * @return whether the listings changed
+         */
+        boolean index(Product product) {
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                return remove(product.getId());
+            }
+            Long listed = versions.get(product.getId());
+            if (product.getVersion() != null && listed != null && product.getVersion() < listed) {
+                return false;
+            }
+            Placement next = Placement.of(product);
+            Placement previous = placements.put(product.getId(), next);
+            summaries.put(product.getId(), ProductSummary.of(product));
+            trackVersion(product);
+            if (!next.equals(previous)) {
+                unplace(previous);
+                place(next);
+            }
+            return true;
+        }
+
+        boolean remove(String productId) {
+            Placement previous = placements.remove(productId);
+            summaries.remove(productId);
+            versions.remove(productId);
+            if (previous == null) {
+                return false;
+            }
+            unplace(previous);
+            return true;
+        }
+
+        boolean updateStock(String productId, Integer stockQuantity, Long productVersion) {
+            ProductSummary current = summaries.get(productId);
+            if (current == null) {
+                return false;
+            }
+            if (productVersion != null) {
+                Long listed = versions.get(productId);
+                if (listed != null && productVersion < listed) {
+                    return false;
+                }
+                versions.put(productId, productVersion);
+            }
+            if (Objects.equals(current.getStockQuantity(), stockQuantity)) {
+                return false;
+            }
+            summaries.put(productId, ProductSummary.builder()
+                    .id(current.getId())
+                    .sku(current.getSku())
+                    .name(current.getName())
+                    .price(current.getPrice())
+                    .compareAtPrice(current.getCompareAtPrice())
+                    .currency(current.getCurrency())
+                    .primaryImageUrl(current.getPrimaryImageUrl())
+                    .averageRating(current.getAverageRating())
+                    .reviewCount(current.getReviewCount())
+                    .stockQuantity(stockQuantity)
+                    .build());
+            return true;
+        }
+
+        void trackVersion(Product product) {
+            if (product.getVersion() != null) {
+                versions.put(product.getId(), product.getVersion());
+            } else {
+                versions.remove(product.getId());
+            }
+        }
+
+        private void place(Placement placement) {
+            if (placement.featured) {
+                featured = featured.with(placement.key);
+            }
+            if (placement.categoryId != null) {
+                categories.compute(placement.categoryId,
+                        (id, listing) -> (listing != null ? listing : Listing.EMPTY).with(placement.key));
+            }
+        }
+
+        private void unplace(Placement placement) {
+            if (placement == null) {
+                return;
+            }
+            if (placement.featured) {
+                featured = featured.without(placement.key);
+            }
+            if (placement.categoryId != null) {
+                categories.computeIfPresent(placement.categoryId, (id, listing) -> {
+                    Listing remaining = listing.without(placement.key);
+                    return remaining.size() > 0 ? remaining : null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Sort key of a product: newest first, ties broken by descending id.
+     */
+    private static final class Key implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator
+                .comparing((Key key) -> key.createdAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(key -> key.id)
+                .reversed();
+
+        private final LocalDateTime createdAt;
+        private final String id;
+
+        Key(LocalDateTime createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(createdAt, other.createdAt) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(createdAt, id);
+        }
+    }
+
+    /**
+     * Where a product appears: its category listing and, if featured, the featured one.
+     */
+    private static final class Placement {
+
+        private final String categoryId;
+        private final boolean featured;
+        private final Key key;
+
+        private Placement(String categoryId, boolean featured, Key key) {
+            this.categoryId = categoryId;
+            this.featured = featured;
+            this.key = key;
+        }
+
+        static Placement of(Product product) {
+            return new Placement(product.getCategoryId(), Boolean.TRUE.equals(product.getFeatured()),
+                    new Key(product.getCreatedAt(), product.getId()));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Placement other && featured == other.featured
+                    && Objects.equals(categoryId, other.categoryId) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryId, featured, key);
+        }
+    }
+
+    /**
+     * Immutable sorted array of keys; every change returns a new listing.
+     */
+    private static final class Listing {
+
+        static final Listing EMPTY = new Listing(new Key[0]);
+
+        private final Key[] keys;
+
+        private Listing(Key[] keys) {
+            this.keys = keys;
+        }
+
+        static Listing of(List<Key> keys) {
+            Key[] sorted = keys.toArray(new Key[0]);
+            Arrays.sort(sorted);
+            return new Listing(sorted);
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        Listing with(Key key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return this;
+            }
+            int insertAt = -index - 1;
+            Key[] next = new Key[keys.length + 1];
+            System.arraycopy(keys, 0, next, 0, insertAt);
+            next[insertAt] = key;
+            System.arraycopy(keys, insertAt, next, insertAt + 1, keys.length - insertAt);
+            return new Listing(next);
+        }
+
+        Listing without(Key key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return this;
+            }
+            Key[] next = new Key[keys.length - 1];
+            System.arraycopy(keys, 0, next, 0, index);
+            System.arraycopy(keys, index + 1, next, index, keys.length - index - 1);
+            return new Listing(next);
+        }
+
+        List<ProductSummary> page(int offset, int size, Map<String, ProductSummary> summaries) {
+            int end = (int) Math.min((long) offset + size, keys.length);
+            List<ProductSummary> page = new ArrayList<>(Math.max(0, end - offset));
+            for (int i = offset; i < end; i++) {
+                ProductSummary summary = summaries.get(keys[i].id);
+                if (summary != null) {
+                    page.add(summary);
+                }
+            }
+            return page;
+        }
+    }
+}
@@ -7,8 +7,11 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,6 +26,11 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndexes({
+    @CompoundIndex(name = "active_createdAt_id", def = "{'active': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "active_name_id", def = "{'active': 1, 'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "category_active_createdAt_id", def = "{'categoryId': 1, 'active': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Product {
 
     @Id
@@ -49,6 +57,8 @@ public class Product {
 
     private Integer stockQuantity;
 
+    private Integer reservedQuantity;
+
     private Integer lowStockThreshold;
 
     private String brand;
@@ -71,6 +81,15 @@ public class Product {
 
     private Boolean featured;
 
+    private Boolean flashSale; // stock counters are held in Redis while true
+
+    private List<String> stockHolds; // reservations currently held against the product-level counters
+
+    private Long flashSaleSeq; // last flash-sale write-back applied to the counters
+
+    @Version
+    private Long version; // also advanced by every atomic update; drives ETags
+
     @CreatedDate
     private LocalDateTime createdAt;
 
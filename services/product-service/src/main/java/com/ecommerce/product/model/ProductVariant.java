@@ -1,11 +1,13 @@
 package com.ecommerce.product.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +26,9 @@ public class ProductVariant {
     private BigDecimal price;
     private BigDecimal compareAtPrice;
     private Integer stockQuantity;
+    private Integer reservedQuantity;
+    @JsonIgnore
+    private List<String> stockHolds; // reservations currently held against this variant's counters
     private String imageUrl;
     private Boolean available;
 }
@@ -0,0 +1,68 @@
+package com.ecommerce.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock held for a cart or order until it is committed, released or expires.
+ * Closed reservations are kept for a week for auditing.
+ * <p>
+ * A reservation is saved as {@code PENDING} before any stock is held for it and only
+ * becomes {@code RESERVED} once every line is held, so a crash in between leaves a record
+ * that the expiry sweep finds. Closing moves it through a transient status
+ * ({@code COMMITTING}, {@code RELEASING}, {@code EXPIRING}) while its lines are settled,
+ * which a retry or the sweep resumes after a failure.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_reservations")
+@CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}")
+public class StockReservation {
+
+    @Id
+    private String id;
+
+    private String reference; // e.g. order or cart id
+
+    private List<Item> items;
+
+    private Status status;
+
+    private LocalDateTime expiresAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @Indexed(name = "closedAt_ttl", expireAfterSeconds = 604800)
+    private LocalDateTime closedAt;
+
+    public enum Status {
+        PENDING, RESERVED, COMMITTING, RELEASING, EXPIRING, COMMITTED, RELEASED, EXPIRED;
+
+        public boolean isFinal() {
+            return this == COMMITTED || this == RELEASED || this == EXPIRED;
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String productId;
+        private String variantId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.product.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka record waiting to be relayed. Written next to the entity change it describes
+ * and removed by {@link OutboxRelay} once the broker has acknowledged it. Batches are
+ * picked in {@code sequence} order and the records of one key are delivered in
+ * {@code keySequence} order; {@code createdAt} is informational.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox_events")
+@CompoundIndex(name = "sequence_id", def = "{'sequence': 1, '_id': 1}")
+@CompoundIndex(name = "key_sequence", def = "{'messageKey': 1, 'keySequence': 1}")
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    private Long sequence; // assigned by OutboxWriter from a MongoDB counter
+
+    private Long keySequence; // per messageKey, assigned in the writing transaction
+
+    private String topic;
+
+    private String messageKey;
+
+    private Object payload;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,229 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.coordination.MongoLeases;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka. One instance at a time holds a lease in
+ * {@code outbox_relay_leases} and sends records in {@code sequence} order, a batch
+ * at a time: the whole batch is handed to the producer, flushed, and the acknowledged
+ * prefix is deleted. Within a batch the records of a key are sent in their
+ * {@code keySequence} order (see {@link OutboxWriter}), never ahead of an earlier record
+ * of the same key, and the last relayed number of each key is kept next to its counter. A failed send stops the run so that later records are retried in
+ * order on the next one. Delivery is at least once; a crash between the broker
+ * acknowledgement and the delete re-sends the records.
+ * <p>
+ * The lease is renewed before every batch and checked again before the delete, and a
+ * batch never waits on the producer for longer than the send timeout. Start-up fails
+ * unless both the send timeout and the producer's {@code delivery.timeout.ms} stay well
+ * under the lease TTL, so no other instance can take over while a batch is in flight.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private static final String LEASE_COLLECTION = "outbox_relay_leases";
+    private static final String LEASE_ID = "product-outbox";
+    private static final long DEFAULT_DELIVERY_TIMEOUT_MS = 120_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MongoLeases leases;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${product.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${product.outbox.send-timeout:5s}")
+    private Duration sendTimeout;
+
+    @Value("${product.outbox.lease-ttl:30s}")
+    private Duration leaseTtl;
+
+    @PostConstruct
+    public void checkTimeouts() {
+        Object configured = kafkaTemplate.getProducerFactory().getConfigurationProperties()
+                .get(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG);
+        Duration deliveryTimeout = configured != null
+                ? Duration.ofMillis(Long.parseLong(configured.toString()))
+                : Duration.ofMillis(DEFAULT_DELIVERY_TIMEOUT_MS);
+        Duration budget = leaseTtl.dividedBy(2);
+        if (sendTimeout.compareTo(budget) > 0 || deliveryTimeout.compareTo(budget) > 0) {
+            throw new IllegalStateException("product.outbox.send-timeout (" + sendTimeout
+                    + ") and the producer delivery.timeout.ms (" + deliveryTimeout
+                    + ") must not exceed half of product.outbox.lease-ttl (" + leaseTtl + ")");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay-interval-ms:100}")
+    public void relay() {
+        for (int run = 0; run < maxBatchesPerRun && acquireLease(); run++) {
+            Query query = new Query()
+                    .with(Sort.by(Sort.Direction.ASC, "sequence", "_id"))
+                    .limit(batchSize);
+            List<OutboxEvent> batch = mongoTemplate.find(query, OutboxEvent.class);
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<OutboxEvent> stale = new ArrayList<>();
+            List<OutboxEvent> ready = inKeyOrder(batch, stale);
+            int sent = send(ready);
+            if (!acquireLease()) {
+                log.warn("Outbox relay lost its lease while sending, leaving {} sent events to the new holder", sent);
+                return;
+            }
+            List<OutboxEvent> relayed = ready.subList(0, sent);
+            if (!relayed.isEmpty() || !stale.isEmpty()) {
+                markRelayed(relayed);
+                List<String> ids = new ArrayList<>(relayed.size() + stale.size());
+                relayed.forEach(event -> ids.add(event.getId()));
+                stale.forEach(event -> ids.add(event.getId()));
+                mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), OutboxEvent.class);
+                log.debug("Relayed {} outbox events", sent);
+            }
+            if (sent < ready.size() || ready.size() + stale.size() < batch.size() || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Order a batch for sending: the records of each key by {@code keySequence}, starting
+     * right after the last one relayed. Predecessors that sort outside the batch are
+     * loaded; records already relayed (the delete did not happen) go to {@code stale};
+     * a key with a gap is held back from the gap on.
+     */
+    private List<OutboxEvent> inKeyOrder(List<OutboxEvent> batch, List<OutboxEvent> stale) {
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        List<OutboxEvent> ready = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (event.getMessageKey() == null || event.getKeySequence() == null) {
+                ready.add(event);
+            } else {
+                byKey.computeIfAbsent(event.getMessageKey(), key -> new ArrayList<>()).add(event);
+            }
+        }
+        if (byKey.isEmpty()) {
+            return ready;
+        }
+        Map<String, Long> lastRelayed = new HashMap<>();
+        mongoTemplate.find(new Query(Criteria.where("_id").in(byKey.keySet())), Document.class,
+                        OutboxWriter.KEY_SEQUENCE_COLLECTION)
+                .forEach(counter -> lastRelayed.put(counter.getString("_id"),
+                        counter.get("relayed") instanceof Number relayed ? relayed.longValue() : 0L));
+
+        byKey.forEach((key, events) -> {
+            events.sort(Comparator.comparing(OutboxEvent::getKeySequence));
+            long expected = lastRelayed.getOrDefault(key, 0L) + 1;
+            if (events.get(0).getKeySequence() > expected) {
+                List<OutboxEvent> predecessors = mongoTemplate.find(new Query(Criteria.where("messageKey").is(key)
+                                .and("keySequence").gte(expected).lt(events.get(0).getKeySequence()))
+                        .with(Sort.by(Sort.Direction.ASC, "keySequence")), OutboxEvent.class);
+                events.addAll(0, predecessors);
+            }
+            for (OutboxEvent event : events) {
+                if (event.getKeySequence() < expected) {
+                    stale.add(event);
+                } else if (event.getKeySequence() == expected) {
+                    ready.add(event);
+                    expected++;
+                } else {
+                    log.warn("Outbox relay is holding back events of key {} from {}, waiting for {}",
+                            key, event.getKeySequence(), expected);
+                    break;
+                }
+            }
+        });
+        return ready;
+    }
+
+    /**
+     * Record the last relayed {@code keySequence} of every key, before the records go.
+     */
+    private void markRelayed(List<OutboxEvent> relayed) {
+        Map<String, Long> last = new HashMap<>();
+        relayed.stream()
+                .filter(event -> event.getMessageKey() != null && event.getKeySequence() != null)
+                .forEach(event -> last.merge(event.getMessageKey(), event.getKeySequence(), Math::max));
+        if (last.isEmpty()) {
+            return;
+        }
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                OutboxWriter.KEY_SEQUENCE_COLLECTION);
+        last.forEach((key, keySequence) ->
+                updates.updateOne(new Query(Criteria.where("_id").is(key)), new Update().max("relayed", keySequence)));
+        updates.execute();
+    }
+
+    /**
+     * @return length of the prefix of {@code batch} the broker acknowledged
+     */
+    private int send(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        try {
+            for (OutboxEvent event : batch) {
+                futures.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay could not hand event {} to the producer", batch.get(futures.size()).getId(), e);
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Outbox relay failed to send event {}, retrying from it on the next run",
+                        batch.get(i).getId(), e);
+                return i;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            }
+        }
+        return futures.size();
+    }
+
+    private boolean acquireLease() {
+        return leases.tryAcquire(LEASE_COLLECTION, LEASE_ID, owner, leaseTtl);
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        leases.release(LEASE_COLLECTION, LEASE_ID, owner);
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.product.outbox;
+
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Appends records to the outbox. Inside a transaction managed by a
+ * {@code MongoTransactionManager} the insert commits or aborts together with the
+ * caller's entity writes; callers without a transaction get one of their own. The Kafka
+ * send itself happens later in {@link OutboxRelay}. Start-up fails when the outbox is in
+ * use and transactions are not enabled.
+ * <p>
+ * Every record gets two numbers. The {@code sequence} comes from a shared counter
+ * incremented outside the caller's transaction, so that concurrent transactions do not
+ * conflict on it; the relay picks its batches in that order. The {@code keySequence}
+ * comes from a per-key counter in {@code outbox_key_sequences} incremented inside the
+ * transaction, so it is assigned atomically with the record and numbers the records of
+ * one key without gaps in commit order. The relay delivers each key in that order.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    static final String SEQUENCE_COLLECTION = "outbox_sequences";
+    static final String SEQUENCE_ID = "outbox_events";
+    static final String KEY_SEQUENCE_COLLECTION = "outbox_key_sequences";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<MongoTransactionManager> transactionManager;
+
+    @Value("${product.change-stream.enabled:false}")
+    private boolean changeStreamEnabled;
+
+    @PostConstruct
+    public void requireTransactions() {
+        if (!changeStreamEnabled && transactionManager.getIfAvailable() == null) {
+            throw new IllegalStateException("The product outbox needs MongoDB transactions: set "
+                    + "product.mongodb.transactions.enabled=true (requires a replica set), "
+                    + "or publish from the change stream with product.change-stream.enabled=true");
+        }
+    }
+
+    public void append(String topic, String key, Object payload) {
+        inTransaction(() -> {
+            long sequence = nextSequences(1);
+            Long keySequence = key != null ? nextKeySequences(Map.of(key, 1)).get(key) : null;
+            mongoTemplate.insert(event(topic, key, payload, sequence, keySequence, LocalDateTime.now()));
+        });
+    }
+
+    /**
+     * Append several records with one insert, keeping their order.
+     */
+    public <T> void appendAll(String topic, List<T> payloads, Function<T, String> key) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        inTransaction(() -> {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            payloads.stream().map(key).filter(k -> k != null).forEach(k -> counts.merge(k, 1, Integer::sum));
+            Map<String, Long> keySequences = counts.isEmpty() ? new HashMap<>() : nextKeySequences(counts);
+            long sequence = nextSequences(payloads.size());
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = new ArrayList<>(payloads.size());
+            for (T payload : payloads) {
+                String messageKey = key.apply(payload);
+                Long keySequence = messageKey != null ? keySequences.merge(messageKey, 1L, Long::sum) - 1 : null;
+                events.add(event(topic, messageKey, payload, sequence++, keySequence, now));
+            }
+            mongoTemplate.insert(events, OutboxEvent.class);
+        });
+    }
+
+    /**
+     * Reserve {@code count} consecutive sequence numbers with one atomic increment.
+     *
+     * @return the first reserved number
+     */
+    private long nextSequences(int count) {
+        // Not session-bound, so the increment is not part of the caller's transaction
+        Document counter = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase()
+                .getCollection(SEQUENCE_COLLECTION)
+                .findOneAndUpdate(Filters.eq("_id", SEQUENCE_ID), Updates.inc("value", (long) count),
+                        new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return counter.getLong("value") - count + 1;
+    }
+
+    /**
+     * Reserve consecutive numbers per key in the caller's transaction; a concurrent
+     * transaction writing the same key conflicts on its counter.
+     *
+     * @return the first reserved number of every key
+     */
+    private Map<String, Long> nextKeySequences(Map<String, Integer> counts) {
+        Map<String, Long> first = new HashMap<>();
+        if (counts.size() == 1) {
+            Map.Entry<String, Integer> entry = counts.entrySet().iterator().next();
+            Document counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(entry.getKey())),
+                    new Update().inc("value", (long) entry.getValue()),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, KEY_SEQUENCE_COLLECTION);
+            first.put(entry.getKey(), counter.get("value", Number.class).longValue() - entry.getValue() + 1);
+            return first;
+        }
+        BulkOperations increments = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, KEY_SEQUENCE_COLLECTION);
+        counts.forEach((key, count) ->
+                increments.upsert(Query.query(Criteria.where("_id").is(key)), new Update().inc("value", (long) count)));
+        increments.execute();
+        mongoTemplate.find(Query.query(Criteria.where("_id").in(counts.keySet())), Document.class, KEY_SEQUENCE_COLLECTION)
+                .forEach(counter -> {
+                    String key = counter.getString("_id");
+                    first.put(key, counter.get("value", Number.class).longValue() - counts.get(key) + 1);
+                });
+        return first;
+    }
+
+    private void inTransaction(Runnable write) {
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        if (manager == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            write.run();
+            return;
+        }
+        new TransactionTemplate(manager).executeWithoutResult(status -> write.run());
+    }
+
+    private static OutboxEvent event(String topic, String key, Object payload, long sequence, Long keySequence,
+                                     LocalDateTime createdAt) {
+        return OutboxEvent.builder()
+                .sequence(sequence)
+                .keySequence(keySequence)
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .createdAt(createdAt)
+                .build();
+    }
+}
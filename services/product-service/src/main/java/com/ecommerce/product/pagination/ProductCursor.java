@@ -0,0 +1,56 @@
+package com.ecommerce.product.pagination;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination. It carries the sort key and direction
+ * it was issued for together with the sort value and id of the last returned element,
+ * so the next page starts strictly after that element without skipping or counting.
+ * A {@code null} sort value (a product without the sort field) is encoded by leaving the
+ * value out, so that it cannot be confused with any string value.
+ */
+@Value
+public class ProductCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    String sortBy;
+    Sort.Direction direction;
+    String lastId;
+    String lastValue;
+
+    public String encode() {
+        String raw = lastValue == null
+                ? String.join(SEPARATOR, sortBy, direction.name(), lastId)
+                : String.join(SEPARATOR, sortBy, direction.name(), lastId, lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new ProductCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[2],
+                    parts.length == 4 ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Reject a cursor that was issued for a different ordering.
+     */
+    public ProductCursor requireOrdering(String expectedSortBy, Sort.Direction expectedDirection) {
+        if (!sortBy.equals(expectedSortBy) || direction != expectedDirection) {
+            throw new IllegalArgumentException("Cursor was issued for sort " + sortBy + " " + direction);
+        }
+        return this;
+    }
+}
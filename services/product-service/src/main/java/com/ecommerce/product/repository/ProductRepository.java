@@ -1,5 +1,6 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.product.dto.ProductSummary;
 import com.ecommerce.product.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,23 +17,30 @@ import java.util.Optional;
  * Repository for Product entity.
  */
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
 
     Optional<Product> findBySku(String sku);
 
-    Page<Product> findByActiveTrue(Pageable pageable);
+    Page<ProductSummary> findByActiveTrue(Pageable pageable);
 
-    Page<Product> findByCategoryIdAndActiveTrue(String categoryId, Pageable pageable);
+    Page<ProductSummary> findByCategoryIdAndActiveTrue(String categoryId, Pageable pageable);
 
-    Page<Product> findByNameContainingIgnoreCaseAndActiveTrue(String name, Pageable pageable);
+    Page<ProductSummary> findByCategoryIdInAndActiveTrue(Collection<String> categoryIds, Pageable pageable);
 
-    List<Product> findByFeaturedTrueAndActiveTrueOrderByCreatedAtDesc();
+    Page<ProductSummary> findByNameContainingIgnoreCaseAndActiveTrue(String name, Pageable pageable);
+
+    List<ProductSummary> findByFeaturedTrueAndActiveTrueOrderByCreatedAtDesc();
+
+    List<ProductSummary> findSummariesByIdIn(Collection<String> ids);
 
     Page<Product> findByPriceBetweenAndActiveTrue(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
     @Query("{ 'tags': { $in: ?0 }, 'active': true }")
     Page<Product> findByTagsInAndActiveTrue(List<String> tags, Pageable pageable);
 
+    @Query(value = "{ 'sku': { $in: ?0 } }", fields = "{ '_id': 1, 'sku': 1 }")
+    List<Product> findIdAndSkuBySkuIn(Collection<String> skus);
+
     Long countByActiveTrue();
 
     Long countByCategoryId(String categoryId);
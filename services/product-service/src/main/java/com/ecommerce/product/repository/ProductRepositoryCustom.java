@@ -0,0 +1,114 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.Product;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Product queries that need {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page of active products ordered by {@code sortBy} then id, starting strictly
+     * after ({@code lastValue}, {@code lastId}) when {@code lastId} is given; a
+     * {@code null} {@code lastValue} stands for a product without the sort field. Only
+     * the {@link com.ecommerce.product.dto.ProductSummary} fields and the sort key are
+     * loaded.
+     */
+    List<Product> findActiveAfter(String categoryId, String sortBy, Sort.Direction direction,
+                                  Object lastValue, String lastId, int limit);
+
+    /**
+     * Give documents written before versioning was introduced a starting version of 0,
+     * so that they can be saved with optimistic locking.
+     *
+     * @return number of documents updated
+     */
+    long initializeVersions();
+
+    /**
+     * Insert or replace products matched by SKU in one unordered bulk write. The stock of
+     * a product in flash-sale mode or with open stock holds is left alone, as are the
+     * variants while any of them holds stock; {@code active} is only set on insert.
+     */
+    BulkWriteResult upsertBySku(List<Product> products);
+
+    /**
+     * Cursor over all active products in id order, starting strictly after {@code afterId}
+     * when given and loading only {@code fields} when given. The stream must be closed.
+     */
+    Stream<Product> streamActive(String afterId, Collection<String> fields);
+
+    /**
+     * Find one product by a property value, loading only {@code fields}.
+     */
+    Product findOneWithFields(String property, Object value, Collection<String> fields);
+
+    /**
+     * Atomically move {@code quantity} from the available ({@code stockQuantity}) to the
+     * reserved ({@code reservedQuantity}) counter of a product, or of one of its variants
+     * when {@code variantId} is given, and record {@code hold} in the matching
+     * {@code stockHolds}. Applies only to an active product whose counter covers the
+     * quantity and does not carry the hold yet, so repeating the call is harmless.
+     * Product-level counters of a product in flash-sale mode are not touched.
+     *
+     * @return the product's stock fields after the update, or {@code null} if it did not apply
+     */
+    Product holdStock(String productId, String variantId, int quantity, String hold);
+
+    /**
+     * Atomically apply the deltas that settle a hold taken by {@link #holdStock} and
+     * remove the hold. Applies only while the counters still carry the hold, so repeating
+     * the call is harmless. Product-level counters of a product in flash-sale mode are
+     * not touched.
+     *
+     * @return the product's stock fields after the update, or {@code null} if it did not apply
+     */
+    Product settleHold(String productId, String variantId, int availableDelta, int reservedDelta, String hold);
+
+    /**
+     * The stock fields of a product whose counters carry {@code hold}, or {@code null}.
+     */
+    Product findStockWithHold(String productId, String variantId, String hold);
+
+    /**
+     * Atomically overwrite the available stock of a product that is not in flash-sale mode.
+     *
+     * @return the product's stock fields after the update, or {@code null} if it does not
+     *         exist or is in flash-sale mode
+     */
+    Product setStock(String productId, int quantity);
+
+    /**
+     * Put an active product into flash-sale mode, freezing its product-level counters.
+     * Idempotent, so an interrupted switch can simply be repeated.
+     *
+     * @return the product's stock fields, {@code stockHolds} and {@code flashSaleSeq}, or
+     *         {@code null} if it is inactive or missing
+     */
+    Product startFlashSale(String productId);
+
+    /**
+     * Add stock deltas collected in flash-sale mode as write-back {@code seq}, without
+     * guards on the counters. A write-back is applied at most once: only if the product
+     * has not applied {@code seq} or a later one yet.
+     *
+     * @return the product's stock fields after the update, or {@code null} if the product
+     *         is missing or the write-back was already applied
+     */
+    Product applyStockDelta(String productId, int availableDelta, int reservedDelta, long seq);
+
+    /**
+     * Take a product in flash-sale mode out of it, replacing its {@code stockHolds} with
+     * {@code holds} when given.
+     *
+     * @return the product's stock fields after the update, or {@code null} if it is
+     *         missing or not in flash-sale mode
+     */
+    Product endFlashSale(String productId, Collection<String> holds);
+}
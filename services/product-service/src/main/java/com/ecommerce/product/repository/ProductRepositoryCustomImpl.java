@@ -0,0 +1,273 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.Product;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate-backed implementation of {@link ProductRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final String[] SUMMARY_FIELDS = {"id", "sku", "name", "price", "compareAtPrice", "currency",
+            "primaryImageUrl", "averageRating", "reviewCount", "stockQuantity"};
+    private static final String[] STOCK_FIELDS =
+            {"id", "sku", "name", "price", "stockQuantity", "reservedQuantity", "lowStockThreshold", "flashSale", "version"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Product> findActiveAfter(String categoryId, String sortBy, Sort.Direction direction,
+                                         Object lastValue, String lastId, int limit) {
+        Criteria criteria = Criteria.where("active").is(true);
+        if (categoryId != null) {
+            criteria = criteria.and("categoryId").is(categoryId);
+        }
+        Query query = new Query(criteria);
+
+        if (lastId != null) {
+            query.addCriteria(after(sortBy, direction, lastValue, lastId));
+        }
+
+        query.with(Sort.by(direction, sortBy, "id")).limit(limit);
+        query.fields().include(SUMMARY_FIELDS).include(sortBy);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    /**
+     * Keyset condition for "after (lastValue, lastId)". MongoDB sorts a missing or null
+     * sort value before every other value, and range operators never match it, so nulls
+     * get their own branch: first when ascending, last when descending.
+     */
+    private static Criteria after(String sortBy, Sort.Direction direction, Object lastValue, String lastId) {
+        Criteria tieBreak = direction.isAscending() ? Criteria.where("id").gt(lastId) : Criteria.where("id").lt(lastId);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(sortBy).is(lastValue), tieBreak);
+        if (lastValue == null) {
+            return direction.isAscending()
+                    ? new Criteria().orOperator(sameValue, Criteria.where(sortBy).ne(null))
+                    : sameValue;
+        }
+        return direction.isAscending()
+                ? new Criteria().orOperator(Criteria.where(sortBy).gt(lastValue), sameValue)
+                : new Criteria().orOperator(Criteria.where(sortBy).lt(lastValue), sameValue, Criteria.where(sortBy).is(null));
+    }
+
+    @Override
+    public Stream<Product> streamActive(String afterId, Collection<String> fields) {
+        Criteria criteria = Criteria.where("active").is(true);
+        if (afterId != null) {
+            criteria = criteria.and("id").gt(afterId);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        if (fields != null && !fields.isEmpty()) {
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return mongoTemplate.stream(query, Product.class);
+    }
+
+    @Override
+    public Product findOneWithFields(String property, Object value, Collection<String> fields) {
+        Query query = new Query(Criteria.where(property).is(value));
+        fields.forEach(field -> query.fields().include(field));
+        return mongoTemplate.findOne(query, Product.class);
+    }
+
+    @Override
+    public Product holdStock(String productId, String variantId, int quantity, String hold) {
+        Criteria criteria = Criteria.where("id").is(productId).and("active").is(true);
+        Criteria guard = Criteria.where("stockQuantity").gte(quantity).and("stockHolds").ne(hold);
+        return findAndModifyStock(new Query(stockCriteria(criteria, variantId, guard)),
+                stockUpdate(variantId, -quantity, quantity).push(holdsField(variantId), hold));
+    }
+
+    @Override
+    public Product settleHold(String productId, String variantId, int availableDelta, int reservedDelta, String hold) {
+        // The hold proves the reserved units are there, so the counters need no guard
+        Criteria criteria = Criteria.where("id").is(productId);
+        return findAndModifyStock(new Query(stockCriteria(criteria, variantId, Criteria.where("stockHolds").is(hold))),
+                stockUpdate(variantId, availableDelta, reservedDelta).pull(holdsField(variantId), hold));
+    }
+
+    @Override
+    public Product findStockWithHold(String productId, String variantId, String hold) {
+        Criteria criteria = variantId != null
+                ? Criteria.where("id").is(productId).and("variants")
+                        .elemMatch(Criteria.where("variantId").is(variantId).and("stockHolds").is(hold))
+                : Criteria.where("id").is(productId).and("stockHolds").is(hold);
+        Query query = new Query(criteria);
+        query.fields().include(STOCK_FIELDS);
+        return mongoTemplate.findOne(query, Product.class);
+    }
+
+    /**
+     * Apply {@code guard} to the product-level counters of a product outside flash-sale
+     * mode, or to the given variant's.
+     */
+    private static Criteria stockCriteria(Criteria criteria, String variantId, Criteria guard) {
+        if (variantId == null) {
+            return new Criteria().andOperator(criteria.and("flashSale").ne(true), guard);
+        }
+        return criteria.and("variants").elemMatch(Criteria.where("variantId").is(variantId).andOperator(guard));
+    }
+
+    private static Update stockUpdate(String variantId, int availableDelta, int reservedDelta) {
+        String prefix = variantId != null ? "variants.$." : "";
+        Update update = new Update()
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        if (availableDelta != 0) {
+            update.inc(prefix + "stockQuantity", availableDelta);
+        }
+        if (reservedDelta != 0) {
+            update.inc(prefix + "reservedQuantity", reservedDelta);
+        }
+        return update;
+    }
+
+    private static String holdsField(String variantId) {
+        return variantId != null ? "variants.$.stockHolds" : "stockHolds";
+    }
+
+    @Override
+    public Product setStock(String productId, int quantity) {
+        Update update = new Update()
+                .set("stockQuantity", quantity)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        return findAndModifyStock(new Query(Criteria.where("id").is(productId).and("flashSale").ne(true)), update);
+    }
+
+    @Override
+    public Product startFlashSale(String productId) {
+        Query query = new Query(Criteria.where("id").is(productId).and("active").is(true));
+        query.fields().include("stockHolds", "flashSaleSeq");
+        Update update = new Update()
+                .set("flashSale", true)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        return findAndModifyStock(query, update);
+    }
+
+    @Override
+    public Product applyStockDelta(String productId, int availableDelta, int reservedDelta, long seq) {
+        Query query = new Query(Criteria.where("id").is(productId).and("flashSaleSeq").not().gte(seq));
+        Update update = new Update()
+                .inc("stockQuantity", availableDelta)
+                .inc("reservedQuantity", reservedDelta)
+                .set("flashSaleSeq", seq)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        return findAndModifyStock(query, update);
+    }
+
+    @Override
+    public Product endFlashSale(String productId, Collection<String> holds) {
+        Update update = new Update()
+                .unset("flashSale")
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        if (holds != null) {
+            update.set("stockHolds", holds);
+        }
+        return findAndModifyStock(new Query(Criteria.where("id").is(productId).and("flashSale").is(true)), update);
+    }
+
+    private Product findAndModifyStock(Query query, Update update) {
+        query.fields().include(STOCK_FIELDS);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public long initializeVersions() {
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                Product.class).getModifiedCount();
+    }
+
+    @Override
+    public BulkWriteResult upsertBySku(List<Product> products) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Product product : products) {
+            // A pipeline update, so that stock and variants can depend on the stored document
+            Document set = new Document()
+                    .append("sku", literal(product.getSku()))
+                    .append("name", literal(product.getName()))
+                    .append("description", literal(product.getDescription()))
+                    .append("categoryId", literal(product.getCategoryId()))
+                    .append("categoryName", literal(product.getCategoryName()))
+                    .append("price", literal(product.getPrice()))
+                    .append("compareAtPrice", literal(product.getCompareAtPrice()))
+                    .append("currency", literal(product.getCurrency()))
+                    .append("stockQuantity", new Document("$cond", List.of(
+                            new Document("$or", List.of(
+                                    new Document("$eq", List.of("$flashSale", true)),
+                                    hasHolds("$stockHolds"))),
+                            "$stockQuantity",
+                            literal(product.getStockQuantity()))))
+                    .append("lowStockThreshold", literal(product.getLowStockThreshold()))
+                    .append("brand", literal(product.getBrand()))
+                    .append("tags", literal(product.getTags()))
+                    .append("imageUrls", literal(product.getImageUrls()))
+                    .append("primaryImageUrl", literal(product.getPrimaryImageUrl()))
+                    .append("variants", new Document("$cond", List.of(
+                            new Document("$anyElementTrue", List.of(new Document("$map", new Document()
+                                    .append("input", new Document("$ifNull", List.of("$variants", List.of())))
+                                    .append("in", hasHolds("$$this.stockHolds"))))),
+                            "$variants",
+                            literal(product.getVariants()))))
+                    .append("specifications", literal(product.getSpecifications()))
+                    .append("featured", literal(product.getFeatured()))
+                    .append("active", onInsert("active", true))
+                    .append("updatedAt", literal(now))
+                    .append("updatedBy", literal(product.getUpdatedBy()))
+                    .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))
+                    .append("averageRating", onInsert("averageRating", 0.0))
+                    .append("reviewCount", onInsert("reviewCount", 0))
+                    .append("createdAt", onInsert("createdAt", now))
+                    .append("createdBy", onInsert("createdBy", product.getCreatedBy()));
+            AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+            operations.upsert(Query.query(Criteria.where("sku").is(product.getSku())), update);
+        }
+        return operations.execute();
+    }
+
+    /**
+     * A constant in a pipeline update; unwrapped strings starting with {@code $} would be
+     * read as field paths.
+     */
+    private Document literal(Object value) {
+        return new Document("$literal", mongoTemplate.getConverter().convertToMongoType(value));
+    }
+
+    /**
+     * Whether the stock hold list at {@code path} is non-empty.
+     */
+    private static Document hasHolds(String path) {
+        return new Document("$gt", List.of(
+                new Document("$size", new Document("$ifNull", List.of(path, List.of()))), 0));
+    }
+
+    private Document onInsert(String field, Object value) {
+        return new Document("$ifNull", List.of("$" + field, literal(value)));
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.product.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills {@code version} on products that predate it before the service handles any
+ * write. Spring Data treats an entity with a null version as new, so saving such a
+ * product would attempt an insert instead of a versioned update.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductVersionInitializer {
+
+    private final ProductRepository productRepository;
+
+    @PostConstruct
+    public void initializeVersions() {
+        long updated = productRepository.initializeVersions();
+        if (updated > 0) {
+            log.info("Initialized version of {} products", updated);
+        }
+    }
+}
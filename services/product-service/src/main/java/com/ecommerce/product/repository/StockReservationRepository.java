@@ -0,0 +1,21 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for StockReservation entity.
+ */
+@Repository
+public interface StockReservationRepository
+        extends MongoRepository<StockReservation, String>, StockReservationRepositoryCustom {
+
+    List<StockReservation> findByStatusInAndExpiresAtBefore(Collection<StockReservation.Status> statuses,
+                                                            LocalDateTime time, Pageable pageable);
+}
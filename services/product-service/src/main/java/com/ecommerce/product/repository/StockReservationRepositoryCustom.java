@@ -0,0 +1,19 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.StockReservation;
+
+/**
+ * Stock reservation state transitions that need {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface StockReservationRepositoryCustom {
+
+    /**
+     * Atomically move a reservation from one status to another; a final status also sets
+     * {@code closedAt}. Only one caller can win a transition, so each step of settling the
+     * held stock is taken exactly once.
+     *
+     * @return the reservation as it was before the transition, or {@code null} if it was
+     *         not found or not in status {@code from}
+     */
+    StockReservation transition(String id, StockReservation.Status from, StockReservation.Status to);
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.StockReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * MongoTemplate-backed implementation of {@link StockReservationRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class StockReservationRepositoryCustomImpl implements StockReservationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public StockReservation transition(String id, StockReservation.Status from, StockReservation.Status to) {
+        Query query = new Query(Criteria.where("id").is(id).and("status").is(from));
+        Update update = new Update().set("status", to);
+        if (to.isFinal()) {
+            update.set("closedAt", LocalDateTime.now());
+        }
+        return mongoTemplate.findAndModify(query, update, StockReservation.class);
+    }
+}
@@ -0,0 +1,322 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Embedded Lucene index over product name, description, brand, tags and specifications.
+ * Only active products are indexed. The index is rebuilt from MongoDB on start-up and
+ * kept current through {@link #index(Product)} / {@link #remove(String)}; readers see
+ * changes after the next near-real-time refresh. Scoring is Lucene's default BM25.
+ * <p>
+ * A rebuild replaces documents in place and then deletes the ones it did not write, so
+ * searches keep working while it runs. Products indexed or removed while a rebuild is
+ * running were read after the rebuild's cursor read them, so the rebuild leaves them alone.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+    static final String BRAND = "brand";
+    static final String TAGS = "tags";
+    static final String SPECIFICATIONS = "specifications";
+    static final String GENERATION = "generation";
+
+    private static final int LOCK_STRIPES = 256;
+
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            NAME, 3.0f,
+            BRAND, 2.0f,
+            TAGS, 2.0f,
+            DESCRIPTION, 1.0f,
+            SPECIFICATIONS, 1.0f);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.search.index-path:}")
+    private String indexPath;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    private final Object[] locks = Stream.generate(Object::new).limit(LOCK_STRIPES).toArray();
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generations = new AtomicLong();
+    private volatile String generation = "0";
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        ready = false;
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Rebuild the whole index from MongoDB, streaming active products through a cursor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        log.info("Rebuilding product search index");
+        long started = System.currentTimeMillis();
+        String current = Long.toString(generations.incrementAndGet());
+        changedDuringRebuild.clear();
+        generation = current;
+        rebuilding = true;
+        try {
+            long count = 0;
+            try (Stream<Product> products = mongoTemplate.stream(
+                    query(Criteria.where("active").is(true)), Product.class)) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    synchronized (lock(product.getId())) {
+                        if (!changedDuringRebuild.contains(product.getId())) {
+                            writer.updateDocument(new Term(ID, product.getId()), toDocument(product));
+                        }
+                    }
+                    count++;
+                }
+            }
+            // Whatever this rebuild did not write is no longer active
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+                    .add(new TermQuery(new Term(GENERATION, current)), BooleanClause.Occur.MUST_NOT)
+                    .build());
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+            log.info("Product search index rebuilt with {} products in {} ms",
+                    count, System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            log.error("Failed to rebuild product search index", e);
+        } finally {
+            rebuilding = false;
+            changedDuringRebuild.clear();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace a product; inactive products are removed instead.
+     */
+    public void index(Product product) {
+        if (!Boolean.TRUE.equals(product.getActive())) {
+            remove(product.getId());
+            return;
+        }
+        synchronized (lock(product.getId())) {
+            changed(product.getId());
+            try {
+                writer.updateDocument(new Term(ID, product.getId()), toDocument(product));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void remove(String productId) {
+        synchronized (lock(productId)) {
+            changed(productId);
+            try {
+                writer.deleteDocuments(new Term(ID, productId));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void changed(String productId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(productId);
+        }
+    }
+
+    private Object lock(String productId) {
+        return locks[(productId.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * Make recent writes visible to searchers.
+     */
+    @Scheduled(fixedDelayString = "${product.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh product search index", e);
+        }
+    }
+
+    /**
+     * Search the index and return the matching product ids of the requested page,
+     * ordered by relevance.
+     */
+    public Page<String> search(String text, Pageable pageable) {
+        Query query = parse(text);
+        int offset = (int) pageable.getOffset();
+        int end = offset + pageable.getPageSize();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, Math.max(end, 1));
+                StoredFields storedFields = searcher.storedFields();
+                List<String> ids = new ArrayList<>(pageable.getPageSize());
+                for (int i = offset; i < Math.min(end, topDocs.scoreDocs.length); i++) {
+                    ids.add(storedFields.document(topDocs.scoreDocs[i].doc, Set.of(ID)).get(ID));
+                }
+                long total = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? topDocs.totalHits.value
+                        : searcher.count(query);
+                return new PageImpl<>(ids, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Search the index for the hits ranked strictly after the given (score, doc) position.
+     * Positions are stable only while the same searcher generation is open, so a cursor
+     * may skip or repeat hits across index refreshes.
+     */
+    public List<Hit> searchAfter(String text, Float lastScore, Integer lastDoc, int size) {
+        Query query = parse(text);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc after = lastScore != null && lastDoc != null ? new ScoreDoc(lastDoc, lastScore) : null;
+                TopDocs topDocs = searcher.searchAfter(after, query, size);
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    String id = storedFields.document(scoreDoc.doc, Set.of(ID)).get(ID);
+                    hits.add(new Hit(id, scoreDoc.score, scoreDoc.doc));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Query parse(String text) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                FIELD_BOOSTS.keySet().toArray(String[]::new), analyzer, FIELD_BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(QueryParser.escape(text));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + text, e);
+        }
+    }
+
+    private Document toDocument(Product product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId(), Field.Store.YES));
+        document.add(new StringField(GENERATION, generation, Field.Store.NO));
+        addText(document, NAME, product.getName());
+        addText(document, DESCRIPTION, product.getDescription());
+        addText(document, BRAND, product.getBrand());
+        if (product.getTags() != null) {
+            product.getTags().forEach(tag -> addText(document, TAGS, tag));
+        }
+        if (product.getSpecifications() != null) {
+            product.getSpecifications().forEach((key, value) -> addText(document, SPECIFICATIONS, key + " " + value));
+        }
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * A ranked hit and its position for {@link #searchAfter}.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final String productId;
+        private final float score;
+        private final int doc;
+    }
+}
@@ -1,23 +1,49 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.common.dto.FieldSelection;
+import com.ecommerce.product.cache.BatchCacheOperations;
+import com.ecommerce.product.category.CategoryTreeService;
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.dto.CursorPage;
+import com.ecommerce.product.dto.ProductFacetResponse;
 import com.ecommerce.product.dto.ProductRequest;
 import com.ecommerce.product.dto.ProductResponse;
-import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.CategoryNotFoundException;
 import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.facet.FacetQuery;
+import com.ecommerce.product.facet.FacetResult;
+import com.ecommerce.product.facet.ProductFacetIndex;
+import com.ecommerce.product.inventory.FlashSaleStockService;
+import com.ecommerce.product.listing.ProductListingIndex;
 import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductVariant;
+import com.ecommerce.product.pagination.ProductCursor;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,10 +55,20 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
-    private final KafkaTemplate<String, ProductEvent> kafkaTemplate;
-    private static final String PRODUCT_TOPIC = "product-events";
+    private final ProductEventPublisher eventPublisher;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final BatchCacheOperations batchCache;
+    private final CacheManager cacheManager;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final FlashSaleStockService flashSaleStock;
+    private final ProductListingIndex listingIndex;
+    private final CategoryTreeService categoryTreeService;
+    private final ProductExistenceFilter existenceFilter;
+    private static final Set<String> CURSOR_SORT_KEYS = Set.of("createdAt", "name");
+    private static final String SCORE_SORT_KEY = "_score";
 
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = "products", key = "#id", sync = true)
     public ProductResponse getProductById(String id) {
         log.info("Fetching product with id: {}", id);
         Product product = productRepository.findById(id)
@@ -40,6 +76,7 @@ public class ProductService {
         return mapToResponse(product);
     }
 
+    @Cacheable(value = "products", key = "'sku-' + #sku", sync = true)
     public ProductResponse getProductBySku(String sku) {
         log.info("Fetching product with SKU: {}", sku);
         Product product = productRepository.findBySku(sku)
@@ -47,34 +84,202 @@ public class ProductService {
         return mapToResponse(product);
     }
 
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
+    /**
+     * Single-product read for a sparse fieldset: a cached full entry is used when present,
+     * otherwise only the selected fields (and the version) are loaded and the partial
+     * result is not cached.
+     */
+    public ProductResponse getProductById(String id, FieldSelection selection) {
+        log.info("Fetching fields {} of product with id: {}", selection.getFields(), id);
+        return getSelected(id, "id", id, selection, "Product not found with id: " + id);
+    }
+
+    /**
+     * SKU counterpart of {@link #getProductById(String, FieldSelection)}.
+     */
+    public ProductResponse getProductBySku(String sku, FieldSelection selection) {
+        log.info("Fetching fields {} of product with SKU: {}", selection.getFields(), sku);
+        return getSelected(ProductCacheInvalidator.skuKey(sku), "sku", sku, selection,
+                "Product not found with SKU: " + sku);
+    }
+
+    /**
+     * Resolve several products by id with one multi-key cache read, one {@code $in}
+     * query for the misses and one bulk cache backfill. Results follow request order;
+     * unknown ids are skipped and duplicates collapsed.
+     */
+    public List<ProductResponse> getProductsByIds(List<String> ids) {
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.removeIf(id -> !existenceFilter.mightExistById(id));
+        log.info("Fetching {} products by id", uniqueIds.size());
+
+        Map<String, ProductResponse> found = batchCache.getAll(
+                ProductCacheInvalidator.PRODUCTS_CACHE, uniqueIds, ProductResponse.class);
+        List<String> misses = uniqueIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            long loadStamp = batchCache.loadStamp();
+            Map<String, ProductResponse> loaded = productRepository.findAllById(misses).stream()
+                    .collect(Collectors.toMap(Product::getId, this::mapToResponse));
+            batchCache.putAll(ProductCacheInvalidator.PRODUCTS_CACHE, loaded, loadStamp);
+            found.putAll(loaded);
+        }
+        return uniqueIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Cacheable(value = "product-lists", sync = true,
+            key = "@cacheGenerations.current('product-lists') + ':all:' + #pageable")
+    public Page<ProductSummary> getAllProducts(Pageable pageable) {
         log.info("Fetching all products");
-        return productRepository.findByActiveTrue(pageable)
-                .map(this::mapToResponse);
+        return productRepository.findByActiveTrue(pageable);
     }
 
-    public Page<ProductResponse> getProductsByCategory(String categoryId, Pageable pageable) {
+    /**
+     * Served from the in-memory {@link ProductListingIndex}, newest first; MongoDB is
+     * queried only while the index is being built.
+     */
+    public Page<ProductSummary> getProductsByCategory(String categoryId, Pageable pageable) {
         log.info("Fetching products for category: {}", categoryId);
-        return productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable)
-                .map(this::mapToResponse);
+        if (listingIndex.isReady()) {
+            return listingIndex.getCategory(categoryId, pageable);
+        }
+        return productRepository.findByCategoryIdAndActiveTrue(categoryId, withListingSort(pageable));
+    }
+
+    /**
+     * Products of a category and all its subcategories, newest first, with one {@code $in}
+     * query over the category's precomputed subtree.
+     */
+    @Cacheable(value = "product-lists", sync = true,
+            key = "@cacheGenerations.current('product-lists') + ':subtree:' + #categoryId + ':'"
+                    + " + @categoryTreeService.version() + ':' + #pageable")
+    public Page<ProductSummary> getProductsInCategoryTree(String categoryId, Pageable pageable) {
+        log.info("Fetching products for category tree: {}", categoryId);
+        Set<String> categoryIds = categoryTreeService.getTree().getSubtreeIds(categoryId);
+        if (categoryIds == null) {
+            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+        }
+        return productRepository.findByCategoryIdInAndActiveTrue(categoryIds, withListingSort(pageable));
     }
 
-    public Page<ProductResponse> searchProducts(String query, Pageable pageable) {
+    public Page<ProductSummary> searchProducts(String query, Pageable pageable) {
         log.info("Searching products with query: {}", query);
-        return productRepository.findByNameContainingIgnoreCaseAndActiveTrue(query, pageable)
-                .map(this::mapToResponse);
+        if (!searchIndex.isReady()) {
+            log.warn("Search index not ready, falling back to repository scan");
+            return productRepository.findByNameContainingIgnoreCaseAndActiveTrue(query, pageable);
+        }
+        Page<String> hits = searchIndex.search(query, pageable);
+        return new PageImpl<>(findSummariesInOrder(hits.getContent()), pageable, hits.getTotalElements());
+    }
+
+    /**
+     * Keyset-paginated listing of active products, optionally restricted to a category.
+     */
+    public CursorPage<ProductSummary> getProductsAfter(String categoryId, String cursor, int size,
+                                                       String sortBy, String sortDir) {
+        log.info("Fetching products after cursor for category: {}", categoryId);
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        if (!CURSOR_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported cursor sort: " + sortBy);
+        }
+        Sort.Direction direction = Sort.Direction.fromString(sortDir);
+
+        Object lastValue = null;
+        String lastId = null;
+        if (cursor != null) {
+            ProductCursor decoded = ProductCursor.decode(cursor).requireOrdering(sortBy, direction);
+            lastId = decoded.getLastId();
+            lastValue = "createdAt".equals(sortBy) && decoded.getLastValue() != null
+                    ? LocalDateTime.parse(decoded.getLastValue())
+                    : decoded.getLastValue();
+        }
+
+        List<Product> products = productRepository.findActiveAfter(
+                categoryId, sortBy, direction, lastValue, lastId, size + 1);
+        boolean hasNext = products.size() > size;
+        List<Product> slice = hasNext ? products.subList(0, size) : products;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = slice.get(slice.size() - 1);
+            Object value = "createdAt".equals(sortBy) ? last.getCreatedAt() : last.getName();
+            nextCursor = new ProductCursor(sortBy, direction, last.getId(), value != null ? value.toString() : null).encode();
+        }
+        return CursorPage.<ProductSummary>builder()
+                .content(slice.stream().map(ProductSummary::of).collect(Collectors.toList()))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    public List<ProductResponse> getFeaturedProducts() {
+    /**
+     * Keyset-paginated search over the search index, ordered by relevance.
+     */
+    public CursorPage<ProductResponse> searchProductsAfter(String query, String cursor, int size) {
+        log.info("Searching products after cursor with query: {}", query);
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        if (!searchIndex.isReady()) {
+            throw new IllegalStateException("Search index is not ready");
+        }
+
+        Float lastScore = null;
+        Integer lastDoc = null;
+        if (cursor != null) {
+            ProductCursor decoded = ProductCursor.decode(cursor).requireOrdering(SCORE_SORT_KEY, Sort.Direction.DESC);
+            lastDoc = Integer.parseInt(decoded.getLastId());
+            lastScore = Float.parseFloat(decoded.getLastValue());
+        }
+
+        List<ProductSearchIndex.Hit> hits = searchIndex.searchAfter(query, lastScore, lastDoc, size + 1);
+        boolean hasNext = hits.size() > size;
+        List<ProductSearchIndex.Hit> slice = hasNext ? hits.subList(0, size) : hits;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSearchIndex.Hit last = slice.get(slice.size() - 1);
+            nextCursor = new ProductCursor(SCORE_SORT_KEY, Sort.Direction.DESC,
+                    String.valueOf(last.getDoc()), String.valueOf(last.getScore())).encode();
+        }
+        return CursorPage.<ProductResponse>builder()
+                .content(findAllInOrder(slice.stream().map(ProductSearchIndex.Hit::getProductId).toList()))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public ProductFacetResponse getFacets(FacetQuery query, Pageable pageable) {
+        log.info("Fetching facets for: {}", query);
+        FacetResult result = facetIndex.query(query, pageable);
+        return ProductFacetResponse.builder()
+                .totalElements(result.getTotalElements())
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .products(findAllInOrder(result.getProductIds()))
+                .facets(result.getFacets())
+                .build();
+    }
+
+    /**
+     * Served from the in-memory {@link ProductListingIndex}; MongoDB is queried only while
+     * the index is being built.
+     */
+    public List<ProductSummary> getFeaturedProducts() {
         log.info("Fetching featured products");
-        return productRepository.findByFeaturedTrueAndActiveTrueOrderByCreatedAtDesc()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (listingIndex.isReady()) {
+            return listingIndex.getFeatured();
+        }
+        return productRepository.findByFeaturedTrueAndActiveTrueOrderByCreatedAtDesc();
     }
 
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
     public ProductResponse createProduct(ProductRequest request) {
         log.info("Creating new product: {}", request.getName());
         
@@ -104,6 +309,8 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         log.info("Product created successfully with id: {}", savedProduct.getId());
+        existenceFilter.register(savedProduct);
+        cacheInvalidator.evictListings();
 
         // Publish product created event
         publishProductEvent(savedProduct, "PRODUCT_CREATED");
@@ -112,7 +319,6 @@ public class ProductService {
     }
 
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public ProductResponse updateProduct(String id, ProductRequest request) {
         log.info("Updating product with id: {}", id);
         
@@ -125,13 +331,18 @@ public class ProductService {
         product.setCategoryName(request.getCategoryName());
         product.setPrice(request.getPrice());
         product.setCompareAtPrice(request.getCompareAtPrice());
-        product.setStockQuantity(request.getStockQuantity());
+        if (Boolean.TRUE.equals(product.getFlashSale())) {
+            // The counters live in Redis until the flash sale ends; use the stock endpoint to change them
+            log.warn("Keeping the stock of product {} while it is in flash-sale mode", id);
+        } else {
+            product.setStockQuantity(request.getStockQuantity());
+        }
         product.setLowStockThreshold(request.getLowStockThreshold());
         product.setBrand(request.getBrand());
         product.setTags(request.getTags());
         product.setImageUrls(request.getImageUrls());
         product.setPrimaryImageUrl(request.getPrimaryImageUrl());
-        product.setVariants(request.getVariants());
+        product.setVariants(keepReservations(product.getVariants(), request.getVariants()));
         product.setSpecifications(request.getSpecifications());
         product.setFeatured(request.getFeatured());
         product.setUpdatedBy("system"); // TODO: Get from security context
@@ -139,6 +350,7 @@ public class ProductService {
 
         Product updatedProduct = productRepository.save(product);
         log.info("Product updated successfully");
+        cacheInvalidator.evictProduct(updatedProduct.getId(), updatedProduct.getSku());
 
         // Publish product updated event
         publishProductEvent(updatedProduct, "PRODUCT_UPDATED");
@@ -147,7 +359,6 @@ public class ProductService {
     }
 
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public void deleteProduct(String id) {
         log.info("Deleting product with id: {}", id);
         
@@ -157,43 +368,102 @@ public class ProductService {
         product.setActive(false);
         productRepository.save(product);
         log.info("Product deleted successfully");
+        cacheInvalidator.evictProduct(product.getId(), product.getSku());
 
         // Publish product deleted event
         publishProductEvent(product, "PRODUCT_DELETED");
     }
 
+    /**
+     * Overwrite the available stock with one atomic update; concurrent reservations should
+     * go through {@link com.ecommerce.product.inventory.StockReservationService} instead.
+     */
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
     public void updateStock(String id, Integer quantity) {
         log.info("Updating stock for product: {} to quantity: {}", id, quantity);
-        
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        if (flashSaleStock.isEnabled(id) && flashSaleStock.setAvailable(id, quantity)) {
+            return;
+        }
 
-        product.setStockQuantity(quantity);
-        productRepository.save(product);
+        Product product = productRepository.setStock(id, quantity);
+        if (product == null) {
+            if (flashSaleStock.checkEnabled(id) && flashSaleStock.setAvailable(id, quantity)) {
+                return;
+            }
+            throw new ProductNotFoundException("Product not found with id: " + id);
+        }
+        cacheInvalidator.evictProduct(product.getId(), product.getSku());
 
         // Publish stock updated event
         publishProductEvent(product, "PRODUCT_STOCK_UPDATED");
     }
 
+    /**
+     * Carry the reserved units and holds of existing variants over to their replacements,
+     * so that open reservations can still be committed or released.
+     */
+    private static List<ProductVariant> keepReservations(List<ProductVariant> current, List<ProductVariant> updated) {
+        if (current == null || updated == null) {
+            return updated;
+        }
+        Map<String, ProductVariant> byId = current.stream()
+                .filter(variant -> variant.getVariantId() != null)
+                .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity(), (first, second) -> first));
+        for (ProductVariant variant : updated) {
+            ProductVariant existing = variant.getVariantId() != null ? byId.get(variant.getVariantId()) : null;
+            if (existing != null) {
+                variant.setReservedQuantity(existing.getReservedQuantity());
+                variant.setStockHolds(existing.getStockHolds());
+            }
+        }
+        return updated;
+    }
+
     private void publishProductEvent(Product product, String eventType) {
-        try {
-            ProductEvent event = ProductEvent.builder()
-                    .eventType(eventType)
-                    .productId(product.getId())
-                    .sku(product.getSku())
-                    .name(product.getName())
-                    .price(product.getPrice())
-                    .stockQuantity(product.getStockQuantity())
-                    .timestamp(LocalDateTime.now())
-                    .build();
+        eventPublisher.publish(product, eventType);
+    }
 
-            kafkaTemplate.send(PRODUCT_TOPIC, product.getId(), event);
-            log.info("Published {} event for product: {}", eventType, product.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish event for product: {}", product.getId(), e);
+    private ProductResponse getSelected(String cacheKey, String property, String value,
+                                        FieldSelection selection, String notFoundMessage) {
+        Cache cache = cacheManager.getCache(ProductCacheInvalidator.PRODUCTS_CACHE);
+        ProductResponse cached = cache != null ? cache.get(cacheKey, ProductResponse.class) : null;
+        if (cached != null) {
+            return cached;
         }
+        Set<String> fields = new HashSet<>(selection.getFields());
+        fields.add("version");
+        Product product = productRepository.findOneWithFields(property, value, fields);
+        if (product == null) {
+            throw new ProductNotFoundException(notFoundMessage);
+        }
+        return mapToResponse(product);
+    }
+
+    private List<ProductResponse> findAllInOrder(List<String> ids) {
+        Map<String, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private List<ProductSummary> findSummariesInOrder(List<String> ids) {
+        Map<String, ProductSummary> summaries = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The order of the listing index, so that pages do not shift once it is ready.
+     */
+    private static Pageable withListingSort(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"));
     }
 
     private ProductResponse mapToResponse(Product product) {
@@ -208,6 +478,7 @@ public class ProductService {
                 .compareAtPrice(product.getCompareAtPrice())
                 .currency(product.getCurrency())
                 .stockQuantity(product.getStockQuantity())
+                .reservedQuantity(product.getReservedQuantity())
                 .lowStockThreshold(product.getLowStockThreshold())
                 .brand(product.getBrand())
                 .tags(product.getTags())
@@ -219,6 +490,8 @@ public class ProductService {
                 .reviewCount(product.getReviewCount())
                 .active(product.getActive())
                 .featured(product.getFeatured())
+                .flashSale(product.getFlashSale())
+                .version(product.getVersion())
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .build();
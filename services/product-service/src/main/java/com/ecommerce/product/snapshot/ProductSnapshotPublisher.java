@@ -0,0 +1,127 @@
+package com.ecommerce.product.snapshot;
+
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the log-compacted {@code product-snapshots} topic: the full current state of
+ * every active product keyed by id, and a tombstone once a product is deactivated or
+ * deleted. Consumers bootstrap a complete local copy by reading the topic from the start.
+ * <p>
+ * Snapshots are projected from {@code product-events} in one shared consumer group, so
+ * each product is handled by a single instance. A batch of events is collapsed to its
+ * distinct products, which are read back with one {@code $in} query; the snapshot
+ * therefore always reflects the latest stored state, whichever path changed it. Offsets
+ * are committed only after Kafka acknowledged the snapshots.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSnapshotPublisher {
+
+    public static final String SNAPSHOT_TOPIC = "product-snapshots";
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${product.snapshots.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Value("${product.snapshots.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @KafkaListener(
+            topics = "product-events",
+            groupId = "product-snapshot-projector",
+            batch = "true")
+    public void onProductEvents(List<ProductEvent> events) {
+        Set<String> ids = events.stream()
+                .filter(event -> event != null && event.getProductId() != null)
+                .map(ProductEvent::getProductId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, Product> products = mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Product.class)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product product = products.get(id);
+            boolean live = product != null && !Boolean.FALSE.equals(product.getActive());
+            futures.add(kafkaTemplate.send(SNAPSHOT_TOPIC, id, live ? product : null));
+        }
+        await(futures);
+        log.debug("Published {} product snapshots for {} events", ids.size(), events.size());
+    }
+
+    /**
+     * Publish every active product, e.g. to seed a new topic. Safe to repeat: each
+     * record just replaces the product's current snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Query query = new Query(Criteria.where("active").is(true));
+        query.cursorBatchSize(BACKFILL_CHUNK_SIZE);
+        long count = 0;
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(BACKFILL_CHUNK_SIZE);
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                futures.add(kafkaTemplate.send(SNAPSHOT_TOPIC, product.getId(), product));
+                if (futures.size() == BACKFILL_CHUNK_SIZE) {
+                    await(futures);
+                    futures.clear();
+                }
+                count++;
+            }
+        }
+        await(futures);
+        log.info("Backfilled {} product snapshots", count);
+    }
+
+    private void await(List<CompletableFuture<SendResult<String, Object>>> futures) {
+        kafkaTemplate.flush();
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        try {
+            for (CompletableFuture<SendResult<String, Object>> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish product snapshots", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing product snapshots", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.product.warmup;
+
+import com.ecommerce.product.cache.TopKSketch;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Access frequency of {@code products} cache keys, kept across restarts so that a new
+ * instance knows which keys to warm.
+ * <p>
+ * Reads are counted locally in a {@link TopKSketch}. Every persist interval the
+ * interval's top keys are merged into a Redis sorted set shared by all instances, whose
+ * scores decay with the configured half-life; the set keeps only the highest-scoring keys
+ * and expires when no instance has written to it for the retention period.
+ */
+@Component
+@Slf4j
+public class AccessHistory {
+
+    private static final RedisScript<Long> MERGE = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local halfLife = tonumber(ARGV[2])
+            local last = tonumber(redis.call('get', KEYS[2]) or now)
+            local factor = 0.5 ^ ((now - last) / halfLife)
+            if factor < 0.99 then
+              local entries = redis.call('zrange', KEYS[1], 0, -1, 'WITHSCORES')
+              for i = 1, #entries, 2 do
+                redis.call('zadd', KEYS[1], tonumber(entries[i + 1]) * factor, entries[i])
+              end
+              last = now
+            end
+            for i = 5, #ARGV, 2 do
+              redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            redis.call('zremrangebyscore', KEYS[1], '-inf', '(1')
+            redis.call('zremrangebyrank', KEYS[1], 0, -tonumber(ARGV[3]) - 1)
+            redis.call('set', KEYS[2], last, 'EX', ARGV[4])
+            redis.call('expire', KEYS[1], ARGV[4])
+            return redis.call('zcard', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final TopKSketch sketch;
+    private final List<String> keys;
+    private final int historySize;
+    private final long halfLifeMillis;
+    private final long retentionSeconds;
+
+    public AccessHistory(StringRedisTemplate redisTemplate,
+                         @Value("${spring.application.name:product-service}") String applicationName,
+                         @Value("${product.cache.warmup.enabled:true}") boolean enabled,
+                         @Value("${product.cache.warmup.sketch.tracked-keys:1000}") int trackedKeys,
+                         @Value("${product.cache.warmup.sketch.width:16384}") int width,
+                         @Value("${product.cache.warmup.sketch.depth:4}") int depth,
+                         @Value("${product.cache.warmup.history.size:10000}") int historySize,
+                         @Value("${product.cache.warmup.history.half-life:6h}") Duration halfLife,
+                         @Value("${product.cache.warmup.history.retention:7d}") Duration retention) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.sketch = new TopKSketch(trackedKeys, width, depth);
+        String historyKey = "cache-warmup:{" + applicationName + "}";
+        this.keys = List.of(historyKey, historyKey + ":decayed-at");
+        this.historySize = historySize;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.retentionSeconds = retention.toSeconds();
+    }
+
+    /**
+     * Count one read of a cache key.
+     */
+    public void record(String key) {
+        if (enabled) {
+            sketch.add(key);
+        }
+    }
+
+    /**
+     * Merge the keys counted since the last call into the shared history.
+     */
+    @Scheduled(fixedDelayString = "${product.cache.warmup.history.persist-interval-ms:60000}")
+    @PreDestroy
+    public void persist() {
+        if (!enabled) {
+            return;
+        }
+        List<Map.Entry<String, Long>> top = sketch.drain();
+        if (top.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(4 + top.size() * 2);
+        args.add(Long.toString(System.currentTimeMillis()));
+        args.add(Long.toString(halfLifeMillis));
+        args.add(Integer.toString(historySize));
+        args.add(Long.toString(retentionSeconds));
+        for (Map.Entry<String, Long> entry : top) {
+            args.add(entry.getKey());
+            args.add(Long.toString(entry.getValue()));
+        }
+        try {
+            Long size = redisTemplate.execute(MERGE, keys, args.toArray());
+            log.debug("Merged {} hot keys into access history ({} keys)", top.size(), size);
+        } catch (DataAccessException e) {
+            log.warn("Failed to persist access history of {} keys", top.size(), e);
+        }
+    }
+
+    /**
+     * The most frequently read keys across all instances, hottest first.
+     */
+    public List<String> hottest(int limit) {
+        if (!enabled || limit <= 0) {
+            return List.of();
+        }
+        try {
+            Set<String> hottest = redisTemplate.opsForZSet().reverseRange(keys.get(0), 0, limit - 1);
+            return hottest == null ? List.of() : List.copyOf(hottest);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read access history", e);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.product.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the historically hottest cache keys after start-up, in parallel batches, and
+ * reports {@code OUT_OF_SERVICE} until it is done so that the instance only joins the
+ * {@code readiness} health group with warm caches. Warm-up gives up after the timeout;
+ * failed batches are logged and skipped, and neither keeps the instance out of service.
+ */
+@Component
+@Slf4j
+public class CacheWarmup implements HealthIndicator {
+
+    private final AccessHistory accessHistory;
+    private final WarmupLoader loader;
+    private final boolean enabled;
+    private final int maxKeys;
+    private final int batchSize;
+    private final int threads;
+    private final Duration timeout;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile int total;
+    private volatile boolean done;
+
+    public CacheWarmup(AccessHistory accessHistory,
+                       WarmupLoader loader,
+                       @Value("${product.cache.warmup.enabled:true}") boolean enabled,
+                       @Value("${product.cache.warmup.keys:5000}") int maxKeys,
+                       @Value("${product.cache.warmup.batch-size:100}") int batchSize,
+                       @Value("${product.cache.warmup.threads:4}") int threads,
+                       @Value("${product.cache.warmup.timeout:60s}") Duration timeout) {
+        this.accessHistory = accessHistory;
+        this.loader = loader;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.timeout = timeout;
+        this.done = !enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = done ? Health.up() : Health.outOfService();
+        return health.withDetail("loaded", loaded.get())
+                .withDetail("keys", total)
+                .build();
+    }
+
+    private void run() {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<String> keys = accessHistory.hottest(maxKeys);
+            total = keys.size();
+            List<Callable<Void>> batches = new ArrayList<>();
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                List<String> batch = keys.subList(from, Math.min(keys.size(), from + batchSize));
+                batches.add(() -> {
+                    loader.load(batch);
+                    loaded.addAndGet(batch.size());
+                    return null;
+                });
+            }
+            int timedOut = 0;
+            for (Future<Void> result : executor.invokeAll(batches, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    result.get();
+                } catch (CancellationException e) {
+                    timedOut++;
+                } catch (ExecutionException e) {
+                    log.warn("Cache warm-up batch failed", e.getCause());
+                }
+            }
+            log.info("Warmed {} of {} hot cache keys in {} ms ({} batches timed out)", loaded.get(), total,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis(), timedOut);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Cache warm-up failed", e);
+        } finally {
+            executor.shutdownNow();
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.product.warmup;
+
+import com.ecommerce.product.cache.ProductJsonCache;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the {@code products} cache tiers and the rendered response cache. Product ids are
+ * resolved with one batch lookup, so a batch costs at most one {@code MGET}, one
+ * {@code $in} query and one pipelined backfill; {@code sku-} keys go through the cached
+ * SKU lookup one by one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductWarmupLoader implements WarmupLoader {
+
+    private static final String SKU_PREFIX = "sku-";
+
+    private final ProductService productService;
+    private final ProductJsonCache productJsonCache;
+
+    @Override
+    public void load(List<String> keys) {
+        List<String> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (key.startsWith(SKU_PREFIX)) {
+                loadSku(key.substring(SKU_PREFIX.length()));
+            } else {
+                ids.add(key);
+            }
+        }
+        if (!ids.isEmpty()) {
+            for (ProductResponse product : productService.getProductsByIds(ids)) {
+                productJsonCache.get(product.getId(), id -> product);
+            }
+        }
+    }
+
+    private void loadSku(String sku) {
+        try {
+            productService.getProductBySku(sku);
+        } catch (ProductNotFoundException e) {
+            // removed since it was last read
+        }
+    }
+}
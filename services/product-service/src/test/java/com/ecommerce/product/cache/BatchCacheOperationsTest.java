@@ -0,0 +1,114 @@
+package com.ecommerce.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batch Cache Operations Tests")
+class BatchCacheOperationsTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ObjectProvider<RedisConnectionFactory> connectionFactory;
+
+    @Mock
+    private CacheLoadLocks locks;
+
+    private ConcurrentMapCache shared;
+    private StampedeProtectedCache protectedCache;
+    private BatchCacheOperations batchCache;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCache("products");
+        protectedCache = new StampedeProtectedCache(shared, locks, Runnable::run, Duration.ofMinutes(10),
+                Duration.ofMillis(100), 1.0, Duration.ofMillis(10), 1000);
+        batchCache = new BatchCacheOperations(cacheManager, connectionFactory);
+    }
+
+    @Test
+    @DisplayName("Should not backfill keys evicted while loading")
+    void testPutAllSkipsEvictedKeys() {
+        // Given
+        when(cacheManager.getCache("products")).thenReturn(protectedCache);
+        long loadStamp = batchCache.loadStamp();
+        protectedCache.evict("p1");
+
+        // When
+        batchCache.putAll("products", Map.of("p1", "stale", "p2", "fresh"), loadStamp);
+
+        // Then
+        assertThat(shared.get("p1")).isNull();
+        assertThat(shared.get("p2", String.class)).isEqualTo("fresh");
+    }
+
+    @Test
+    @DisplayName("Should keep entries written while loading")
+    void testPutAllKeepsExistingEntries() {
+        // Given
+        when(cacheManager.getCache("products")).thenReturn(protectedCache);
+        long loadStamp = batchCache.loadStamp();
+        shared.put("p1", "written");
+
+        // When
+        batchCache.putAll("products", Map.of("p1", "loaded"), loadStamp);
+
+        // Then
+        assertThat(shared.get("p1", String.class)).isEqualTo("written");
+    }
+
+    @Test
+    @DisplayName("Should not backfill either tier for keys a peer changed while loading")
+    void testPutAllSkipsKeysEvictedByPeers() {
+        // Given
+        CaffeineCache local = new CaffeineCache("products",
+                Caffeine.newBuilder().build());
+        TwoLevelCache twoLevelCache = new TwoLevelCache(local, protectedCache);
+        when(cacheManager.getCache("products")).thenReturn(twoLevelCache);
+        long loadStamp = batchCache.loadStamp();
+        twoLevelCache.evictLocal("p1");
+
+        // When
+        batchCache.putAll("products", Map.of("p1", "stale", "p2", "fresh"), loadStamp);
+
+        // Then
+        assertThat(local.get("p1")).isNull();
+        assertThat(shared.get("p1")).isNull();
+        assertThat(local.get("p2", String.class)).isEqualTo("fresh");
+        assertThat(shared.get("p2", String.class)).isEqualTo("fresh");
+    }
+
+    @Test
+    @DisplayName("Should backfill keys evicted before the load started")
+    void testPutAllAfterEarlierEviction() throws InterruptedException {
+        // Given
+        when(cacheManager.getCache("products")).thenReturn(protectedCache);
+        protectedCache.evict("p1");
+        Thread.sleep(1);
+        long loadStamp = batchCache.loadStamp();
+
+        // When
+        batchCache.putAll("products", Map.of("p1", "fresh"), loadStamp);
+
+        // Then
+        assertThat(shared.get("p1", String.class)).isEqualTo("fresh");
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.product.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Hot Key Pins Tests")
+class HotKeyPinsTest {
+
+    private final HotKeyPins pins = new HotKeyPins(Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("Should pin only hot keys")
+    void testPinsHotKeys() {
+        pins.updateHotKeys(Set.of("hot"));
+
+        pins.offer("hot", "value", pins.stamp("hot"));
+        pins.offer("cold", "value", pins.stamp("cold"));
+
+        assertThat(pins.get("hot").get()).isEqualTo("value");
+        assertThat(pins.get("cold")).isNull();
+        assertThat(pins.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not pin a value read before an eviction of its key")
+    void testEvictionDuringReadPreventsPin() {
+        pins.updateHotKeys(Set.of("hot"));
+        long stamp = pins.stamp("hot");
+
+        pins.evict("hot");
+        pins.offer("hot", "stale", stamp);
+
+        assertThat(pins.isPinned("hot")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not pin a value read before the cache was cleared")
+    void testClearDuringReadPreventsPin() {
+        pins.updateHotKeys(Set.of("hot"));
+        long stamp = pins.stamp("hot");
+
+        pins.clear();
+        pins.offer("hot", "stale", stamp);
+
+        assertThat(pins.isPinned("hot")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should unpin keys that cooled down")
+    void testUnpinsCooledKeys() {
+        pins.updateHotKeys(Set.of("a", "b"));
+        pins.offer("a", "1", pins.stamp("a"));
+        pins.offer("b", "2", pins.stamp("b"));
+
+        pins.updateHotKeys(Set.of("b"));
+
+        assertThat(pins.isPinned("a")).isFalse();
+        assertThat(pins.isPinned("b")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should drop pins older than the maximum age")
+    void testMaxPinAge() {
+        HotKeyPins expiring = new HotKeyPins(Duration.ZERO);
+        expiring.updateHotKeys(Set.of("hot"));
+        expiring.offer("hot", "value", expiring.stamp("hot"));
+
+        assertThat(expiring.get("hot")).isNull();
+        assertThat(expiring.isPinned("hot")).isFalse();
+    }
+}
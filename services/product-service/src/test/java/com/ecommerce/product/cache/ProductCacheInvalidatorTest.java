@@ -0,0 +1,92 @@
+package com.ecommerce.product.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Cache Invalidator Tests")
+class ProductCacheInvalidatorTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CacheGenerations cacheGenerations;
+
+    @Mock
+    private ProductJsonCache productJsonCache;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private ProductCacheInvalidator invalidator;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict immediately outside a transaction")
+    void testEvictsWithoutTransaction() {
+        // Given
+        when(cacheManager.getCache(ProductCacheInvalidator.PRODUCTS_CACHE)).thenReturn(cache);
+
+        // When
+        invalidator.evictProduct("p1", "SKU-1");
+
+        // Then
+        verify(cache, times(1)).evict("p1");
+        verify(cache, times(1)).evict("sku-SKU-1");
+        verify(productJsonCache, times(1)).evict("p1");
+        verify(cacheGenerations, times(1)).advance(CacheGenerations.PRODUCT_LISTS);
+    }
+
+    @Test
+    @DisplayName("Should defer evictions until the transaction commits")
+    void testDefersUntilCommit() {
+        // Given
+        when(cacheManager.getCache(ProductCacheInvalidator.PRODUCTS_CACHE)).thenReturn(cache);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        invalidator.evictProduct("p1", "SKU-1");
+        invalidator.evictListings();
+
+        // Then
+        verifyNoInteractions(cache, productJsonCache, cacheGenerations);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cache, times(1)).evict("p1");
+        verify(productJsonCache, times(1)).evict("p1");
+        verify(cacheGenerations, times(2)).advance(CacheGenerations.PRODUCT_LISTS);
+    }
+
+    @Test
+    @DisplayName("Should evict nothing when the transaction rolls back")
+    void testNothingOnRollback() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        invalidator.evictProduct("p1", "SKU-1");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verifyNoInteractions(cache, productJsonCache, cacheGenerations);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.product.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Top-K Sketch Tests")
+class TopKSketchTest {
+
+    @Test
+    @DisplayName("Should rank the most frequent keys first")
+    void testTopOrdersByCount() {
+        TopKSketch sketch = new TopKSketch(3, 1024, 4);
+        add(sketch, "a", 50);
+        add(sketch, "b", 30);
+        add(sketch, "c", 10);
+        add(sketch, "d", 1);
+
+        List<Map.Entry<String, Long>> top = sketch.top();
+
+        assertThat(top).extracting(Map.Entry::getKey).containsExactly("a", "b", "c");
+        assertThat(top.get(0).getValue()).isGreaterThanOrEqualTo(50L);
+        assertThat(sketch.total()).isEqualTo(91);
+    }
+
+    @Test
+    @DisplayName("Should find the heavy hitters of a skewed stream")
+    void testHeavyHittersInSkewedStream() {
+        TopKSketch sketch = new TopKSketch(10, 4096, 4);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // a few hot keys over a long uniform tail
+            String key = random.nextInt(10) < 3 ? "hot-" + random.nextInt(5) : "cold-" + random.nextInt(10_000);
+            sketch.add(key);
+        }
+
+        assertThat(sketch.top()).extracting(Map.Entry::getKey)
+                .contains("hot-0", "hot-1", "hot-2", "hot-3", "hot-4");
+    }
+
+    @Test
+    @DisplayName("Should halve counts on decay and keep the ranking")
+    void testDecay() {
+        TopKSketch sketch = new TopKSketch(2, 1024, 4);
+        add(sketch, "a", 40);
+        add(sketch, "b", 20);
+
+        sketch.decay();
+        add(sketch, "b", 15);
+
+        assertThat(sketch.top()).extracting(Map.Entry::getKey).containsExactly("b", "a");
+        assertThat(sketch.total()).isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("Should start from zero after drain")
+    void testDrain() {
+        TopKSketch sketch = new TopKSketch(2, 1024, 4);
+        add(sketch, "a", 5);
+
+        assertThat(sketch.drain()).extracting(Map.Entry::getKey).containsExactly("a");
+        assertThat(sketch.top()).isEmpty();
+        assertThat(sketch.total()).isZero();
+    }
+
+    private static void add(TopKSketch sketch, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(key);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.product.category;
+
+import com.ecommerce.product.dto.CategoryCrumb;
+import com.ecommerce.product.dto.CategoryNode;
+import com.ecommerce.product.model.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Category Tree Tests")
+class CategoryTreeTest {
+
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            category("laptops", "Laptops", "computers", 2),
+            category("computers", "Computers", null, 1),
+            category("desktops", "Desktops", "computers", 1),
+            category("gaming", "Gaming", "laptops", null),
+            category("audio", "Audio", null, null),
+            category("ultrabooks", "Ultrabooks", "laptops", null)));
+
+    @Test
+    @DisplayName("Should nest categories in display order")
+    void testRoots() {
+        // When
+        List<CategoryNode> roots = tree.getRoots();
+
+        // Then: ordered by displayOrder, categories without one last, then by name
+        assertThat(roots).extracting(CategoryNode::getId).containsExactly("computers", "audio");
+        assertThat(roots.get(0).getChildren()).extracting(CategoryNode::getId).containsExactly("desktops", "laptops");
+        assertThat(roots.get(0).getChildren().get(1).getChildren())
+                .extracting(CategoryNode::getId).containsExactly("gaming", "ultrabooks");
+        assertThat(tree.size()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should give the path from the root down to a category")
+    void testBreadcrumbs() {
+        // When
+        List<CategoryCrumb> breadcrumbs = tree.getBreadcrumbs("gaming");
+
+        // Then
+        assertThat(breadcrumbs).extracting(CategoryCrumb::getId).containsExactly("computers", "laptops", "gaming");
+        assertThat(tree.getBreadcrumbs("missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should collect a category together with all its descendants")
+    void testSubtreeIds() {
+        assertThat(tree.getSubtreeIds("computers"))
+                .containsExactlyInAnyOrder("computers", "desktops", "laptops", "gaming", "ultrabooks");
+        assertThat(tree.getSubtreeIds("laptops")).containsExactlyInAnyOrder("laptops", "gaming", "ultrabooks");
+        assertThat(tree.getSubtreeIds("audio")).containsExactly("audio");
+        assertThat(tree.getSubtreeIds("missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should hide subtrees under a missing parent and categories on a cycle")
+    void testUnreachableCategories() {
+        // Given: "phones" has an inactive (missing) parent; "a" and "b" are each other's parent
+        CategoryTree partial = CategoryTree.of(List.of(
+                category("audio", "Audio", null, null),
+                category("phones", "Phones", "electronics", null),
+                category("android", "Android", "phones", null),
+                category("a", "A", "b", null),
+                category("b", "B", "a", null)));
+
+        // Then
+        assertThat(partial.getRoots()).extracting(CategoryNode::getId).containsExactly("audio");
+        assertThat(partial.contains("phones")).isFalse();
+        assertThat(partial.contains("android")).isFalse();
+        assertThat(partial.contains("a")).isFalse();
+        assertThat(partial.contains("b")).isFalse();
+        assertThat(partial.size()).isEqualTo(1);
+    }
+
+    private static Category category(String id, String name, String parentId, Integer displayOrder) {
+        return Category.builder().id(id).name(name).slug(id).parentId(parentId)
+                .displayOrder(displayOrder).active(true).build();
+    }
+}
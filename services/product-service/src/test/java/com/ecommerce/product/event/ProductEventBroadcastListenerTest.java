@@ -0,0 +1,139 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.facet.ProductFacetIndex;
+import com.ecommerce.product.listing.ProductListingIndex;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Event Broadcast Listener Tests")
+class ProductEventBroadcastListenerTest {
+
+    private static final String PRODUCT_ID = "p1";
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private ProductListingIndex listingIndex;
+
+    @Mock
+    private ProductCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ProductExistenceFilter existenceFilter;
+
+    @Mock
+    private ConsumerSeekCallback seekCallback;
+
+    @InjectMocks
+    private ProductEventBroadcastListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "replayMargin", Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Should load a written product once and apply it everywhere")
+    void testLoadsOnce() {
+        // Given
+        Product product = Product.builder().id(PRODUCT_ID).sku("SKU-1").build();
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        // When
+        listener.onProductEvent(event("PRODUCT_CREATED"));
+
+        // Then
+        verify(productRepository, times(1)).findById(PRODUCT_ID);
+        verify(searchIndex, times(1)).index(product);
+        verify(facetIndex, times(1)).index(product);
+        verify(listingIndex, times(1)).index(product);
+        verify(cacheInvalidator, times(1)).evictLocal(PRODUCT_ID, "SKU-1");
+        verify(existenceFilter, times(1)).register(PRODUCT_ID, "SKU-1");
+    }
+
+    @Test
+    @DisplayName("Should apply stock updates from the payload without reading the product")
+    void testStockFromPayload() {
+        // When
+        listener.onProductEvent(event("PRODUCT_STOCK_UPDATED"));
+
+        // Then
+        verify(facetIndex, times(1)).updateStock(PRODUCT_ID, 7, 3L);
+        verify(listingIndex, times(1)).updateStock(PRODUCT_ID, 7, 3L);
+        verify(cacheInvalidator, times(1)).evictLocal(PRODUCT_ID, "SKU-1");
+        verifyNoInteractions(productRepository, searchIndex, existenceFilter);
+    }
+
+    @Test
+    @DisplayName("Should remove a product that no longer exists from every index")
+    void testRemovesMissing() {
+        // Given
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.empty());
+
+        // When
+        listener.onProductEvent(event("PRODUCT_UPDATED"));
+
+        // Then
+        verify(searchIndex, times(1)).remove(PRODUCT_ID);
+        verify(facetIndex, times(1)).remove(PRODUCT_ID);
+        verify(listingIndex, times(1)).remove(PRODUCT_ID);
+        verify(existenceFilter, never()).register(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should rewind a partition to before start-up only on its first assignment")
+    void testRewindsOnce() {
+        // Given
+        TopicPartition first = new TopicPartition("product-events", 0);
+        TopicPartition second = new TopicPartition("product-events", 1);
+        long before = System.currentTimeMillis();
+
+        // When
+        listener.onPartitionsAssigned(Map.of(first, 10L), seekCallback);
+        listener.onPartitionsAssigned(Map.of(first, 12L, second, 5L), seekCallback);
+
+        // Then
+        verify(seekCallback, times(1)).seekToTimestamp(eq(List.of(first)), longThat(ts -> ts <= before - 30_000));
+        verify(seekCallback, times(1)).seekToTimestamp(eq(List.of(second)), anyLong());
+        verifyNoMoreInteractions(seekCallback);
+    }
+
+    private ProductEvent event(String type) {
+        return ProductEvent.builder()
+                .eventType(type)
+                .productId(PRODUCT_ID)
+                .sku("SKU-1")
+                .stockQuantity(7)
+                .version(3L)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.outbox.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Stock Event Coalescer Tests")
+class StockEventCoalescerTest {
+
+    private static final String PRODUCT_ID = "p1";
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    private StockEventCoalescer coalescer;
+    private final List<ProductEvent> appended = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new StockEventCoalescer(outboxWriter, new SimpleMeterRegistry(), true, Duration.ofMinutes(1), 1000);
+        doAnswer(call -> appended.addAll(call.getArgument(1)))
+                .when(outboxWriter).appendAll(eq(ProductEventPublisher.PRODUCT_TOPIC), anyList(), any(Function.class));
+    }
+
+    @Test
+    @DisplayName("Should keep only the newest version within a window")
+    void testMergeKeepsNewestVersion() {
+        // Given: concurrent writers offer their results out of order
+        offer(6L, 4);
+        offer(5L, 5);
+
+        // When
+        coalescer.flushAll();
+
+        // Then
+        assertThat(appended).singleElement().satisfies(event -> {
+            assertThat(event.getVersion()).isEqualTo(6L);
+            assertThat(event.getStockQuantity()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    @DisplayName("Should publish at once when the stock runs out")
+    void testThresholdFlush() {
+        // When
+        offer(3L, 0);
+
+        // Then
+        assertThat(appended).singleElement().extracting(ProductEvent::getStockQuantity).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should retry events the outbox rejected")
+    void testRequeueOnFailure() {
+        // Given
+        doThrow(new IllegalStateException("outbox unavailable")).doAnswer(call -> appended.addAll(call.getArgument(1)))
+                .when(outboxWriter).appendAll(eq(ProductEventPublisher.PRODUCT_TOPIC), anyList(), any(Function.class));
+        offer(5L, 7);
+
+        // When
+        coalescer.flushAll();
+        coalescer.flushAll();
+
+        // Then
+        verify(outboxWriter, times(2)).appendAll(eq(ProductEventPublisher.PRODUCT_TOPIC), anyList(), any(Function.class));
+        assertThat(appended).singleElement().extracting(ProductEvent::getVersion).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Should not let a retried event replace a newer one offered meanwhile")
+    void testRequeueKeepsNewerOffer() {
+        // Given: a newer stock update arrives while the append of the older one fails
+        doAnswer(call -> {
+            offer(6L, 3);
+            throw new IllegalStateException("outbox unavailable");
+        }).doAnswer(call -> appended.addAll(call.getArgument(1)))
+                .when(outboxWriter).appendAll(eq(ProductEventPublisher.PRODUCT_TOPIC), anyList(), any(Function.class));
+        offer(5L, 7);
+
+        // When
+        coalescer.flushAll();
+        coalescer.flushAll();
+
+        // Then
+        assertThat(appended).singleElement().satisfies(event -> {
+            assertThat(event.getVersion()).isEqualTo(6L);
+            assertThat(event.getStockQuantity()).isEqualTo(3);
+        });
+    }
+
+    private void offer(Long version, int stock) {
+        Product product = Product.builder().id(PRODUCT_ID).stockQuantity(stock).version(version).build();
+        coalescer.offer(product, ProductEvent.builder()
+                .eventType(ProductEventPublisher.STOCK_UPDATED)
+                .productId(PRODUCT_ID)
+                .stockQuantity(stock)
+                .version(version)
+                .build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.product.existence;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Bloom Filter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added value as absent")
+    void testNoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // When
+        IntStream.range(0, 10_000).forEach(i -> filter.add("product-" + i));
+
+        // Then
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("product-" + i));
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate")
+    void testFalsePositiveRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("product-" + i));
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("unknown-" + i))
+                .count();
+
+        // Then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("Should not count repeated adds of a known value")
+    void testRepeatedAdd() {
+        // Given
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.add("SKU-1");
+
+        // When
+        filter.add("SKU-1");
+
+        // Then
+        assertThat(filter.insertions()).isEqualTo(1);
+        assertThat(filter.isSaturated()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should report saturation past the expected insertions")
+    void testSaturation() {
+        // Given
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        // When
+        IntStream.range(0, 1_000).forEach(i -> filter.add("product-" + i));
+
+        // Then
+        assertThat(filter.isSaturated()).isTrue();
+        assertThat(filter.expectedFalsePositiveRate()).isGreaterThan(0.01);
+    }
+
+    @Test
+    @DisplayName("Should keep every value added concurrently")
+    void testConcurrentAdds() throws Exception {
+        // Given
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.submit(() -> IntStream.range(0, 10_000).forEach(i -> filter.add(thread + "-" + i)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(IntStream.range(0, 40_000)).allMatch(i -> filter.mightContain(i / 10_000 + "-" + i % 10_000));
+    }
+}
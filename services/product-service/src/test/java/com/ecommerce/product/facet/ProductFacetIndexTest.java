@@ -0,0 +1,164 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.product.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Facet Index Tests")
+class ProductFacetIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(facetIndex, "priceBands", new long[]{0, 25, 50, 100});
+        ReflectionTestUtils.setField(facetIndex, "maxValuesPerFacet", 50);
+        ReflectionTestUtils.setField(facetIndex, "maxDeadRatio", 0.25);
+    }
+
+    @Test
+    @DisplayName("Should report out of service until the first build completes")
+    void testReadiness() {
+        // Given
+        whenStreamed(Stream.of(product("p1", "Acme", 5L)));
+        assertThat(facetIndex.isReady()).isFalse();
+        assertThat(facetIndex.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        // When
+        facetIndex.rebuild();
+
+        // Then
+        assertThat(facetIndex.isReady()).isTrue();
+        assertThat(facetIndex.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Should keep answering from the current index while rebuilding")
+    void testQueryDuringRebuild() {
+        // Given
+        facetIndex.index(product("p1", "Acme", 5L));
+        facetIndex.index(product("p2", "Acme", 5L));
+        whenStreamed(Stream.of(product("p1", "Acme", 5L))
+                .peek(p -> assertThat(query().getProductIds()).containsExactlyInAnyOrder("p1", "p2")));
+
+        // When
+        facetIndex.rebuild();
+
+        // Then: p2 is no longer active
+        assertThat(query().getProductIds()).containsExactly("p1");
+    }
+
+    @Test
+    @DisplayName("Should carry writes made during the rebuild into the new index")
+    void testWritesDuringRebuild() {
+        // Given
+        whenStreamed(Stream.of(product("p1", "Acme", 5L))
+                .peek(p -> facetIndex.index(product("p2", "Globex", 1L))));
+
+        // When
+        facetIndex.rebuild();
+
+        // Then
+        assertThat(query().getProductIds()).containsExactlyInAnyOrder("p1", "p2");
+    }
+
+    @Test
+    @DisplayName("Should not let a write older than the rebuild's read replace it")
+    void testStaleWriteDuringRebuild() {
+        // Given: the listener applies an older reload after the cursor read version 5
+        Stream<Product> products = Stream.of(product("p1", "Acme", 5L));
+        whenStreamed(products.onClose(() -> facetIndex.index(product("p1", "Initech", 4L))));
+
+        // When
+        facetIndex.rebuild();
+
+        // Then
+        assertThat(query().getFacets().get(ProductFacetIndex.BRAND)).containsExactly(Map.entry("Acme", 1L));
+    }
+
+    @Test
+    @DisplayName("Should ignore stock updates older than the indexed version")
+    void testStaleStockUpdate() {
+        // Given
+        facetIndex.index(product("p1", "Acme", 5L));
+
+        // When
+        facetIndex.updateStock("p1", 0, 4L);
+
+        // Then
+        assertThat(query().getFacets().get(ProductFacetIndex.STOCK))
+                .containsExactly(Map.entry(ProductFacetIndex.IN_STOCK, 1L));
+
+        // When
+        facetIndex.updateStock("p1", 0, 6L);
+
+        // Then
+        assertThat(query().getFacets().get(ProductFacetIndex.STOCK))
+                .containsExactly(Map.entry(ProductFacetIndex.OUT_OF_STOCK, 1L));
+    }
+
+    @Test
+    @DisplayName("Should rebuild once removed products leave too many dead ordinals")
+    void testRebuildIfFragmented() {
+        // Given
+        whenStreamed(Stream.of(product("p1", "Acme", 1L), product("p2", "Acme", 1L),
+                product("p3", "Acme", 1L), product("p4", "Acme", 1L)));
+        facetIndex.rebuild();
+        facetIndex.remove("p4");
+
+        // When: one of four ordinals is dead
+        facetIndex.rebuildIfFragmented();
+
+        // Then
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Product.class));
+
+        // Given
+        facetIndex.remove("p3");
+        whenStreamed(Stream.of(product("p1", "Acme", 1L), product("p2", "Acme", 1L)));
+
+        // When: two of four are dead
+        facetIndex.rebuildIfFragmented();
+
+        // Then
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Product.class));
+        assertThat(query().getProductIds()).containsExactlyInAnyOrder("p1", "p2");
+        assertThat(facetIndex.health().getDetails()).containsEntry("products", 2);
+    }
+
+    private void whenStreamed(Stream<Product> products) {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(products);
+    }
+
+    private FacetResult query() {
+        return facetIndex.query(new FacetQuery(), PageRequest.of(0, 10));
+    }
+
+    private Product product(String id, String brand, Long version) {
+        return Product.builder().id(id).brand(brand).price(new BigDecimal("30.00"))
+                .stockQuantity(10).active(true).version(version).build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.dto.FlashSaleStockResponse;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Flash Sale Stock Service Tests")
+class FlashSaleStockServiceTest {
+
+    private static final String PRODUCT_ID = "p1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCacheInvalidator cacheInvalidator;
+
+    @InjectMocks
+    private FlashSaleStockService flashSaleStock;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(anyString(), anyList()))
+                .thenReturn(Arrays.asList("8", "2", "0", "0", null, null));
+    }
+
+    @Test
+    @DisplayName("Should fence MongoDB before creating the counters")
+    void testEnable() {
+        // Given
+        when(productRepository.startFlashSale(PRODUCT_ID)).thenReturn(Product.builder()
+                .id(PRODUCT_ID).sku("SKU-1").stockQuantity(8).reservedQuantity(2)
+                .stockHolds(List.of("r1")).flashSaleSeq(4L).build());
+        whenScript(FlashSaleStockService.INIT).thenReturn(1L);
+
+        // When
+        FlashSaleStockResponse response = flashSaleStock.enable(PRODUCT_ID);
+
+        // Then
+        assertThat(response.isEnabled()).isTrue();
+        assertThat(flashSaleStock.isEnabled(PRODUCT_ID)).isTrue();
+        InOrder order = inOrder(productRepository, redisTemplate, setOperations);
+        order.verify(productRepository).startFlashSale(PRODUCT_ID);
+        order.verify(redisTemplate).execute(eq(FlashSaleStockService.INIT), anyList(),
+                eq("8"), eq("2"), eq("4"), eq("r1"));
+        order.verify(setOperations).add("flash-sale:products", PRODUCT_ID);
+        verify(cacheInvalidator, times(1)).evictProduct(PRODUCT_ID, "SKU-1");
+    }
+
+    @Test
+    @DisplayName("Should complete an interrupted enable without resetting live counters")
+    void testEnableRepeated() {
+        // Given: the counters exist already and are authoritative
+        when(productRepository.startFlashSale(PRODUCT_ID))
+                .thenReturn(Product.builder().id(PRODUCT_ID).sku("SKU-1").stockQuantity(10).reservedQuantity(0).build());
+        whenScript(FlashSaleStockService.INIT).thenReturn(0L);
+
+        // When
+        FlashSaleStockResponse response = flashSaleStock.enable(PRODUCT_ID);
+
+        // Then
+        assertThat(response.getAvailableQuantity()).isEqualTo(8);
+        verify(setOperations, times(1)).add("flash-sale:products", PRODUCT_ID);
+        verify(cacheInvalidator, never()).evictProduct(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject enabling a missing or inactive product")
+    void testEnableNotFound() {
+        // Given
+        when(productRepository.startFlashSale(PRODUCT_ID)).thenReturn(null);
+
+        // When / Then
+        assertThatThrownBy(() -> flashSaleStock.enable(PRODUCT_ID))
+                .isInstanceOf(ProductNotFoundException.class);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should write pending deltas back before clearing the MongoDB flag")
+    void testDisable() {
+        // Given
+        whenScript(FlashSaleStockService.TAKE_DELTAS)
+                .thenReturn(List.of(1L, -5L, 5L, 3L, 1L))
+                .thenReturn(List.of(1L, 0L, 0L, 0L, 1L));
+        whenScript(FlashSaleStockService.ACK_DELTAS).thenReturn(1L);
+        Product product = Product.builder().id(PRODUCT_ID).sku("SKU-1").build();
+        when(productRepository.applyStockDelta(PRODUCT_ID, -5, 5, 3L)).thenReturn(product);
+        when(setOperations.members(FlashSaleStockService.holdsKey(PRODUCT_ID))).thenReturn(Set.of("r1"));
+        when(productRepository.endFlashSale(PRODUCT_ID, Set.of("r1"))).thenReturn(product);
+
+        // When
+        FlashSaleStockResponse response = flashSaleStock.disable(PRODUCT_ID);
+
+        // Then
+        assertThat(response.isEnabled()).isFalse();
+        InOrder order = inOrder(productRepository, redisTemplate, setOperations);
+        order.verify(productRepository).applyStockDelta(PRODUCT_ID, -5, 5, 3L);
+        order.verify(redisTemplate).execute(eq(FlashSaleStockService.ACK_DELTAS), anyList(), eq("3"));
+        order.verify(productRepository).endFlashSale(PRODUCT_ID, Set.of("r1"));
+        order.verify(redisTemplate).delete(List.of(FlashSaleStockService.stockKey(PRODUCT_ID),
+                FlashSaleStockService.holdsKey(PRODUCT_ID)));
+        order.verify(setOperations).remove("flash-sale:products", PRODUCT_ID);
+        verify(eventPublisher, times(2)).publish(product, "PRODUCT_STOCK_UPDATED");
+    }
+
+    @Test
+    @DisplayName("Should clear the MongoDB flag when the counters are missing")
+    void testDisableWithoutCounters() {
+        // Given: an enable stopped after fencing MongoDB
+        whenScript(FlashSaleStockService.TAKE_DELTAS).thenReturn(List.of(-1L, 0L, 0L, 0L, 0L));
+        when(productRepository.endFlashSale(PRODUCT_ID, null))
+                .thenReturn(Product.builder().id(PRODUCT_ID).sku("SKU-1").build());
+
+        // When
+        flashSaleStock.disable(PRODUCT_ID);
+
+        // Then
+        verify(productRepository, times(1)).endFlashSale(PRODUCT_ID, null);
+        verify(productRepository, never()).applyStockDelta(anyString(), anyInt(), anyInt(), anyLong());
+        verify(setOperations, times(1)).remove("flash-sale:products", PRODUCT_ID);
+    }
+
+    @Test
+    @DisplayName("Should keep deltas pending when the write-back fails")
+    void testDisableWriteBackFailure() {
+        // Given
+        whenScript(FlashSaleStockService.TAKE_DELTAS).thenReturn(List.of(1L, -5L, 5L, 3L, 1L));
+        when(productRepository.applyStockDelta(PRODUCT_ID, -5, 5, 3L))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"));
+
+        // When / Then
+        assertThatThrownBy(() -> flashSaleStock.disable(PRODUCT_ID))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(redisTemplate, never()).execute(eq(FlashSaleStockService.ACK_DELTAS), anyList(), any(Object[].class));
+        verify(productRepository, never()).endFlashSale(anyString(), any());
+        verify(redisTemplate, never()).delete(anyList());
+    }
+
+    @Test
+    @DisplayName("Should finish a disable that stopped part-way on reconcile")
+    void testReconcileFinishesDisable() {
+        // Given
+        when(setOperations.members("flash-sale:products")).thenReturn(Set.of(PRODUCT_ID));
+        whenScript(FlashSaleStockService.TAKE_DELTAS).thenReturn(List.of(1L, 0L, 0L, 0L, 1L));
+        when(setOperations.members(FlashSaleStockService.holdsKey(PRODUCT_ID))).thenReturn(Set.of());
+
+        // When
+        flashSaleStock.reconcile();
+
+        // Then
+        verify(productRepository, times(1)).endFlashSale(PRODUCT_ID, Set.of());
+        verify(setOperations, times(1)).remove("flash-sale:products", PRODUCT_ID);
+        assertThat(flashSaleStock.isEnabled(PRODUCT_ID)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a write-back only after MongoDB applied it")
+    void testReconcileWritesBack() {
+        // Given
+        when(setOperations.members("flash-sale:products")).thenReturn(Set.of(PRODUCT_ID));
+        whenScript(FlashSaleStockService.TAKE_DELTAS).thenReturn(List.of(1L, -2L, 2L, 7L, 0L));
+        when(productRepository.applyStockDelta(PRODUCT_ID, -2, 2, 7L))
+                .thenReturn(Product.builder().id(PRODUCT_ID).sku("SKU-1").build());
+
+        // When
+        flashSaleStock.reconcile();
+
+        // Then
+        InOrder order = inOrder(productRepository, redisTemplate);
+        order.verify(productRepository).applyStockDelta(PRODUCT_ID, -2, 2, 7L);
+        order.verify(redisTemplate).execute(eq(FlashSaleStockService.ACK_DELTAS), anyList(), eq("7"));
+        verify(productRepository, never()).endFlashSale(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse holds while the product leaves flash-sale mode")
+    void testHoldWhileClosing() {
+        // Given
+        whenScript(FlashSaleStockService.HOLD).thenReturn(List.of(FlashSaleStockService.CLOSING, 0L, 0L));
+
+        // When / Then
+        assertThatThrownBy(() -> flashSaleStock.hold(PRODUCT_ID, 1, "r1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OngoingStubbing<Object> whenScript(RedisScript<?> script) {
+        return when(redisTemplate.execute(eq((RedisScript<Object>) script), anyList(), any(Object[].class)));
+    }
+}
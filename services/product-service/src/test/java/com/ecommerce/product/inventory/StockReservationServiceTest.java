@@ -0,0 +1,322 @@
+package com.ecommerce.product.inventory;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.dto.StockReservationRequest;
+import com.ecommerce.product.dto.StockReservationResponse;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.InsufficientStockException;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.StockReservation;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Stock Reservation Service Tests")
+class StockReservationServiceTest {
+
+    private static final String RESERVATION_ID = "r1";
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ProductEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private FlashSaleStockService flashSaleStock;
+
+    private StockReservationService reservationService;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private StockReservation.Status savedStatus;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        reservationService = new StockReservationService(productRepository, reservationRepository,
+                eventPublisher, cacheInvalidator, flashSaleStock, executor);
+        ReflectionTestUtils.setField(reservationService, "defaultTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(reservationService, "maxTtl", Duration.ofHours(2));
+        when(reservationRepository.save(any(StockReservation.class))).thenAnswer(call -> {
+            StockReservation reservation = call.getArgument(0);
+            reservation.setId(RESERVATION_ID);
+            savedStatus = reservation.getStatus();
+            return reservation;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should save the reservation as pending before holding stock")
+    void testReserveSavesPendingFirst() {
+        // Given
+        when(productRepository.holdStock("p1", null, 2, RESERVATION_ID)).thenReturn(stock("p1", 8, 2));
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RESERVED)).thenReturn(pending());
+
+        // When
+        StockReservationResponse response = reservationService.reserve(request(item("p1", 2)));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(StockReservation.Status.RESERVED);
+        InOrder order = inOrder(reservationRepository, productRepository);
+        order.verify(reservationRepository).save(any(StockReservation.class));
+        assertThat(savedStatus).isEqualTo(StockReservation.Status.PENDING);
+        order.verify(productRepository).holdStock("p1", null, 2, RESERVATION_ID);
+        order.verify(reservationRepository).transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RESERVED);
+        verify(eventPublisher, times(1)).publishStockUpdates(anyList());
+    }
+
+    @Test
+    @DisplayName("Should give back held lines when another line cannot be covered")
+    void testReserveInsufficientStockReleasesHeldLines() {
+        // Given
+        when(productRepository.holdStock("p1", null, 2, RESERVATION_ID)).thenReturn(stock("p1", 8, 2));
+        when(productRepository.holdStock("p2", null, 5, RESERVATION_ID)).thenReturn(null);
+        when(productRepository.settleHold("p1", null, 2, -2, RESERVATION_ID)).thenReturn(stock("p1", 10, 0));
+
+        // When / Then
+        assertThatThrownBy(() -> reservationService.reserve(request(item("p1", 2), item("p2", 5))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("product p2");
+        verify(productRepository, times(1)).settleHold("p1", null, 2, -2, RESERVATION_ID);
+        verify(productRepository, times(1)).settleHold("p2", null, 5, -5, RESERVATION_ID);
+        verify(reservationRepository, times(1)).transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RELEASED);
+        verify(reservationRepository, never()).transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RESERVED);
+    }
+
+    @Test
+    @DisplayName("Should treat a hold applied by a failed attempt as taken")
+    void testReserveRetriesAmbiguousHold() {
+        // Given: the first attempt is applied but its reply is lost
+        when(productRepository.holdStock("p1", null, 2, RESERVATION_ID))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(null);
+        when(productRepository.findStockWithHold("p1", null, RESERVATION_ID)).thenReturn(stock("p1", 8, 2));
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RESERVED)).thenReturn(pending());
+
+        // When
+        StockReservationResponse response = reservationService.reserve(request(item("p1", 2)));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(StockReservation.Status.RESERVED);
+        verify(productRepository, times(2)).holdStock("p1", null, 2, RESERVATION_ID);
+        verify(productRepository, never()).settleHold(anyString(), any(), anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should give back held stock when holding keeps failing")
+    void testReserveGivesUpAfterRetries() {
+        // Given
+        when(productRepository.holdStock("p1", null, 2, RESERVATION_ID))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"));
+
+        // When / Then
+        assertThatThrownBy(() -> reservationService.reserve(request(item("p1", 2))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(productRepository, times(3)).holdStock("p1", null, 2, RESERVATION_ID);
+        verify(productRepository, times(1)).settleHold("p1", null, 2, -2, RESERVATION_ID);
+    }
+
+    @Test
+    @DisplayName("Should settle every line before closing a commit")
+    void testCommit() {
+        // Given
+        StockReservation reservation = reservation(StockReservation.Status.RESERVED);
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.RESERVED,
+                StockReservation.Status.COMMITTING)).thenReturn(reservation);
+        when(productRepository.settleHold("p1", null, 0, -2, RESERVATION_ID)).thenReturn(stock("p1", 8, 0));
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.COMMITTING,
+                StockReservation.Status.COMMITTED)).thenReturn(reservation);
+
+        // When
+        StockReservationResponse response = reservationService.commit(RESERVATION_ID);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(StockReservation.Status.COMMITTED);
+        InOrder order = inOrder(reservationRepository, productRepository);
+        order.verify(reservationRepository).transition(RESERVATION_ID, StockReservation.Status.RESERVED,
+                StockReservation.Status.COMMITTING);
+        order.verify(productRepository).settleHold("p1", null, 0, -2, RESERVATION_ID);
+        order.verify(reservationRepository).transition(RESERVATION_ID, StockReservation.Status.COMMITTING,
+                StockReservation.Status.COMMITTED);
+    }
+
+    @Test
+    @DisplayName("Should keep a commit open when settling fails and resume it on retry")
+    void testCommitResumesAfterFailure() {
+        // Given
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.RESERVED,
+                StockReservation.Status.COMMITTING))
+                .thenReturn(reservation(StockReservation.Status.RESERVED))
+                .thenReturn(null);
+        when(reservationRepository.findById(RESERVATION_ID))
+                .thenReturn(Optional.of(reservation(StockReservation.Status.COMMITTING)));
+        when(productRepository.settleHold("p1", null, 0, -2, RESERVATION_ID))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"))
+                .thenReturn(stock("p1", 8, 0));
+
+        // When
+        assertThatThrownBy(() -> reservationService.commit(RESERVATION_ID))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(reservationRepository, never()).transition(RESERVATION_ID, StockReservation.Status.COMMITTING,
+                StockReservation.Status.COMMITTED);
+        StockReservationResponse response = reservationService.commit(RESERVATION_ID);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(StockReservation.Status.COMMITTED);
+        verify(reservationRepository, times(1)).transition(RESERVATION_ID, StockReservation.Status.COMMITTING,
+                StockReservation.Status.COMMITTED);
+    }
+
+    @Test
+    @DisplayName("Should treat a line without a hold as already settled")
+    void testReleaseAlreadySettledLine() {
+        // Given
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.RESERVED,
+                StockReservation.Status.RELEASING)).thenReturn(reservation(StockReservation.Status.RESERVED));
+        when(productRepository.settleHold("p1", null, 2, -2, RESERVATION_ID)).thenReturn(null);
+        when(productRepository.findStockWithHold("p1", null, RESERVATION_ID)).thenReturn(null);
+
+        // When
+        StockReservationResponse response = reservationService.release(RESERVATION_ID);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(StockReservation.Status.RELEASED);
+        verify(eventPublisher, never()).publishStockUpdates(anyList());
+    }
+
+    @Test
+    @DisplayName("Should release pending reservations left behind past their TTL")
+    void testReleaseExpiredPending() {
+        // Given
+        StockReservation pending = reservation(StockReservation.Status.PENDING);
+        when(reservationRepository.findByStatusInAndExpiresAtBefore(anyCollection(), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(List.of(pending));
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.EXPIRING)).thenReturn(pending);
+        when(productRepository.settleHold("p1", null, 2, -2, RESERVATION_ID)).thenReturn(stock("p1", 10, 0));
+
+        // When
+        reservationService.releaseExpired();
+
+        // Then
+        verify(productRepository, times(1)).settleHold("p1", null, 2, -2, RESERVATION_ID);
+        verify(reservationRepository, times(1)).transition(RESERVATION_ID, StockReservation.Status.EXPIRING,
+                StockReservation.Status.EXPIRED);
+    }
+
+    @Test
+    @DisplayName("Should stop the sweep after a failed batch")
+    void testReleaseExpiredStopsOnFailure() {
+        // Given
+        List<StockReservation> batch = IntStream.range(0, 100)
+                .mapToObj(i -> reservation(StockReservation.Status.EXPIRING))
+                .toList();
+        when(reservationRepository.findByStatusInAndExpiresAtBefore(anyCollection(), any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(batch);
+        when(productRepository.settleHold(eq("p1"), isNull(), anyInt(), anyInt(), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"));
+
+        // When
+        reservationService.releaseExpired();
+
+        // Then
+        verify(reservationRepository, times(1)).findByStatusInAndExpiresAtBefore(anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class));
+        verify(reservationRepository, never()).transition(anyString(), any(), eq(StockReservation.Status.EXPIRED));
+    }
+
+    @Test
+    @DisplayName("Should hold flash-sale products in Redis")
+    void testReserveFlashSaleProduct() {
+        // Given
+        when(flashSaleStock.isEnabled("p1")).thenReturn(true);
+        when(flashSaleStock.hold("p1", 2, RESERVATION_ID))
+                .thenReturn(Product.builder().id("p1").stockQuantity(8).reservedQuantity(2).flashSale(true).build());
+        when(reservationRepository.transition(RESERVATION_ID, StockReservation.Status.PENDING,
+                StockReservation.Status.RESERVED)).thenReturn(pending());
+
+        // When
+        reservationService.reserve(request(item("p1", 2)));
+
+        // Then
+        verify(productRepository, never()).holdStock(anyString(), any(), anyInt(), anyString());
+        verify(eventPublisher, never()).publishStockUpdates(anyList());
+    }
+
+    private static StockReservationRequest request(StockReservationRequest.Item... items) {
+        return new StockReservationRequest("order-1", List.of(items), null);
+    }
+
+    private static StockReservationRequest.Item item(String productId, int quantity) {
+        return new StockReservationRequest.Item(productId, null, quantity);
+    }
+
+    private static StockReservation pending() {
+        return reservation(StockReservation.Status.PENDING);
+    }
+
+    private static StockReservation reservation(StockReservation.Status status) {
+        return StockReservation.builder()
+                .id(RESERVATION_ID)
+                .reference("order-1")
+                .items(List.of(new StockReservation.Item("p1", null, 2)))
+                .status(status)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+
+    private static Product stock(String id, int available, int reserved) {
+        return Product.builder().id(id).sku("SKU-" + id).stockQuantity(available).reservedQuantity(reserved).build();
+    }
+}
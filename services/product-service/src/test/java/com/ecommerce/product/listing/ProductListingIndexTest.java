@@ -0,0 +1,113 @@
+package com.ecommerce.product.listing;
+
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Listing Index Tests")
+class ProductListingIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductListingIndex listingIndex;
+
+    @Test
+    @DisplayName("Should apply stock updates newer than the listed version")
+    void testUpdateStock() {
+        // Given
+        listingIndex.index(product(4L, 10));
+
+        // When
+        listingIndex.updateStock("p1", 8, 5L);
+
+        // Then
+        assertThat(stock()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should drop stock updates older than the listed version")
+    void testUpdateStockStale() {
+        // Given
+        listingIndex.index(product(4L, 10));
+        listingIndex.updateStock("p1", 6, 6L);
+
+        // When: a retried update from an earlier write arrives late
+        listingIndex.updateStock("p1", 8, 5L);
+
+        // Then
+        assertThat(stock()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the current listings while rebuilding")
+    void testReadDuringRebuild() {
+        // Given
+        listingIndex.index(product(4L, 10));
+        whenStreamed(Stream.of(product(4L, 10))
+                .peek(p -> assertThat(listingIndex.getCategory("cat-1", PageRequest.of(0, 10)).getTotalElements())
+                        .isEqualTo(1)));
+
+        // When
+        listingIndex.rebuild();
+
+        // Then
+        assertThat(listingIndex.isReady()).isTrue();
+        assertThat(stock()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should carry writes made during the rebuild into the new listings")
+    void testWritesDuringRebuild() {
+        // Given: a stock update and a new product arrive while the cursor is open
+        Product other = Product.builder().id("p2").categoryId("cat-1").active(true)
+                .createdAt(LocalDateTime.now().minusDays(1)).stockQuantity(3).version(1L).build();
+        whenStreamed(Stream.of(product(4L, 10))
+                .onClose(() -> {
+                    listingIndex.updateStock("p1", 7, 5L);
+                    listingIndex.index(other);
+                }));
+
+        // When
+        listingIndex.rebuild();
+
+        // Then
+        assertThat(listingIndex.getCategory("cat-1", PageRequest.of(0, 10)).getContent())
+                .extracting(ProductSummary::getId, ProductSummary::getStockQuantity)
+                .containsExactly(tuple("p1", 7), tuple("p2", 3));
+    }
+
+    private void whenStreamed(Stream<Product> products) {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(products);
+    }
+
+    private Integer stock() {
+        return listingIndex.getCategory("cat-1", PageRequest.of(0, 10)).getContent().stream()
+                .map(ProductSummary::getStockQuantity)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Product product(Long version, int stock) {
+        return Product.builder().id("p1").categoryId("cat-1").active(true)
+                .createdAt(LocalDateTime.now()).stockQuantity(stock).version(version).build();
+    }
+}
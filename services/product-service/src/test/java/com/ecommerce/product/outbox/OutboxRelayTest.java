@@ -0,0 +1,186 @@
+package com.ecommerce.product.outbox;
+
+import com.ecommerce.product.coordination.MongoLeases;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Outbox Relay Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private ProducerFactory<String, Object> producerFactory;
+
+    @Mock
+    private MongoLeases leases;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerRun", 20);
+        ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(relay, "leaseTtl", Duration.ofSeconds(30));
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(
+                OutboxEvent.builder().id("e1").sequence(1L).topic("product-events").messageKey("p1").payload("x").build()));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxWriter.KEY_SEQUENCE_COLLECTION))
+                .thenReturn(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("Should delete the acknowledged prefix while holding the lease")
+    void testRelay() {
+        // Given
+        when(leases.tryAcquire(anyString(), anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate, times(1)).send("product-events", "p1", "x");
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should not delete records after losing the lease during the send")
+    void testLeaseLostWhileSending() {
+        // Given
+        when(leases.tryAcquire(anyString(), anyString(), anyString(), any(Duration.class)))
+                .thenReturn(true)
+                .thenReturn(false);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate, times(1)).send("product-events", "p1", "x");
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should send the records of a key in key order, loading predecessors outside the batch")
+    void testKeyOrder() {
+        // Given: the second write of p1 took the lower sequence number
+        when(leases.tryAcquire(anyString(), anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class)))
+                .thenReturn(List.of(keyed("e2", 1L, 2L, "second")))
+                .thenReturn(List.of(keyed("e1", 2L, 1L, "first")));
+
+        // When
+        relay.relay();
+
+        // Then
+        InOrder order = inOrder(kafkaTemplate);
+        order.verify(kafkaTemplate).send("product-events", "p1", "first");
+        order.verify(kafkaTemplate).send("product-events", "p1", "second");
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    @DisplayName("Should drop records relayed before without sending them again")
+    void testSkipRelayed() {
+        // Given: a previous run was acknowledged up to 2 but stopped before the delete
+        when(leases.tryAcquire(anyString(), anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(OutboxWriter.KEY_SEQUENCE_COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "p1").append("value", 3L).append("relayed", 2L)));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class)))
+                .thenReturn(List.of(keyed("e2", 2L, 2L, "second"), keyed("e3", 3L, 3L, "third")));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate, never()).send("product-events", "p1", "second");
+        verify(kafkaTemplate, times(1)).send("product-events", "p1", "third");
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should hold back a key behind a gap")
+    void testHoldBehindGap() {
+        // Given
+        when(leases.tryAcquire(anyString(), anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class)))
+                .thenReturn(List.of(keyed("e3", 1L, 3L, "third")))
+                .thenReturn(List.of());
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(OutboxEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when a send can outlive the lease")
+    void testTimeoutsChecked() {
+        // Given: the producer default delivery timeout of two minutes
+        when(producerFactory.getConfigurationProperties()).thenReturn(Map.of());
+
+        // When / Then
+        assertThatThrownBy(() -> relay.checkTimeouts()).isInstanceOf(IllegalStateException.class);
+
+        // Given
+        when(producerFactory.getConfigurationProperties())
+                .thenReturn(Map.of(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, "10000"));
+
+        // When / Then
+        assertThatCode(() -> relay.checkTimeouts()).doesNotThrowAnyException();
+
+        // Given
+        ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(30));
+
+        // When / Then
+        assertThatThrownBy(() -> relay.checkTimeouts()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static OutboxEvent keyed(String id, Long sequence, Long keySequence, String payload) {
+        return OutboxEvent.builder().id(id).sequence(sequence).keySequence(keySequence)
+                .topic("product-events").messageKey("p1").payload(payload).build();
+    }
+}
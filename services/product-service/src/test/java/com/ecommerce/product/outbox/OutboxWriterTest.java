@@ -0,0 +1,187 @@
+package com.ecommerce.product.outbox;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Outbox Writer Tests")
+class OutboxWriterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabaseFactory databaseFactory;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private MongoCollection<Document> sequences;
+
+    @Mock
+    private ObjectProvider<MongoTransactionManager> transactionManager;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private OutboxWriter outboxWriter;
+
+    @BeforeEach
+    void setUp() {
+        // Emulates the server-side counter: each increment returns the new value
+        AtomicLong counter = new AtomicLong();
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(databaseFactory);
+        when(databaseFactory.getMongoDatabase()).thenReturn(database);
+        when(database.getCollection(OutboxWriter.SEQUENCE_COLLECTION)).thenReturn(sequences);
+        when(sequences.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+                .thenAnswer(call -> {
+                    long increment = call.<Bson>getArgument(1).toBsonDocument()
+                            .getDocument("$inc").getInt64("value").getValue();
+                    return new Document("value", counter.addAndGet(increment));
+                });
+        // Emulates the per-key counters, read back after a bulk increment
+        Map<String, Long> keyCounters = new HashMap<>();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(OutboxWriter.KEY_SEQUENCE_COLLECTION)))
+                .thenAnswer(call -> {
+                    String key = idOf(call.getArgument(0));
+                    long increment = incrementOf(call.getArgument(1));
+                    return new Document("_id", key).append("value", keyCounters.merge(key, increment, Long::sum));
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxWriter.KEY_SEQUENCE_COLLECTION))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.upsert(any(Query.class), any(Update.class))).thenAnswer(call -> {
+            keyCounters.merge(idOf(call.getArgument(0)), incrementOf(call.getArgument(1)), Long::sum);
+            return bulkOperations;
+        });
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(OutboxWriter.KEY_SEQUENCE_COLLECTION)))
+                .thenAnswer(call -> keyCounters.entrySet().stream()
+                        .filter(entry -> ((Collection<?>) ((Document) call.<Query>getArgument(0).getQueryObject()
+                                .get("_id")).get("$in")).contains(entry.getKey()))
+                        .map(entry -> new Document("_id", entry.getKey()).append("value", entry.getValue()))
+                        .toList());
+        outboxWriter = new OutboxWriter(mongoTemplate, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should number appended records from the shared counter")
+    void testAppendAssignsIncreasingSequences() {
+        // When
+        outboxWriter.append("product-events", "p1", "first");
+        outboxWriter.append("product-events", "p1", "second");
+
+        // Then
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(mongoTemplate, times(2)).insert(captor.capture());
+        assertThat(captor.getAllValues()).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L);
+        assertThat(captor.getAllValues()).extracting(OutboxEvent::getPayload).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("Should reserve one block of sequences for a batch")
+    @SuppressWarnings("unchecked")
+    void testAppendAllReservesBlock() {
+        // Given
+        outboxWriter.append("product-events", "p0", "before");
+
+        // When
+        outboxWriter.appendAll("product-events", List.of("a", "b", "c"), payload -> "key-" + payload);
+
+        // Then
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(captor.capture(), eq(OutboxEvent.class));
+        assertThat(captor.getValue()).extracting(OutboxEvent::getSequence).containsExactly(2L, 3L, 4L);
+        assertThat(captor.getValue()).extracting(OutboxEvent::getMessageKey).containsExactly("key-a", "key-b", "key-c");
+        verify(sequences, times(2)).findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class));
+    }
+
+    @Test
+    @DisplayName("Should number the records of each key without gaps")
+    @SuppressWarnings("unchecked")
+    void testKeySequences() {
+        // Given
+        outboxWriter.append("product-events", "p1", "created");
+
+        // When
+        outboxWriter.appendAll("product-events", List.of("p1", "p2", "p1"), payload -> payload);
+
+        // Then
+        ArgumentCaptor<OutboxEvent> single = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(mongoTemplate).insert(single.capture());
+        assertThat(single.getValue().getKeySequence()).isEqualTo(1L);
+        ArgumentCaptor<List<OutboxEvent>> batch = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(batch.capture(), eq(OutboxEvent.class));
+        assertThat(batch.getValue()).extracting(OutboxEvent::getMessageKey, OutboxEvent::getKeySequence)
+                .containsExactly(tuple("p1", 2L), tuple("p2", 1L), tuple("p1", 3L));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without transactions unless the change stream publishes")
+    void testRequiresTransactions() {
+        // Given
+        when(transactionManager.getIfAvailable()).thenReturn(null);
+
+        // When / Then
+        assertThatThrownBy(() -> outboxWriter.requireTransactions()).isInstanceOf(IllegalStateException.class);
+
+        // Given
+        ReflectionTestUtils.setField(outboxWriter, "changeStreamEnabled", true);
+
+        // When / Then
+        assertThatCode(() -> outboxWriter.requireTransactions()).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should not touch the counter for an empty batch")
+    void testAppendAllEmpty() {
+        // When
+        outboxWriter.appendAll("product-events", List.of(), String::valueOf);
+
+        // Then
+        verify(mongoTemplate, never()).insert(anyList(), eq(OutboxEvent.class));
+        verifyNoInteractions(sequences);
+    }
+
+    private static String idOf(Query query) {
+        return query.getQueryObject().getString("_id");
+    }
+
+    private static long incrementOf(Update update) {
+        return ((Document) update.getUpdateObject().get("$inc")).get("value", Number.class).longValue();
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.product.pagination;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Product Cursor Tests")
+class ProductCursorTest {
+
+    @Test
+    @DisplayName("Should decode what it encodes")
+    void testRoundTrip() {
+        // Given
+        ProductCursor cursor = new ProductCursor("price", Sort.Direction.DESC, "673e8f9a1234567890abcdef", "1299.99");
+
+        // When
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Should keep separators inside the last sort value")
+    void testRoundTripValueWithSeparator() {
+        // Given
+        ProductCursor cursor = new ProductCursor("name", Sort.Direction.ASC, "p1", "Line one\nLine two");
+
+        // When
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded.getLastValue()).isEqualTo("Line one\nLine two");
+    }
+
+    @Test
+    @DisplayName("Should tell a missing sort value apart from the string null")
+    void testRoundTripNullValue() {
+        // Given
+        ProductCursor missing = new ProductCursor("createdAt", Sort.Direction.ASC, "p1", null);
+        ProductCursor literal = new ProductCursor("name", Sort.Direction.ASC, "p1", "null");
+
+        // When / Then
+        assertThat(ProductCursor.decode(missing.encode()).getLastValue()).isNull();
+        assertThat(ProductCursor.decode(literal.encode()).getLastValue()).isEqualTo("null");
+    }
+
+    @Test
+    @DisplayName("Should produce URL-safe tokens")
+    void testUrlSafe() {
+        // Given
+        ProductCursor cursor = new ProductCursor("name", Sort.Direction.ASC, "p1", "???>>>~~~");
+
+        // When
+        String token = cursor.encode();
+
+        // Then
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    @DisplayName("Should reject tokens that are not cursors")
+    void testDecodeInvalid() {
+        String missingParts = Base64.getUrlEncoder().encodeToString("name\nASC".getBytes(StandardCharsets.UTF_8));
+        String badDirection = Base64.getUrlEncoder().encodeToString("name\nUP\np1\nx".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(missingParts))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(badDirection))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another ordering")
+    void testRequireOrdering() {
+        // Given
+        ProductCursor cursor = new ProductCursor("price", Sort.Direction.ASC, "p1", "10");
+
+        // When / Then
+        assertThat(cursor.requireOrdering("price", Sort.Direction.ASC)).isSameAs(cursor);
+        assertThatThrownBy(() -> cursor.requireOrdering("price", Sort.Direction.DESC))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cursor.requireOrdering("createdAt", Sort.Direction.ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Search Index Tests")
+class ProductSearchIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(searchIndex, "indexPath", "");
+        searchIndex.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchIndex.close();
+    }
+
+    @Test
+    @DisplayName("Should drop products the rebuild no longer reads")
+    void testRebuildRemovesInactive() {
+        // Given
+        searchIndex.index(product("p1", "Wireless Mouse"));
+        searchIndex.index(product("p2", "Wireless Keyboard"));
+        whenStreamed(Stream.of(product("p1", "Wireless Mouse")));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(search("wireless")).containsExactly("p1");
+    }
+
+    @Test
+    @DisplayName("Should keep serving existing documents while rebuilding")
+    void testRebuildKeepsDocumentsVisible() {
+        // Given
+        searchIndex.index(product("p1", "Wireless Mouse"));
+        searchIndex.refresh();
+        whenStreamed(Stream.of(product("p1", "Wireless Mouse"))
+                .peek(p -> {
+                    searchIndex.refresh();
+                    assertThat(search("wireless")).containsExactly("p1");
+                }));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(search("wireless")).containsExactly("p1");
+    }
+
+    @Test
+    @DisplayName("Should not overwrite a product indexed during the rebuild with the older read")
+    void testRebuildKeepsConcurrentUpdate() {
+        // Given: the listener indexes a newer version after the cursor read the old one
+        whenStreamed(Stream.of(product("p1", "Wireless Mouse"))
+                .peek(p -> searchIndex.index(product("p1", "Ergonomic Mouse"))));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(search("ergonomic")).containsExactly("p1");
+        assertThat(search("wireless")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not resurrect a product removed during the rebuild")
+    void testRebuildKeepsConcurrentRemoval() {
+        // Given
+        whenStreamed(Stream.of(product("p1", "Wireless Mouse"))
+                .peek(p -> searchIndex.remove("p1")));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(search("wireless")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep a product the listener added during the rebuild")
+    void testRebuildKeepsConcurrentInsert() {
+        // Given: p2 was created after the cursor passed it
+        whenStreamed(Stream.of(product("p1", "Wireless Mouse"))
+                .peek(p -> searchIndex.index(product("p2", "Wireless Keyboard"))));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertThat(search("wireless")).containsExactlyInAnyOrder("p1", "p2");
+    }
+
+    private void whenStreamed(Stream<Product> products) {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(products);
+    }
+
+    private List<String> search(String text) {
+        return searchIndex.search(text, PageRequest.of(0, 10)).getContent();
+    }
+
+    private Product product(String id, String name) {
+        return Product.builder().id(id).name(name).active(true).build();
+    }
+}
@@ -1,12 +1,23 @@
-package com.ecommerce.productservice.service;
-
-import com.ecommerce.productservice.dto.ProductRequest;
-import com.ecommerce.productservice.dto.ProductResponse;
-import com.ecommerce.productservice.event.ProductEvent;
-import com.ecommerce.productservice.exception.ProductNotFoundException;
-import com.ecommerce.productservice.model.Product;
-import com.ecommerce.productservice.model.ProductVariant;
-import com.ecommerce.productservice.repository.ProductRepository;
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.cache.BatchCacheOperations;
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.category.CategoryTreeService;
+import com.ecommerce.product.dto.CursorPage;
+import com.ecommerce.product.dto.ProductRequest;
+import com.ecommerce.product.dto.ProductResponse;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.event.ProductEventPublisher;
+import com.ecommerce.product.exception.ProductNotFoundException;
+import com.ecommerce.product.existence.ProductExistenceFilter;
+import com.ecommerce.product.facet.ProductFacetIndex;
+import com.ecommerce.product.inventory.FlashSaleStockService;
+import com.ecommerce.product.listing.ProductListingIndex;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductVariant;
+import com.ecommerce.product.pagination.ProductCursor;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,17 +26,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,19 +52,47 @@ class ProductServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private KafkaTemplate<String, ProductEvent> kafkaTemplate;
+    private ProductEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private BatchCacheOperations batchCache;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private FlashSaleStockService flashSaleStock;
+
+    @Mock
+    private ProductListingIndex listingIndex;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
+    @Mock
+    private ProductExistenceFilter existenceFilter;
 
     @InjectMocks
     private ProductService productService;
 
     private Product testProduct;
     private ProductRequest testRequest;
+    private ProductSummary testSummary;
     private String productId;
 
     @BeforeEach
     void setUp() {
         productId = "673e8f9a1234567890abcdef";
-        
+
         // Setup test product
         testProduct = new Product();
         testProduct.setId(productId);
@@ -78,6 +121,14 @@ class ProductServiceTest {
         testRequest.setStockQuantity(100);
         testRequest.setBrand("TestBrand");
         testRequest.setTags(Arrays.asList("test", "product"));
+
+        testSummary = ProductSummary.builder()
+                .id(productId)
+                .sku("TEST-001")
+                .name("Test Product")
+                .price(new BigDecimal("99.99"))
+                .stockQuantity(100)
+                .build();
     }
 
     @Test
@@ -97,7 +148,9 @@ class ProductServiceTest {
         assertThat(response.getPrice()).isEqualByComparingTo(new BigDecimal("99.99"));
 
         verify(productRepository, times(1)).save(any(Product.class));
-        verify(kafkaTemplate, times(1)).send(eq("product-events"), any(ProductEvent.class));
+        verify(existenceFilter, times(1)).register(testProduct);
+        verify(cacheInvalidator, times(1)).evictListings();
+        verify(eventPublisher, times(1)).publish(testProduct, "PRODUCT_CREATED");
     }
 
     @Test
@@ -156,93 +209,130 @@ class ProductServiceTest {
         // When/Then
         assertThatThrownBy(() -> productService.getProductBySku("INVALID-SKU"))
             .isInstanceOf(ProductNotFoundException.class)
-            .hasMessageContaining("Product not found with sku: INVALID-SKU");
+            .hasMessageContaining("Product not found with SKU: INVALID-SKU");
 
         verify(productRepository, times(1)).findBySku("INVALID-SKU");
     }
 
+    @Test
+    @DisplayName("Should get products by IDs from cache and repository in request order")
+    void testGetProductsByIds() {
+        // Given
+        Product other = new Product();
+        other.setId("673e8f9a1234567890abcd00");
+        other.setSku("TEST-002");
+        other.setName("Other Product");
+        ProductResponse cached = ProductResponse.builder().id(other.getId()).sku("TEST-002").build();
+
+        when(existenceFilter.mightExistById(anyString())).thenAnswer(call -> !"unknown".equals(call.getArgument(0)));
+        when(batchCache.getAll(eq(ProductCacheInvalidator.PRODUCTS_CACHE), any(), eq(ProductResponse.class)))
+                .thenReturn(new HashMap<>(Map.of(other.getId(), cached)));
+        when(productRepository.findAllById(List.of(productId))).thenReturn(List.of(testProduct));
+
+        // When
+        List<ProductResponse> response = productService.getProductsByIds(
+                List.of(productId, "unknown", other.getId(), productId));
+
+        // Then
+        assertThat(response).extracting(ProductResponse::getId).containsExactly(productId, other.getId());
+        verify(productRepository, times(1)).findAllById(List.of(productId));
+        verify(batchCache, times(1)).putAll(eq(ProductCacheInvalidator.PRODUCTS_CACHE), any(), anyLong());
+    }
+
     @Test
     @DisplayName("Should get all products with pagination")
     void testGetAllProducts() {
         // Given
-        List<Product> products = Arrays.asList(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 20);
+        Page<ProductSummary> productPage = new PageImpl<>(List.of(testSummary));
 
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findByActiveTrue(pageable)).thenReturn(productPage);
 
         // When
-        Page<ProductResponse> response = productService.getAllProducts(pageable);
+        Page<ProductSummary> response = productService.getAllProducts(pageable);
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getContent()).hasSize(1);
         assertThat(response.getContent().get(0).getId()).isEqualTo(productId);
 
-        verify(productRepository, times(1)).findAll(pageable);
+        verify(productRepository, times(1)).findByActiveTrue(pageable);
     }
 
     @Test
-    @DisplayName("Should get products by category")
+    @DisplayName("Should get products by category from the repository while the listing index builds")
     void testGetProductsByCategory() {
         // Given
-        List<Product> products = Arrays.asList(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 20);
+        Page<ProductSummary> productPage = new PageImpl<>(List.of(testSummary));
 
-        when(productRepository.findByCategoryId("cat-001", pageable)).thenReturn(productPage);
+        when(listingIndex.isReady()).thenReturn(false);
+        when(productRepository.findByCategoryIdAndActiveTrue(eq("cat-001"), any(Pageable.class)))
+                .thenReturn(productPage);
 
         // When
-        Page<ProductResponse> response = productService.getProductsByCategory("cat-001", pageable);
+        Page<ProductSummary> response = productService.getProductsByCategory("cat-001", pageable);
 
         // Then
-        assertThat(response).isNotNull();
         assertThat(response.getContent()).hasSize(1);
-        assertThat(response.getContent().get(0).getCategoryId()).isEqualTo("cat-001");
 
-        verify(productRepository, times(1)).findByCategoryId("cat-001", pageable);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(productRepository, times(1)).findByCategoryIdAndActiveTrue(eq("cat-001"), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getSort())
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
     }
 
     @Test
-    @DisplayName("Should search products by query")
+    @DisplayName("Should search products by query through the search index")
     void testSearchProducts() {
         // Given
-        List<Product> products = Arrays.asList(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
         Pageable pageable = PageRequest.of(0, 20);
 
-        when(productRepository.searchByNameOrDescription("test", pageable)).thenReturn(productPage);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("test", pageable)).thenReturn(new PageImpl<>(List.of(productId), pageable, 1));
+        when(productRepository.findSummariesByIdIn(List.of(productId))).thenReturn(List.of(testSummary));
 
         // When
-        Page<ProductResponse> response = productService.searchProducts("test", pageable);
+        Page<ProductSummary> response = productService.searchProducts("test", pageable);
 
         // Then
         assertThat(response).isNotNull();
-        assertThat(response.getContent()).hasSize(1);
-
-        verify(productRepository, times(1)).searchByNameOrDescription("test", pageable);
+        assertThat(response.getContent()).containsExactly(testSummary);
+        assertThat(response.getTotalElements()).isEqualTo(1);
+        verify(productRepository, never()).findByNameContainingIgnoreCaseAndActiveTrue(anyString(), any());
     }
 
     @Test
-    @DisplayName("Should get featured products")
-    void testGetFeaturedProducts() {
+    @DisplayName("Should fall back to a repository scan while the search index builds")
+    void testSearchProductsIndexNotReady() {
         // Given
-        testProduct.setFeatured(true);
-        List<Product> products = Arrays.asList(testProduct);
-        Page<Product> productPage = new PageImpl<>(products);
-        Pageable pageable = PageRequest.of(0, 10);
+        Pageable pageable = PageRequest.of(0, 20);
 
-        when(productRepository.findByFeaturedTrue(pageable)).thenReturn(productPage);
+        when(searchIndex.isReady()).thenReturn(false);
+        when(productRepository.findByNameContainingIgnoreCaseAndActiveTrue("test", pageable))
+                .thenReturn(new PageImpl<>(List.of(testSummary)));
 
         // When
-        Page<ProductResponse> response = productService.getFeaturedProducts(pageable);
+        Page<ProductSummary> response = productService.searchProducts("test", pageable);
 
         // Then
-        assertThat(response).isNotNull();
         assertThat(response.getContent()).hasSize(1);
-        assertThat(response.getContent().get(0).isFeatured()).isTrue();
+        verify(searchIndex, never()).search(anyString(), any());
+    }
 
-        verify(productRepository, times(1)).findByFeaturedTrue(pageable);
+    @Test
+    @DisplayName("Should get featured products from the listing index")
+    void testGetFeaturedProducts() {
+        // Given
+        when(listingIndex.isReady()).thenReturn(true);
+        when(listingIndex.getFeatured()).thenReturn(List.of(testSummary));
+
+        // When
+        List<ProductSummary> response = productService.getFeaturedProducts();
+
+        // Then
+        assertThat(response).containsExactly(testSummary);
+        verify(productRepository, never()).findByFeaturedTrueAndActiveTrueOrderByCreatedAtDesc();
     }
 
     @Test
@@ -256,16 +346,66 @@ class ProductServiceTest {
         updateRequest.setStockQuantity(150);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        when(productRepository.save(any(Product.class))).thenAnswer(call -> call.getArgument(0));
 
         // When
         ProductResponse response = productService.updateProduct(productId, updateRequest);
 
         // Then
         assertThat(response).isNotNull();
+        assertThat(response.getName()).isEqualTo("Updated Product");
+        assertThat(response.getStockQuantity()).isEqualTo(150);
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(any(Product.class));
-        verify(kafkaTemplate, times(1)).send(eq("product-events"), any(ProductEvent.class));
+        verify(cacheInvalidator, times(1)).evictProduct(productId, "TEST-001");
+        verify(eventPublisher, times(1)).publish(any(Product.class), eq("PRODUCT_UPDATED"));
+    }
+
+    @Test
+    @DisplayName("Should keep the stock of a flash-sale product on update")
+    void testUpdateProductKeepsFlashSaleStock() {
+        // Given
+        testProduct.setFlashSale(true);
+        ProductRequest updateRequest = new ProductRequest();
+        updateRequest.setName("Updated Product");
+        updateRequest.setPrice(new BigDecimal("149.99"));
+        updateRequest.setStockQuantity(150);
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(call -> call.getArgument(0));
+
+        // When
+        ProductResponse response = productService.updateProduct(productId, updateRequest);
+
+        // Then
+        assertThat(response.getName()).isEqualTo("Updated Product");
+        assertThat(response.getStockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should keep reserved units and holds of variants on update")
+    void testUpdateProductKeepsVariantReservations() {
+        // Given
+        testProduct.setVariants(List.of(ProductVariant.builder()
+                .variantId("v1").stockQuantity(5).reservedQuantity(2).stockHolds(List.of("r1")).build()));
+        ProductRequest updateRequest = new ProductRequest();
+        updateRequest.setName("Updated Product");
+        updateRequest.setPrice(new BigDecimal("149.99"));
+        updateRequest.setVariants(List.of(ProductVariant.builder().variantId("v1").stockQuantity(7).build()));
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(call -> call.getArgument(0));
+
+        // When
+        productService.updateProduct(productId, updateRequest);
+
+        // Then
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(productRepository).save(captor.capture());
+        ProductVariant saved = captor.getValue().getVariants().get(0);
+        assertThat(saved.getStockQuantity()).isEqualTo(7);
+        assertThat(saved.getReservedQuantity()).isEqualTo(2);
+        assertThat(saved.getStockHolds()).containsExactly("r1");
     }
 
     @Test
@@ -281,23 +421,25 @@ class ProductServiceTest {
 
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, never()).save(any(Product.class));
-        verify(kafkaTemplate, never()).send(anyString(), any(ProductEvent.class));
+        verify(eventPublisher, never()).publish(any(), anyString());
     }
 
     @Test
-    @DisplayName("Should delete product successfully")
+    @DisplayName("Should deactivate product on delete")
     void testDeleteProduct() {
         // Given
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        doNothing().when(productRepository).deleteById(productId);
 
         // When
         productService.deleteProduct(productId);
 
         // Then
-        verify(productRepository, times(1)).findById(productId);
-        verify(productRepository, times(1)).deleteById(productId);
-        verify(kafkaTemplate, times(1)).send(eq("product-events"), any(ProductEvent.class));
+        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
+        verify(productRepository, times(1)).save(productCaptor.capture());
+        assertThat(productCaptor.getValue().getActive()).isFalse();
+        verify(productRepository, never()).deleteById(anyString());
+        verify(cacheInvalidator, times(1)).evictProduct(productId, "TEST-001");
+        verify(eventPublisher, times(1)).publish(testProduct, "PRODUCT_DELETED");
     }
 
     @Test
@@ -312,48 +454,53 @@ class ProductServiceTest {
             .hasMessageContaining("Product not found with id: " + productId);
 
         verify(productRepository, times(1)).findById(productId);
-        verify(productRepository, never()).deleteById(anyString());
-        verify(kafkaTemplate, never()).send(anyString(), any(ProductEvent.class));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher, never()).publish(any(), anyString());
     }
 
     @Test
     @DisplayName("Should update stock successfully")
     void testUpdateStock() {
         // Given
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        testProduct.setStockQuantity(200);
+        when(productRepository.setStock(productId, 200)).thenReturn(testProduct);
 
         // When
         productService.updateStock(productId, 200);
 
         // Then
-        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
-        verify(productRepository, times(1)).findById(productId);
-        verify(productRepository, times(1)).save(productCaptor.capture());
-        
-        Product savedProduct = productCaptor.getValue();
-        assertThat(savedProduct.getStockQuantity()).isEqualTo(200);
-
-        ArgumentCaptor<ProductEvent> eventCaptor = ArgumentCaptor.forClass(ProductEvent.class);
-        verify(kafkaTemplate, times(1)).send(eq("product-events"), eventCaptor.capture());
-        
-        ProductEvent event = eventCaptor.getValue();
-        assertThat(event.getEventType()).isEqualTo(ProductEvent.EventType.PRODUCT_STOCK_UPDATED);
+        verify(productRepository, times(1)).setStock(productId, 200);
+        verify(cacheInvalidator, times(1)).evictProduct(productId, "TEST-001");
+        verify(eventPublisher, times(1)).publish(testProduct, ProductEventPublisher.STOCK_UPDATED);
+    }
+
+    @Test
+    @DisplayName("Should route stock updates of flash-sale products to the flash-sale counters")
+    void testUpdateStockFlashSale() {
+        // Given
+        when(flashSaleStock.isEnabled(productId)).thenReturn(true);
+        when(flashSaleStock.setAvailable(productId, 200)).thenReturn(true);
+
+        // When
+        productService.updateStock(productId, 200);
+
+        // Then
+        verify(productRepository, never()).setStock(anyString(), anyInt());
+        verify(eventPublisher, never()).publish(any(), anyString());
     }
 
     @Test
     @DisplayName("Should throw exception when updating stock for non-existent product")
     void testUpdateStockNotFound() {
         // Given
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productRepository.setStock(productId, 200)).thenReturn(null);
 
         // When/Then
         assertThatThrownBy(() -> productService.updateStock(productId, 200))
             .isInstanceOf(ProductNotFoundException.class)
             .hasMessageContaining("Product not found with id: " + productId);
 
-        verify(productRepository, times(1)).findById(productId);
-        verify(productRepository, never()).save(any(Product.class));
+        verify(cacheInvalidator, never()).evictProduct(anyString(), anyString());
     }
 
     @Test
@@ -367,12 +514,12 @@ class ProductServiceTest {
         variant.setPrice(new BigDecimal("109.99"));
         variant.setStockQuantity(50);
         variant.setAvailable(true);
-        
+
         Map<String, String> attributes = new HashMap<>();
         attributes.put("color", "Red");
         attributes.put("size", "Large");
         variant.setAttributes(attributes);
-        
+
         testProduct.setVariants(Collections.singletonList(variant));
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
@@ -391,9 +538,9 @@ class ProductServiceTest {
         assertThat(response.getStockQuantity()).isEqualTo(100);
         assertThat(response.getBrand()).isEqualTo("TestBrand");
         assertThat(response.getTags()).containsExactly("test", "product");
-        assertThat(response.isActive()).isTrue();
-        assertThat(response.isFeatured()).isFalse();
-        
+        assertThat(response.getActive()).isTrue();
+        assertThat(response.getFeatured()).isFalse();
+
         // Verify variants
         assertThat(response.getVariants()).hasSize(1);
         assertThat(response.getVariants().get(0).getVariantId()).isEqualTo("v1");
@@ -412,7 +559,7 @@ class ProductServiceTest {
         variant.setPrice(new BigDecimal("109.99"));
         variant.setStockQuantity(50);
         variant.setAvailable(true);
-        
+
         testRequest.setVariants(Collections.singletonList(variant));
         testProduct.setVariants(Collections.singletonList(variant));
 
@@ -433,19 +580,41 @@ class ProductServiceTest {
     @DisplayName("Should handle empty search results")
     void testSearchProductsNoResults() {
         // Given
-        Page<Product> emptyPage = new PageImpl<>(Collections.emptyList());
         Pageable pageable = PageRequest.of(0, 20);
 
-        when(productRepository.searchByNameOrDescription("nonexistent", pageable)).thenReturn(emptyPage);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("nonexistent", pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 0));
+        when(productRepository.findSummariesByIdIn(List.of())).thenReturn(List.of());
 
         // When
-        Page<ProductResponse> response = productService.searchProducts("nonexistent", pageable);
+        Page<ProductSummary> response = productService.searchProducts("nonexistent", pageable);
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getContent()).isEmpty();
         assertThat(response.getTotalElements()).isZero();
+    }
 
-        verify(productRepository, times(1)).searchByNameOrDescription("nonexistent", pageable);
+    @Test
+    @DisplayName("Should continue a cursor page after a product without the sort field")
+    void testProductsAfterNullSortValue() {
+        // Given
+        Product undated = new Product();
+        undated.setId("p1");
+        undated.setName("Undated");
+        when(productRepository.findActiveAfter(null, "createdAt", Sort.Direction.ASC, null, null, 2))
+                .thenReturn(List.of(undated, testProduct));
+        when(productRepository.findActiveAfter(null, "createdAt", Sort.Direction.ASC, null, "p1", 2))
+                .thenReturn(List.of(testProduct));
+
+        // When
+        CursorPage<ProductSummary> first = productService.getProductsAfter(null, null, 1, "createdAt", "ASC");
+        CursorPage<ProductSummary> second = productService.getProductsAfter(null, first.getNextCursor(), 1, "createdAt", "ASC");
+
+        // Then
+        assertThat(first.getContent()).extracting(ProductSummary::getId).containsExactly("p1");
+        assertThat(ProductCursor.decode(first.getNextCursor()).getLastValue()).isNull();
+        assertThat(second.getContent()).extracting(ProductSummary::getId).containsExactly(productId);
+        assertThat(second.isHasNext()).isFalse();
     }
 }
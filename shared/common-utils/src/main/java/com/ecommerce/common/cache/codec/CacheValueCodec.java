@@ -0,0 +1,18 @@
+package com.ecommerce.common.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * Encodes cache values for {@link VersionedCacheSerializer}. Each codec owns a format id
+ * that is written into the header of every value it encodes, so readers can pick the
+ * matching codec after the writing format has moved on. Never reuse an id for a
+ * different encoding.
+ */
+public interface CacheValueCodec {
+
+    byte formatId();
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] payload) throws IOException;
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.common.cache.codec;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Format 1: Jackson Smile, a binary JSON encoding. Property names and short repeated
+ * strings are written once per value and back-referenced afterwards, numbers and
+ * {@code BigDecimal}s are stored in binary, and {@code java.time} values as numeric
+ * arrays. Concrete types are recorded for non-final classes so that values decode to
+ * the cached DTOs, including Spring Data pages.
+ */
+public class SmileCacheValueCodec implements CacheValueCodec {
+
+    public static final byte FORMAT_ID = 1;
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public SmileCacheValueCodec() {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        ObjectMapper mapper = configure(SmileMapper.builder(factory));
+        this.writer = mapper.writerFor(Object.class);
+        this.reader = mapper.readerFor(Object.class);
+    }
+
+    /**
+     * Applies the type handling and mix-ins this codec relies on to a mapper builder of
+     * any format, so the same value model can be compared against other encodings.
+     */
+    public static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M configure(B builder) {
+        return builder
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                                .allowIfSubType("com.ecommerce.")
+                                .allowIfSubType("java.util.")
+                                .allowIfSubType("java.math.")
+                                .allowIfSubType("java.time.")
+                                .allowIfSubType("org.springframework.data.domain.")
+                                .build(),
+                        ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY)
+                .filterProvider(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .addMixIn(PageImpl.class, PageImplMixIn.class)
+                .addMixIn(PageRequest.class, PageRequestMixIn.class)
+                .addMixIn(Sort.class, SortMixIn.class)
+                .addMixIn(Sort.Order.class, OrderMixIn.class)
+                .build();
+    }
+
+    @Override
+    public byte formatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] payload) throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class PageImplMixIn<T> {
+        @JsonCreator
+        PageImplMixIn(@JsonProperty("content") List<T> content,
+                      @JsonProperty("pageable") Pageable pageable,
+                      @JsonProperty("totalElements") long total) {
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class PageRequestMixIn {
+        @JsonCreator
+        static PageRequest of(@JsonProperty("pageNumber") int page,
+                              @JsonProperty("pageSize") int size,
+                              @JsonProperty("sort") Sort sort) {
+            return null;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class SortMixIn {
+        @JsonCreator
+        static Sort by(@JsonProperty("orders") List<Sort.Order> orders) {
+            return null;
+        }
+
+        @JsonProperty("orders")
+        abstract List<Sort.Order> toList();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class OrderMixIn {
+        @JsonCreator
+        OrderMixIn(@JsonProperty("direction") Sort.Direction direction,
+                   @JsonProperty("property") String property,
+                   @JsonProperty("ignoreCase") boolean ignoreCase,
+                   @JsonProperty("nullHandling") Sort.NullHandling nullHandling) {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.common.cache.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Redis value serializer that prefixes every value with a small header:
+ * <pre>
+ *   byte 0   magic 0xCA
+ *   byte 1   format id of the {@link CacheValueCodec} that wrote the payload
+ *   byte 2   flags: 0x1 = LZ4-compressed, 0x2 = cached null
+ *   [int]    uncompressed payload length, only when compressed
+ *   payload
+ * </pre>
+ * Values are written with the current codec and read with whichever registered codec
+ * matches their format id, so a new format can be rolled out while entries written by
+ * the previous one are still live. Payloads of at least {@code compressionThreshold}
+ * bytes are LZ4-compressed when that makes them smaller. Values in an unknown or
+ * unreadable format are reported as cache misses.
+ */
+@Slf4j
+public class VersionedCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xCA;
+    static final byte FLAG_LZ4 = 0x1;
+    static final byte FLAG_NULL = 0x2;
+
+    private static final int HEADER_SIZE = 3;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    private final CacheValueCodec writeCodec;
+    private final Map<Byte, CacheValueCodec> readCodecs;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param writeCodec           codec for new values; also used for reading
+     * @param readCodecs           additional codecs for values written in older formats
+     * @param compressionThreshold minimum payload size to try compression; 0 disables it
+     */
+    public VersionedCacheSerializer(CacheValueCodec writeCodec, Collection<CacheValueCodec> readCodecs,
+                                    int compressionThreshold) {
+        this.writeCodec = writeCodec;
+        this.readCodecs = new HashMap<>(readCodecs.stream()
+                .collect(Collectors.toMap(CacheValueCodec::formatId, Function.identity())));
+        this.readCodecs.put(writeCodec.formatId(), writeCodec);
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || value instanceof NullValue) {
+            return new byte[] {MAGIC, writeCodec.formatId(), FLAG_NULL};
+        }
+        byte[] payload;
+        try {
+            payload = writeCodec.encode(value);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot encode cache value of type " + value.getClass().getName(), e);
+        }
+
+        if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+            int maxLength = compressor.maxCompressedLength(payload.length);
+            byte[] compressed = new byte[HEADER_SIZE + LENGTH_SIZE + maxLength];
+            int length = compressor.compress(payload, 0, payload.length,
+                    compressed, HEADER_SIZE + LENGTH_SIZE, maxLength);
+            if (length < payload.length) {
+                writeHeader(compressed, FLAG_LZ4);
+                ByteBuffer.wrap(compressed, HEADER_SIZE, LENGTH_SIZE).putInt(payload.length);
+                return Arrays.copyOf(compressed, HEADER_SIZE + LENGTH_SIZE + length);
+            }
+        }
+
+        byte[] bytes = new byte[HEADER_SIZE + payload.length];
+        writeHeader(bytes, (byte) 0);
+        System.arraycopy(payload, 0, bytes, HEADER_SIZE, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != MAGIC) {
+            return null;
+        }
+        CacheValueCodec codec = readCodecs.get(bytes[1]);
+        if (codec == null) {
+            log.debug("Ignoring cache value in unknown format {}", bytes[1]);
+            return null;
+        }
+        byte flags = bytes[2];
+        if ((flags & FLAG_NULL) != 0) {
+            return NullValue.INSTANCE;
+        }
+        try {
+            byte[] payload;
+            if ((flags & FLAG_LZ4) != 0) {
+                int length = ByteBuffer.wrap(bytes, HEADER_SIZE, LENGTH_SIZE).getInt();
+                payload = decompressor.decompress(bytes, HEADER_SIZE + LENGTH_SIZE, length);
+            } else {
+                payload = Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length);
+            }
+            return codec.decode(payload);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable cache value in format {}", bytes[1], e);
+            return null;
+        }
+    }
+
+    private void writeHeader(byte[] bytes, byte flags) {
+        bytes[0] = MAGIC;
+        bytes[1] = writeCodec.formatId();
+        bytes[2] = flags;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.common.dto;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A sparse fieldset requested through {@code ?fields=a,b,c}. The selection is pushed down
+ * as a database projection where the read is not served from cache, and always applied
+ * to JSON output through the {@value #FILTER_ID} Jackson filter carried by the response
+ * DTOs. {@code id} is always included. Parsed selections are cached per DTO type and
+ * field-set string.
+ */
+public final class FieldSelection {
+
+    public static final String FILTER_ID = "fieldSelection";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+    private static final int MAX_CACHED_PER_TYPE = 1024;
+    private static final Map<Class<?>, Map<String, FieldSelection>> PARSED = new ConcurrentHashMap<>();
+
+    private final Set<String> fields;
+    private final FilterProvider filters;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+        this.filters = fields == null ? null
+                : new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    /**
+     * Parse a {@code fields} parameter against the properties of {@code type}.
+     *
+     * @throws IllegalArgumentException if a field is not a property of {@code type}
+     */
+    public static FieldSelection parse(String spec, Class<?> type) {
+        if (spec == null || spec.isBlank()) {
+            return ALL;
+        }
+        Map<String, FieldSelection> cache = PARSED.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        FieldSelection selection = cache.get(spec);
+        if (selection == null) {
+            selection = new FieldSelection(validate(spec, type));
+            if (cache.size() < MAX_CACHED_PER_TYPE) {
+                cache.put(spec, selection);
+            }
+        }
+        return selection;
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    /**
+     * The selected property names, or {@code null} when everything is selected.
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Wrap a response body so that only the selected properties are serialized.
+     */
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (filters != null) {
+            value.setFilters(filters);
+        }
+        return value;
+    }
+
+    private static Set<String> validate(String spec, Class<?> type) {
+        Set<String> properties = Arrays.stream(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : spec.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return Set.copyOf(selected);
+    }
+}
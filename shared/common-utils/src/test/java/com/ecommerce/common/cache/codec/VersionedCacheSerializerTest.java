@@ -0,0 +1,152 @@
+package com.ecommerce.common.cache.codec;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Versioned Cache Serializer Tests")
+class VersionedCacheSerializerTest {
+
+    private final VersionedCacheSerializer serializer =
+            new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), 512);
+
+    @Test
+    @DisplayName("Should round-trip small values uncompressed")
+    void testSmallValue() {
+        // Given
+        Item item = item("Short description");
+
+        // When
+        byte[] bytes = serializer.serialize(item);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo(VersionedCacheSerializer.MAGIC);
+        assertThat(bytes[1]).isEqualTo(SmileCacheValueCodec.FORMAT_ID);
+        assertThat(bytes[2]).isZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(item);
+    }
+
+    @Test
+    @DisplayName("Should compress large values and restore them")
+    void testCompressedValue() {
+        // Given
+        Item item = item("A very repetitive description. ".repeat(100));
+
+        // When
+        byte[] bytes = serializer.serialize(item);
+
+        // Then
+        assertThat(bytes[2] & VersionedCacheSerializer.FLAG_LZ4).isNotZero();
+        assertThat(bytes.length).isLessThan(item.getDescription().length());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(item);
+    }
+
+    @Test
+    @DisplayName("Should encode a page of values smaller than JSON")
+    void testSmallerThanJson() {
+        // Given
+        List<Item> content = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            content.add(new Item("65a1f0c2e4b0a1b2c3d4" + i, "Organic Cotton Tee",
+                    "https://cdn.example.com/products/ts-" + i + "/front.jpg", new BigDecimal("24.99"),
+                    List.of("organic", "cotton")));
+        }
+        PageImpl<Item> page = new PageImpl<>(content, PageRequest.of(0, 20), 1000);
+        RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer(
+                SmileCacheValueCodec.configure(JsonMapper.builder()));
+
+        // When
+        byte[] smile = new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(), Integer.MAX_VALUE).serialize(page);
+        byte[] compressed = serializer.serialize(page);
+
+        // Then
+        assertThat(smile.length).isLessThan(json.serialize(page).length * 2 / 3);
+        assertThat(compressed.length).isLessThan(smile.length);
+    }
+
+    @Test
+    @DisplayName("Should store cached nulls as a bare header")
+    void testNullValue() {
+        // When
+        byte[] bytes = serializer.serialize(NullValue.INSTANCE);
+
+        // Then
+        assertThat(bytes).containsExactly(VersionedCacheSerializer.MAGIC, SmileCacheValueCodec.FORMAT_ID,
+                VersionedCacheSerializer.FLAG_NULL);
+        assertThat(serializer.deserialize(bytes)).isSameAs(NullValue.INSTANCE);
+    }
+
+    @Test
+    @DisplayName("Should read values written in an older registered format")
+    void testOlderFormat() {
+        // Given
+        CacheValueCodec legacy = new PlainTextCodec();
+        byte[] bytes = new VersionedCacheSerializer(legacy, List.of(), 0).serialize("cached");
+        VersionedCacheSerializer upgraded = new VersionedCacheSerializer(new SmileCacheValueCodec(), List.of(legacy), 0);
+
+        // When / Then
+        assertThat(upgraded.deserialize(bytes)).isEqualTo("cached");
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should treat foreign or corrupt values as cache misses")
+    void testUnreadableValues() {
+        byte[] valid = serializer.serialize(item("A very repetitive description. ".repeat(100)));
+        byte[] truncated = Arrays.copyOf(valid, valid.length / 2);
+
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThat(serializer.deserialize(new byte[] {1})).isNull();
+        assertThat(serializer.deserialize("{\"id\":\"p1\"}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(serializer.deserialize(truncated)).isNull();
+    }
+
+    private static Item item(String description) {
+        return new Item("p1", "Wireless Mouse", description, new BigDecimal("29.99"), List.of("mouse", "wireless"));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Item {
+        private String id;
+        private String name;
+        private String description;
+        private BigDecimal price;
+        private List<String> tags;
+    }
+
+    private static final class PlainTextCodec implements CacheValueCodec {
+
+        @Override
+        public byte formatId() {
+            return 9;
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            return value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object decode(byte[] payload) {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+}